@@ -0,0 +1,13 @@
+-- 下载中心改为导出任务队列：状态 QUEUED/RUNNING/SUCCESS/FAILED/CANCELLED，由 ExportJobScheduler 按优先级认领执行。
+-- 执行节点写入 lease_owner 并定时续约 lease_expire_time，租约过期的任务由其他节点重新排队。
+ALTER TABLE sys_download_center
+    ADD COLUMN job_type          VARCHAR(64)   NULL COMMENT '任务类型' AFTER remark,
+    ADD COLUMN job_params        TEXT          NULL COMMENT '任务参数(JSON)' AFTER job_type,
+    ADD COLUMN priority          TINYINT       NOT NULL DEFAULT 1 COMMENT '优先级：0高 1普通 2低' AFTER job_params,
+    ADD COLUMN attempts          INT           NOT NULL DEFAULT 0 COMMENT '已执行次数' AFTER priority,
+    ADD COLUMN lease_owner       VARCHAR(128)  NULL COMMENT '租约持有节点' AFTER attempts,
+    ADD COLUMN lease_expire_time DATETIME      NULL COMMENT '租约到期时间' AFTER lease_owner,
+    ADD COLUMN started_date_time DATETIME      NULL COMMENT '开始执行时间' AFTER lease_expire_time;
+
+CREATE INDEX idx_sys_download_center_queue ON sys_download_center (status, priority, id);
+CREATE INDEX idx_sys_download_center_lease ON sys_download_center (status, lease_expire_time);
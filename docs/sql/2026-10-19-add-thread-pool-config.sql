@@ -0,0 +1,6 @@
+-- 线程池运行时参数：文本格式为 核心线程数,最大线程数,队列容量，留空的项保持当前值，例如 ",16," 只调整最大线程数。
+-- 各节点每 30 秒通过系统参数缓存读取一次，修改后无需重启；文本为空时使用代码中的默认配置。
+INSERT INTO sys_config (id, code, descs, type, enabled, text, create_time, update_time, deleted)
+VALUES (1979000000000000001, 'THREAD_POOL_ASYNC', '默认异步线程池(核心,最大,队列)', 'TEXT_TYPE', 1, '', NOW(), NOW(), 0),
+       (1979000000000000002, 'THREAD_POOL_COMMON', '通用线程池(核心,最大,队列)', 'TEXT_TYPE', 1, '', NOW(), NOW(), 0),
+       (1979000000000000003, 'THREAD_POOL_LOG', '日志异步线程池(核心,最大,队列)', 'TEXT_TYPE', 1, '', NOW(), NOW(), 0);
@@ -3,12 +3,14 @@
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * 启动器
  */
 @Slf4j
 @SpringBootApplication
+@EnableScheduling
 public class HaoziAdminApplication {
     /**
      *  启动方法
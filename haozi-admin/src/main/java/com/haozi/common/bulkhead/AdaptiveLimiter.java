@@ -0,0 +1,115 @@
+package com.haozi.common.bulkhead;
+
+import com.haozi.common.config.ProjectConfiguration;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 自适应并发上限
+ * <p>
+ * 梯度算法：长期平均延迟 / 本次延迟 作为梯度，延迟上升时按梯度收缩上限，延迟平稳时每次增加 sqrt(上限) 的余量；
+ * 请求失败（异常或 5xx）时按比例乘性减小（AIMD）。
+ * 在途数不到上限一半时不调整，避免低负载时上限无限增长。
+ *
+ * @author liliangyu
+ */
+class AdaptiveLimiter {
+
+    /**
+     * 长期延迟的预热样本数，预热期内取算术平均
+     */
+    private static final int WARMUP_SAMPLES = 10;
+    /**
+     * 长期延迟的指数平均窗口
+     */
+    private static final int LONG_WINDOW = 600;
+
+    private final ProjectConfiguration.BulkheadProperties properties;
+    private final ProjectConfiguration.BulkheadPartitionProperties partition;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile int limit;
+    private double estimatedLimit;
+    private double longRttNanos;
+    private long samples;
+
+    AdaptiveLimiter(ProjectConfiguration.BulkheadProperties properties,
+                    ProjectConfiguration.BulkheadPartitionProperties partition) {
+        this.properties = properties;
+        this.partition = partition;
+        this.estimatedLimit = partition.getInitialLimit();
+        this.limit = partition.getInitialLimit();
+    }
+
+    /**
+     * 尝试占用一个并发名额
+     *
+     * @return 占用时的在途数（含本次），已满时返回 -1
+     */
+    int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * 释放名额并记录样本
+     *
+     * @param rttNanos        耗时(纳秒)，小于 0 表示不记录样本（如异步请求）
+     * @param inFlightAtStart 占用时的在途数
+     * @param dropped         是否失败
+     */
+    void release(long rttNanos, int inFlightAtStart, boolean dropped) {
+        inFlight.decrementAndGet();
+        if (rttNanos >= 0) {
+            onSample(rttNanos, inFlightAtStart, dropped);
+        }
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtStart, boolean dropped) {
+        double newLimit;
+        if (dropped) {
+            newLimit = estimatedLimit * properties.getBackoffRatio();
+        } else {
+            samples++;
+            if (samples <= WARMUP_SAMPLES) {
+                longRttNanos += (rttNanos - longRttNanos) / samples;
+            } else {
+                longRttNanos += (rttNanos - longRttNanos) * 2 / (LONG_WINDOW + 1);
+            }
+            // 长期延迟明显偏高时（例如一次慢查询后），让其尽快回落
+            if (longRttNanos > rttNanos * 2) {
+                longRttNanos *= 0.95;
+            }
+            if (inFlightAtStart < estimatedLimit / 2) {
+                return;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, properties.getTolerance() * longRttNanos / Math.max(rttNanos, 1)));
+            newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+            newLimit = estimatedLimit * (1 - properties.getSmoothing()) + newLimit * properties.getSmoothing();
+        }
+        estimatedLimit = Math.max(partition.getMinLimit(), Math.min(partition.getMaxLimit(), newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * 长期平均延迟(毫秒)
+     */
+    synchronized double getLongRttMs() {
+        return longRttNanos / 1_000_000;
+    }
+}
@@ -0,0 +1,23 @@
+package com.haozi.common.bulkhead;
+
+import java.lang.annotation.*;
+
+/**
+ * 并发隔离注解
+ * <p>
+ * 标注在 Controller 类或方法上时由 BulkheadInterceptor 在请求入口处理；
+ * 标注在其他 Spring Bean 方法上时由 BulkheadAspect 处理。
+ * 分区并发数达到自适应上限时立即失败，返回 503 与 Retry-After，不排队等待。
+ *
+ * @author liliangyu
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Bulkhead {
+
+    /**
+     * 隔离分区
+     */
+    BulkheadType value();
+}
@@ -0,0 +1,40 @@
+package com.haozi.common.bulkhead;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 服务方法并发隔离切面
+ * Controller 上的注解由 BulkheadInterceptor 处理，这里只处理其他 Bean（外部 HTTP 调用、导出等）
+ *
+ * @author liliangyu
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+public class BulkheadAspect {
+
+    private final BulkheadRegistry bulkheadRegistry;
+
+    @Around("@annotation(bulkhead) && !within(@org.springframework.web.bind.annotation.RestController *)")
+    public Object around(ProceedingJoinPoint joinPoint, Bulkhead bulkhead) throws Throwable {
+        if (!bulkheadRegistry.isEnabled() || BulkheadRegistry.isBypassed(bulkhead.value())) {
+            return joinPoint.proceed();
+        }
+        BulkheadRegistry.Permit permit = bulkheadRegistry.acquire(bulkhead.value());
+        boolean dropped = true;
+        try {
+            Object result = joinPoint.proceed();
+            dropped = false;
+            return result;
+        } finally {
+            permit.release(dropped);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.haozi.common.bulkhead;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * 请求入口并发隔离
+ * <p>
+ * 分区取方法上的 {@link Bulkhead}，其次取类上的；都没有时 GET 请求按配置归入 READ 分区，其他请求不限制。
+ * 请求结束时按耗时与响应状态调整分区上限，异步请求（SSE 等）在异步处理开始时释放且不计入样本。
+ *
+ * @author liliangyu
+ */
+@Component
+@RequiredArgsConstructor
+public class BulkheadInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = BulkheadInterceptor.class.getName() + ".permit";
+
+    private final BulkheadRegistry bulkheadRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!bulkheadRegistry.isEnabled() || request.getDispatcherType() != DispatcherType.REQUEST
+                || !(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        BulkheadType type = resolve(request, handlerMethod);
+        if (type != null) {
+            request.setAttribute(PERMIT_ATTRIBUTE, bulkheadRegistry.acquire(type));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof BulkheadRegistry.Permit permit) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            permit.releaseWithoutSample();
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof BulkheadRegistry.Permit permit) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            permit.release(ex != null || response.getStatus() >= 500);
+        }
+    }
+
+    private BulkheadType resolve(HttpServletRequest request, HandlerMethod handlerMethod) {
+        Bulkhead bulkhead = handlerMethod.getMethodAnnotation(Bulkhead.class);
+        if (bulkhead == null) {
+            bulkhead = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), Bulkhead.class);
+        }
+        if (bulkhead != null) {
+            return bulkhead.value();
+        }
+        if (bulkheadRegistry.isReadDefault() && HttpMethod.GET.matches(request.getMethod())) {
+            return BulkheadType.READ;
+        }
+        return null;
+    }
+}
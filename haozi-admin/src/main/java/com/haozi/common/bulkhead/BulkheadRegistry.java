@@ -0,0 +1,172 @@
+package com.haozi.common.bulkhead;
+
+import com.haozi.common.config.ProjectConfiguration;
+import com.haozi.common.exception.BulkheadFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 隔离分区注册中心
+ * <p>
+ * 为每个分区维护一个自适应并发上限，指标以 bulkhead.* 名称注册：当前上限、在途数、拒绝次数。
+ * 已由其他机制控制并发的调用（如导出任务调度器）可通过 {@link #runBypassed} 跳过对应分区，避免两套上限叠加。
+ *
+ * @author liliangyu
+ */
+@Slf4j
+@Component
+public class BulkheadRegistry {
+
+    /**
+     * 当前线程跳过的分区
+     */
+    private static final ThreadLocal<BulkheadType> BYPASSED = new ThreadLocal<>();
+
+    private final ProjectConfiguration projectConfiguration;
+    private final Map<BulkheadType, Partition> partitions = new EnumMap<>(BulkheadType.class);
+
+    public BulkheadRegistry(ProjectConfiguration projectConfiguration, MeterRegistry meterRegistry) {
+        this.projectConfiguration = projectConfiguration;
+        ProjectConfiguration.BulkheadProperties properties = projectConfiguration.getBulkheadProperties();
+        for (BulkheadType type : BulkheadType.values()) {
+            ProjectConfiguration.BulkheadPartitionProperties partitionProperties = properties.getPartitions()
+                    .getOrDefault(type, new ProjectConfiguration.BulkheadPartitionProperties());
+            AdaptiveLimiter limiter = new AdaptiveLimiter(properties, partitionProperties);
+            String tag = type.name().toLowerCase();
+            Gauge.builder("bulkhead.limit", limiter, AdaptiveLimiter::getLimit)
+                    .description("分区自适应并发上限")
+                    .tag("partition", tag)
+                    .register(meterRegistry);
+            Gauge.builder("bulkhead.inflight", limiter, AdaptiveLimiter::getInFlight)
+                    .description("分区在途请求数")
+                    .tag("partition", tag)
+                    .register(meterRegistry);
+            Counter rejected = Counter.builder("bulkhead.rejected")
+                    .description("分区拒绝次数")
+                    .tag("partition", tag)
+                    .register(meterRegistry);
+            partitions.put(type, new Partition(limiter, rejected));
+        }
+    }
+
+    /**
+     * 是否启用
+     *
+     * @return 是否启用
+     */
+    public boolean isEnabled() {
+        return projectConfiguration.getBulkheadProperties().isEnabled();
+    }
+
+    /**
+     * 未标注的 GET 请求是否归入 READ 分区
+     *
+     * @return 是否归入
+     */
+    public boolean isReadDefault() {
+        return projectConfiguration.getBulkheadProperties().isReadDefault();
+    }
+
+    /**
+     * 在当前线程上执行任务，期间跳过指定分区；其他分区不受影响
+     *
+     * @param type 分区
+     * @param task 任务
+     */
+    public static void runBypassed(BulkheadType type, Runnable task) {
+        BulkheadType previous = BYPASSED.get();
+        BYPASSED.set(type);
+        try {
+            task.run();
+        } finally {
+            if (previous != null) {
+                BYPASSED.set(previous);
+            } else {
+                BYPASSED.remove();
+            }
+        }
+    }
+
+    /**
+     * 当前线程是否跳过指定分区
+     *
+     * @param type 分区
+     * @return 是否跳过
+     */
+    public static boolean isBypassed(BulkheadType type) {
+        return BYPASSED.get() == type;
+    }
+
+    /**
+     * 占用分区名额，已满时抛出 BulkheadFullException
+     *
+     * @param type 分区
+     * @return 名额，使用完毕后必须调用 release
+     */
+    public Permit acquire(BulkheadType type) {
+        Partition partition = partitions.get(type);
+        int inFlight = partition.limiter.tryAcquire();
+        if (inFlight < 0) {
+            partition.rejected.increment();
+            log.debug("分区 {} 并发已满, 上限 {}", type, partition.limiter.getLimit());
+            throw new BulkheadFullException("系统繁忙，请稍后重试", retryAfterSeconds(partition.limiter));
+        }
+        return new Permit(partition.limiter, inFlight);
+    }
+
+    /**
+     * 建议重试等待秒数：不小于配置值，且不小于分区长期平均延迟
+     */
+    private long retryAfterSeconds(AdaptiveLimiter limiter) {
+        long configured = projectConfiguration.getBulkheadProperties().getRetryAfterSeconds();
+        return Math.max(configured, (long) Math.ceil(limiter.getLongRttMs() / 1000));
+    }
+
+    /**
+     * 分区名额
+     */
+    public static final class Permit {
+        private final AdaptiveLimiter limiter;
+        private final int inFlightAtStart;
+        private final long startNanos = System.nanoTime();
+        private boolean released;
+
+        private Permit(AdaptiveLimiter limiter, int inFlightAtStart) {
+            this.limiter = limiter;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * 释放并记录耗时样本，重复调用无效
+         *
+         * @param dropped 是否失败
+         */
+        public void release(boolean dropped) {
+            if (released) {
+                return;
+            }
+            released = true;
+            limiter.release(System.nanoTime() - startNanos, inFlightAtStart, dropped);
+        }
+
+        /**
+         * 释放但不记录样本，用于 SSE 等耗时不代表负载的异步请求
+         */
+        public void releaseWithoutSample() {
+            if (released) {
+                return;
+            }
+            released = true;
+            limiter.release(-1, inFlightAtStart, false);
+        }
+    }
+
+    private record Partition(AdaptiveLimiter limiter, Counter rejected) {
+    }
+}
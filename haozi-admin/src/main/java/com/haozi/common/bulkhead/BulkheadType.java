@@ -0,0 +1,30 @@
+package com.haozi.common.bulkhead;
+
+/**
+ * 隔离分区
+ * 每个分区有独立的自适应并发上限，一类负载突增时只影响本分区
+ *
+ * @author liliangyu
+ */
+public enum BulkheadType {
+
+    /**
+     * 登录、当前用户等认证接口
+     */
+    AUTH,
+
+    /**
+     * 普通查询接口，未标注的 GET 请求默认归入此分区
+     */
+    READ,
+
+    /**
+     * 导出
+     */
+    EXPORT,
+
+    /**
+     * 调用外部 HTTP 服务（高德逆地址解析、OSS 等）
+     */
+    EXTERNAL_HTTP
+}
@@ -2,12 +2,19 @@
 
 import cn.hutool.core.collection.CollectionUtil;
 import cn.hutool.core.util.StrUtil;
+import com.haozi.common.redis.RedisBatch;
+import com.haozi.common.redis.RedisBatchTemplate;
+import com.haozi.common.redis.RedisNearCache;
 import jakarta.annotation.Resource;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 角色权限缓存
@@ -21,6 +28,10 @@ public class RollPermissionCache {
     @Resource
     private RedisTemplate<String, String> redisTemplate;
 
+    private final RedisBatchTemplate redisBatchTemplate;
+
+    private final RedisNearCache redisNearCache;
+
     /**
      * 获取角色权限
      *
@@ -28,7 +39,42 @@ public class RollPermissionCache {
      * @return
      */
     public List<String> getPermission(final Long roleId) {
-        return redisTemplate.opsForList().range(StrUtil.format(ROLE_PERMISSION, roleId), 0, -1);
+        final String key = StrUtil.format(ROLE_PERMISSION, roleId);
+        return redisNearCache.get(key, () -> redisTemplate.opsForList().range(key, 0, -1), ArrayList::new);
+    }
+
+    /**
+     * 批量获取角色权限，一次往返读取全部角色
+     *
+     * @param roleIds 角色ID列表
+     * @return 角色ID -> 权限列表，缓存不存在时为空列表
+     */
+    public Map<Long, List<String>> getPermissions(final Collection<Long> roleIds) {
+        final Map<String, Long> keyToRoleId = new LinkedHashMap<>(roleIds.size());
+        roleIds.forEach(roleId -> keyToRoleId.put(StrUtil.format(ROLE_PERMISSION, roleId), roleId));
+        // 本地客户端缓存未命中的角色再通过一次管道读取
+        final Map<String, List<String>> cached = redisNearCache.getAll(keyToRoleId.keySet(), this::rangeAll, ArrayList::new);
+
+        final Map<Long, List<String>> result = new LinkedHashMap<>(roleIds.size());
+        cached.forEach((key, permission) -> result.put(keyToRoleId.get(key), permission));
+        return result;
+    }
+
+    /**
+     * 一次管道读取多个权限列表
+     *
+     * @param keys key 列表
+     * @return key -> 权限列表
+     */
+    private Map<String, List<String>> rangeAll(final Collection<String> keys) {
+        final RedisBatch batch = redisBatchTemplate.batch();
+        final Map<String, RedisBatch.Response<List<String>>> responses = new LinkedHashMap<>(keys.size());
+        keys.forEach(key -> responses.put(key, batch.range(key)));
+        batch.execute();
+
+        final Map<String, List<String>> result = new LinkedHashMap<>(keys.size());
+        responses.forEach((key, response) -> result.put(key, response.get()));
+        return result;
     }
 
     /**
@@ -39,11 +85,24 @@ public List<String> getPermission(final Long roleId) {
      */
     public void setPermission(final Long roleId, final List<String> permission) {
         final String key = StrUtil.format(ROLE_PERMISSION, roleId);
-        redisTemplate.delete(key);
-        if (CollectionUtil.isNotEmpty(permission)) {
-            redisTemplate.opsForList().leftPushAll(key, permission);
-        }
+        // 删除与写入合并为一次往返
+        final RedisBatch batch = redisBatchTemplate.batch();
+        batch.replaceList(key, permission);
+        batch.execute();
+    }
 
+    /**
+     * 批量设置角色权限，一次往返写入全部角色
+     *
+     * @param permissions 角色ID -> 权限列表
+     */
+    public void setPermissions(final Map<Long, List<String>> permissions) {
+        if (CollectionUtil.isEmpty(permissions)) {
+            return;
+        }
+        final RedisBatch batch = redisBatchTemplate.batch();
+        permissions.forEach((roleId, permission) -> batch.replaceList(StrUtil.format(ROLE_PERMISSION, roleId), permission));
+        batch.execute();
     }
 
     /**
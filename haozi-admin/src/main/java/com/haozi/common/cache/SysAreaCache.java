@@ -1 +1 @@
-package com.haozi.common.cache;import com.haozi.modules.sys.vo.SysAreaNode;import jakarta.annotation.Resource;import lombok.RequiredArgsConstructor;import org.springframework.data.redis.core.RedisTemplate;import org.springframework.stereotype.Component;import java.util.List;/** * 行政区划缓存 * * @author liliangyu */@Component@RequiredArgsConstructorpublic class SysAreaCache {    @Resource    private RedisTemplate<String, List<SysAreaNode>> redisTemplate;    private final static String KEY = "sys:area";    /**     * 设置     * @param sysAreaNodeList     */    public void set(List<SysAreaNode> sysAreaNodeList) {        redisTemplate.opsForValue().set(KEY, sysAreaNodeList);    }    /**     * 获取     * @return     */    public List<SysAreaNode> get() {        return redisTemplate.opsForValue().get(KEY);    }    /**     * 清除缓存     */    public void clear() {        redisTemplate.delete(KEY);    }}
\ No newline at end of file
+package com.haozi.common.cache;import com.haozi.common.redis.RedisNearCache;import com.haozi.modules.sys.vo.SysAreaNode;import jakarta.annotation.Resource;import lombok.RequiredArgsConstructor;import org.springframework.data.redis.core.RedisTemplate;import org.springframework.stereotype.Component;import java.util.ArrayList;import java.util.List;/** * 行政区划缓存 * * @author liliangyu */@Component@RequiredArgsConstructorpublic class SysAreaCache {    @Resource    private RedisTemplate<String, List<SysAreaNode>> redisTemplate;    private final RedisNearCache redisNearCache;    private final static String KEY = "sys:area";    /**     * 设置     * @param sysAreaNodeList     */    public void set(List<SysAreaNode> sysAreaNodeList) {        redisTemplate.opsForValue().set(KEY, sysAreaNodeList);    }    /**     * 获取     * @return     */    public List<SysAreaNode> get() {        return redisNearCache.get(KEY, () -> redisTemplate.opsForValue().get(KEY), SysAreaCache::copy);    }    /**     * 清除缓存     */    public void clear() {        redisTemplate.delete(KEY);    }    /**     * 深拷贝行政区划树     */    private static List<SysAreaNode> copy(List<SysAreaNode> nodes) {        final List<SysAreaNode> copied = new ArrayList<>(nodes.size());        for (SysAreaNode node : nodes) {            SysAreaNode copy = new SysAreaNode();            copy.setValue(node.getValue());            copy.setLabel(node.getLabel());            if (node.getChildren() != null) {                copy.setChildren(copy(node.getChildren()));            }            copied.add(copy);        }        return copied;    }}
\ No newline at end of file
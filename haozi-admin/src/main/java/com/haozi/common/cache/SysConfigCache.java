@@ -1 +1 @@
-package com.haozi.common.cache;import cn.hutool.core.util.StrUtil;import com.haozi.modules.sys.entity.SysConfig;import jakarta.annotation.Resource;import lombok.RequiredArgsConstructor;import org.springframework.data.redis.core.RedisTemplate;import org.springframework.stereotype.Component;/** * 系统配置缓存 * * @author liliangyu */@Component@RequiredArgsConstructorpublic class SysConfigCache {    @Resource    private RedisTemplate<String, SysConfig> redisTemplate;    private final static String key_prefix = "sys:config:{}";    /**     * 设置系统配置     * @param sysConfig     */    public void set(SysConfig sysConfig) {        String key = StrUtil.format(key_prefix, sysConfig.getCode());        redisTemplate.opsForValue().set(key, sysConfig);    }    /**     *  获取系统配置     * @param code     * @return     */    public SysConfig get(String code) {        String key = StrUtil.format(key_prefix, code);        return redisTemplate.opsForValue().get(key);    }    /**     *  清空所有系统配置缓存     */    public void clearAll() {        final String key = StrUtil.format(key_prefix, "*");        redisTemplate.delete(key);    }    /**     * 删除系统配置缓存     * @param code     */    public void clean(String code) {        String key = StrUtil.format(key_prefix, code);        redisTemplate.delete(key);    }}
\ No newline at end of file
+package com.haozi.common.cache;import cn.hutool.core.util.StrUtil;import com.haozi.common.redis.RedisBatchTemplate;import com.haozi.common.redis.RedisNearCache;import com.haozi.modules.sys.convert.SysConfigConvert;import com.haozi.modules.sys.entity.SysConfig;import jakarta.annotation.Resource;import lombok.RequiredArgsConstructor;import org.springframework.data.redis.core.RedisTemplate;import org.springframework.stereotype.Component;import java.util.Collection;import java.util.LinkedHashMap;import java.util.Map;/** * 系统配置缓存 * * @author liliangyu */@Component@RequiredArgsConstructorpublic class SysConfigCache {    @Resource    private RedisTemplate<String, SysConfig> redisTemplate;    private final RedisBatchTemplate redisBatchTemplate;    private final RedisNearCache redisNearCache;    private final static String key_prefix = "sys:config:{}";    /**     * 设置系统配置     * @param sysConfig     */    public void set(SysConfig sysConfig) {        String key = StrUtil.format(key_prefix, sysConfig.getCode());        redisTemplate.opsForValue().set(key, sysConfig);    }    /**     * 批量设置系统配置，一次 MSET 写入     * @param sysConfigs     */    public void setAll(Collection<SysConfig> sysConfigs) {        final Map<String, SysConfig> values = new LinkedHashMap<>(sysConfigs.size());        sysConfigs.forEach(sysConfig -> values.put(StrUtil.format(key_prefix, sysConfig.getCode()), sysConfig));        redisBatchTemplate.multiSet(values);    }    /**     *  获取系统配置     * @param code     * @return     */    public SysConfig get(String code) {        String key = StrUtil.format(key_prefix, code);        return redisNearCache.get(key, () -> redisTemplate.opsForValue().get(key), SysConfigConvert.INSTANCE::copy);    }    /**     * 批量获取系统配置，一次 MGET 读取     * @param codes     * @return 编码 -> 系统配置，缓存中不存在的编码不放入结果     */    public Map<String, SysConfig> getAll(Collection<String> codes) {        final Map<String, String> keyToCode = new LinkedHashMap<>(codes.size());        codes.forEach(code -> keyToCode.put(StrUtil.format(key_prefix, code), code));        final Map<String, SysConfig> cached = redisNearCache.getAll(keyToCode.keySet(), redisBatchTemplate::multiGet, SysConfigConvert.INSTANCE::copy);        final Map<String, SysConfig> result = new LinkedHashMap<>(cached.size());        cached.forEach((key, sysConfig) -> {            if (sysConfig != null) {                result.put(keyToCode.get(key), sysConfig);            }        });        return result;    }    /**     *  清空所有系统配置缓存     */    public void clearAll() {        // DEL 不支持通配符，按模式扫描后批量删除        redisBatchTemplate.deleteByPattern(StrUtil.format(key_prefix, "*"));    }    /**     * 删除系统配置缓存     * @param code     */    public void clean(String code) {        String key = StrUtil.format(key_prefix, code);        redisTemplate.delete(key);    }}
\ No newline at end of file
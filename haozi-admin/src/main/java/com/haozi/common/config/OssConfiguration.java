@@ -0,0 +1,36 @@
+package com.haozi.common.config;
+
+import com.aliyun.oss.ClientBuilderConfiguration;
+import com.aliyun.oss.OSS;
+import com.aliyun.oss.OSSClientBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 阿里云 OSS 客户端配置
+ * <p>
+ * OSS 客户端线程安全，内部维护 HTTP 连接池，全局共用一个实例，
+ * 避免每次上传都重新建立连接池与 TLS 握手。容器关闭时 shutdown 释放连接。
+ *
+ * @author liliangyu
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+public class OssConfiguration {
+
+    @Bean(destroyMethod = "shutdown")
+    public OSS ossClient(final ProjectConfiguration projectConfiguration) {
+        final ProjectConfiguration.AliyunOssProperties properties = projectConfiguration.getAliyunOssProperties();
+        final ClientBuilderConfiguration configuration = new ClientBuilderConfiguration();
+        configuration.setMaxConnections(properties.getMaxConnections());
+        configuration.setConnectionTimeout((int) properties.getConnectionTimeout().toMillis());
+        configuration.setSocketTimeout((int) properties.getSocketTimeout().toMillis());
+        configuration.setConnectionRequestTimeout((int) properties.getConnectionRequestTimeout().toMillis());
+        configuration.setIdleConnectionTime(properties.getIdleConnectionTime().toMillis());
+        configuration.setMaxErrorRetry(properties.getMaxErrorRetry());
+        log.info("OSS 客户端: 最大连接数 {}, 最大重试次数 {}", properties.getMaxConnections(), properties.getMaxErrorRetry());
+        return new OSSClientBuilder().build(properties.getEndPoint(), properties.getAccessKeyId(),
+                properties.getAccessKeySecret(), configuration);
+    }
+}
@@ -1,9 +1,16 @@
 package com.haozi.common.config;
 
+import com.haozi.common.bulkhead.BulkheadType;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * 系统参数
  *
@@ -20,6 +27,51 @@ public class ProjectConfiguration {
      */
     private final AliyunOssProperties aliyunOssProperties = new AliyunOssProperties();
 
+    /**
+     * Redis 键分析配置项
+     */
+    private final RedisAnalyzeProperties redisAnalyzeProperties = new RedisAnalyzeProperties();
+
+    /**
+     * Redis 客户端命令监控配置项
+     */
+    private final RedisMetricsProperties redisMetricsProperties = new RedisMetricsProperties();
+
+    /**
+     * Redis 客户端缓存（近端缓存）配置项
+     */
+    private final RedisNearCacheProperties redisNearCacheProperties = new RedisNearCacheProperties();
+
+    /**
+     * Redis 客户端（Redisson）连接配置项
+     */
+    private final RedisClientProperties redisClientProperties = new RedisClientProperties();
+
+    /**
+     * 分布式锁配置项
+     */
+    private final LockProperties lockProperties = new LockProperties();
+
+    /**
+     * 异步执行器配置项
+     */
+    private final ExecutorProperties executorProperties = new ExecutorProperties();
+
+    /**
+     * 并发隔离配置项
+     */
+    private final BulkheadProperties bulkheadProperties = new BulkheadProperties();
+
+    /**
+     * 导出图片下载配置项
+     */
+    private final ImageIoProperties imageIoProperties = new ImageIoProperties();
+
+    /**
+     * 导出配置项
+     */
+    private final ExportProperties exportProperties = new ExportProperties();
+
     /**
      * 域名
      */
@@ -60,5 +112,380 @@ public static class AliyunOssProperties {
          * oss域名
          */
         private String cdnDomain;
+        /**
+         * 流式上传的分片大小，OSS 要求除最后一片外不小于 100KB
+         */
+        private int partSize = 8 * 1024 * 1024;
+        /**
+         * 分片缓冲区数量（堆外），所有上传共享，决定在途分片数与堆外内存上限
+         */
+        private int partBufferCount = 4;
+        /**
+         * 分片并行上传线程数
+         */
+        private int partUploadConcurrency = 4;
+        /**
+         * 客户端最大连接数，全局共用一个客户端
+         */
+        private int maxConnections = 64;
+        /**
+         * 建立连接超时时间
+         */
+        private Duration connectionTimeout = Duration.ofSeconds(10);
+        /**
+         * 读写超时时间
+         */
+        private Duration socketTimeout = Duration.ofSeconds(60);
+        /**
+         * 从连接池获取连接的超时时间
+         */
+        private Duration connectionRequestTimeout = Duration.ofSeconds(10);
+        /**
+         * 空闲连接回收时间
+         */
+        private Duration idleConnectionTime = Duration.ofSeconds(60);
+        /**
+         * 请求失败最大重试次数
+         */
+        private int maxErrorRetry = 3;
+    }
+
+    /**
+     * Redis 大 key / 热 key 分析配置项
+     */
+    @Data
+    public static class RedisAnalyzeProperties {
+        /**
+         * 是否开启定时分析，默认关闭；开启后每个周期只有一个节点执行全量 SCAN
+         */
+        private boolean enabled = false;
+        /**
+         * 启动后首次分析的延迟
+         */
+        private Duration initialDelay = Duration.ofMinutes(5);
+        /**
+         * 两次分析之间的间隔
+         */
+        private Duration fixedDelay = Duration.ofHours(1);
+        /**
+         * 每次 SCAN 的 COUNT 提示值
+         */
+        private int scanCount = 500;
+        /**
+         * 每批采样的 key 数量（一次往返）
+         */
+        private int batchSize = 100;
+        /**
+         * 每批之间的暂停时间(毫秒)，用于限流
+         */
+        private long batchPauseMs = 20;
+        /**
+         * 单次分析最多扫描的 key 数量
+         */
+        private int maxKeys = 200000;
+        /**
+         * 前缀聚合的层级，例如 2 表示 sys:config:*
+         */
+        private int prefixDepth = 2;
+        /**
+         * 大 key / 热 key 榜单长度
+         */
+        private int topN = 20;
+    }
+
+    /**
+     * Redis 客户端命令监控配置项
+     */
+    @Data
+    public static class RedisMetricsProperties {
+        /**
+         * 是否开启命令监控
+         */
+        private boolean enabled = true;
+        /**
+         * 前缀聚合的层级，与 Redis 键分析保持一致
+         */
+        private int prefixDepth = 2;
+        /**
+         * 最多跟踪的前缀数量，超出后归入 other；不含冒号的 key 统一归入 *
+         */
+        private int maxPrefixes = 200;
+        /**
+         * 调用位置采样间隔，每 N 次命令采集一次调用栈
+         */
+        private int callSiteSampleInterval = 64;
+    }
+
+    /**
+     * Redis 客户端缓存配置项
+     * 基于 Redis 6 CLIENT TRACKING(BCAST) 的服务端推送失效，需要 RESP3
+     */
+    @Data
+    public static class RedisNearCacheProperties {
+        /**
+         * 是否开启，默认关闭
+         */
+        private boolean enabled = false;
+        /**
+         * 需要本地缓存的 key 前缀，服务端对这些前缀的写操作会推送失效消息
+         */
+        private List<String> prefixes = new ArrayList<>(List.of("sys:config:", "ROLE_PERMISSION:", "sys:area"));
+        /**
+         * 本地最多缓存的 key 数量，超出后不再写入本地缓存
+         */
+        private int maxEntries = 10000;
+    }
+
+    /**
+     * Redis 客户端连接配置项
+     * RedisTemplate、Sa-Token、分布式锁共用同一个 Redisson 客户端，这里统一控制连接数与线程数
+     */
+    @Data
+    public static class RedisClientProperties {
+        /**
+         * 单节点连接池最大连接数，Redisson 命令写出后即归还连接，少量连接即可承载高并发
+         */
+        private int connectionPoolSize = 16;
+        /**
+         * 单节点最小空闲连接数，Redisson 默认 24，实例多时会占满 maxclients
+         */
+        private int connectionMinimumIdleSize = 2;
+        /**
+         * 发布订阅（锁释放通知）连接池大小
+         */
+        private int subscriptionConnectionPoolSize = 8;
+        /**
+         * 空闲连接超时时间
+         */
+        private Duration idleConnectionTimeout = Duration.ofSeconds(10);
+        /**
+         * Netty 事件循环线程数，0 表示使用 Redisson 默认值(32)
+         */
+        private int nettyThreads = 8;
+        /**
+         * 回调处理线程数，0 表示使用 Redisson 默认值(CPU * 2)
+         */
+        private int threads = 0;
+    }
+
+    /**
+     * 分布式锁配置项
+     */
+    @Data
+    public static class LockProperties {
+        /**
+         * 是否在分布式锁前加一层进程内锁，同一节点同一key只有一个线程竞争 Redis
+         */
+        private boolean localLockEnabled = true;
+        /**
+         * 最多跟踪的 key 模板数量，超出后归入 other
+         */
+        private int maxTemplates = 200;
+        /**
+         * 等待超过该时间记为慢锁(毫秒)
+         */
+        private long slowWaitMs = 1000;
+        /**
+         * 持有超过该时间记为慢锁(毫秒)
+         */
+        private long slowHoldMs = 3000;
+        /**
+         * 同一 key 模板慢锁日志的最小间隔(毫秒)，用于采样
+         */
+        private long slowLogIntervalMs = 10000;
+    }
+
+    /**
+     * 异步执行器配置项
+     */
+    @Data
+    public static class ExecutorProperties {
+        /**
+         * IO 型执行器（默认 @Async、日志）是否使用虚拟线程，需要 JDK 21，低版本自动回退到平台线程池
+         */
+        private boolean virtualThreads = false;
+        /**
+         * 虚拟线程模式下默认 @Async 执行器的最大并发数
+         */
+        private int asyncConcurrency = 200;
+        /**
+         * 虚拟线程模式下默认 @Async 执行器最多等待的任务数，超出后由提交线程执行，与平台线程池的队列容量一致
+         */
+        private int asyncMaxWaiting = 500;
+        /**
+         * 虚拟线程模式下日志执行器的最大并发数
+         */
+        private int logConcurrency = 16;
+        /**
+         * 虚拟线程模式下日志执行器最多等待的任务数，超出后由提交线程执行
+         */
+        private int logMaxWaiting = 100;
+    }
+
+    /**
+     * 并发隔离配置项
+     * 各分区的并发上限在 [最小值, 最大值] 之间按延迟自适应调整
+     */
+    @Data
+    public static class BulkheadProperties {
+        /**
+         * 是否开启
+         */
+        private boolean enabled = true;
+        /**
+         * 未标注分区的 GET 请求是否归入 READ 分区
+         */
+        private boolean readDefault = true;
+        /**
+         * 延迟容忍倍数，本次延迟不超过长期平均延迟的该倍数时不收缩上限
+         */
+        private double tolerance = 2.0;
+        /**
+         * 上限调整的平滑系数，越小调整越慢
+         */
+        private double smoothing = 0.2;
+        /**
+         * 请求失败时上限的乘性减小比例
+         */
+        private double backoffRatio = 0.9;
+        /**
+         * 拒绝时 Retry-After 的最小秒数
+         */
+        private long retryAfterSeconds = 1;
+        /**
+         * 各分区并发上限
+         */
+        private Map<BulkheadType, BulkheadPartitionProperties> partitions = new EnumMap<>(Map.of(
+                BulkheadType.AUTH, new BulkheadPartitionProperties(20, 5, 100),
+                BulkheadType.READ, new BulkheadPartitionProperties(50, 10, 200),
+                BulkheadType.EXPORT, new BulkheadPartitionProperties(4, 1, 10),
+                BulkheadType.EXTERNAL_HTTP, new BulkheadPartitionProperties(10, 2, 50)
+        ));
+    }
+
+    /**
+     * 单个分区的并发上限
+     */
+    @Data
+    public static class BulkheadPartitionProperties {
+        /**
+         * 初始上限
+         */
+        private int initialLimit = 20;
+        /**
+         * 最小上限
+         */
+        private int minLimit = 1;
+        /**
+         * 最大上限
+         */
+        private int maxLimit = 100;
+
+        public BulkheadPartitionProperties() {
+        }
+
+        public BulkheadPartitionProperties(int initialLimit, int minLimit, int maxLimit) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+        }
+    }
+
+    /**
+     * 导出图片下载配置项
+     */
+    @Data
+    public static class ImageIoProperties {
+        /**
+         * 下载并发数，0 表示使用 ImageCompressionConfig 默认线程池大小
+         */
+        private int fetchConcurrency = 0;
+        /**
+         * 解码、压缩并发数，0 表示使用 CPU 核数
+         */
+        private int decodeConcurrency = 0;
+        /**
+         * 下载、解码线程池队列容量
+         */
+        private int queueCapacity = 2000;
+        /**
+         * 同一主机同时下载的最大连接数
+         */
+        private int maxConnectionsPerHost = 4;
+        /**
+         * 全局在途字节预算（下载中 + 待解码），用于限制堆内存占用
+         */
+        private long maxInFlightBytes = 64L * 1024 * 1024;
+        /**
+         * 下载前为单张图片预占的字节数，下载完成后按实际大小修正
+         */
+        private long estimatedImageBytes = 1024 * 1024;
+        /**
+         * 单张图片大小上限，超过时不下载
+         */
+        private long maxImageBytes = 20L * 1024 * 1024;
+        /**
+         * 连接数或字节预算已满时重新调度的间隔(毫秒)
+         */
+        private long permitRetryDelayMs = 50;
+        /**
+         * 等待连接数或字节预算的最长时间(毫秒)
+         */
+        private long acquireTimeoutMs = 30000;
+        /**
+         * 是否启用压缩结果磁盘缓存
+         */
+        private boolean cacheEnabled = true;
+        /**
+         * 磁盘缓存目录
+         */
+        private String cacheDir = System.getProperty("java.io.tmpdir") + "/haozi-image-cache";
+        /**
+         * 磁盘缓存总大小上限，超出时按最久未使用淘汰
+         */
+        private long cacheMaxBytes = 512L * 1024 * 1024;
+    }
+
+    /**
+     * 导出配置项
+     */
+    @Data
+    public static class ExportProperties {
+        /**
+         * 流式导出每批写出的行数
+         */
+        private int batchSize = 1000;
+        /**
+         * 单个 sheet 最大行数，xlsx 上限为 1048576
+         */
+        private int maxRowsPerSheet = 1000000;
+        /**
+         * 每个节点执行导出任务的线程数
+         */
+        private int workerCount = 3;
+        /**
+         * 本节点为高优先级任务保留的线程数，普通与低优先级任务不占用
+         */
+        private int reservedHighPrioritySlots = 1;
+        /**
+         * 所有节点同时执行的导出任务上限，通过 Redis 控制；调度器执行的任务不再经过 EXPORT 舱壁，以此为准
+         */
+        private int globalConcurrency = 8;
+        /**
+         * 单个用户同时执行的导出任务上限，通过 Redis 控制
+         */
+        private int perUserConcurrency = 2;
+        /**
+         * 任务租约时长(毫秒)，需大于心跳间隔 15 秒；节点失联超过租约后任务由其他节点重新执行
+         */
+        private long leaseMs = 60000;
+        /**
+         * 任务最多执行次数，租约过期重新排队计为一次
+         */
+        private int maxAttempts = 3;
+        /**
+         * 导出进度推送的最小间隔(毫秒)，阶段变化时立即推送
+         */
+        private long progressIntervalMs = 1000;
     }
 }
@@ -0,0 +1,46 @@
+package com.haozi.common.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.config.SingleServerConfig;
+import org.redisson.spring.starter.RedissonAutoConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Redisson 客户端配置
+ * <p>
+ * redisson-spring-boot-starter 会注册 RedissonConnectionFactory 作为唯一的 RedisConnectionFactory，
+ * RedisTemplate、Sa-Token 的 Redis DAO 与分布式锁因此共用同一个 Redisson 客户端（同一组连接与 Netty 事件循环），
+ * 不再额外创建 Lettuce 连接池。这里只负责按配置收紧连接池与线程数。
+ *
+ * @author liliangyu
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+public class RedissonConfiguration {
+
+    @Bean
+    public RedissonAutoConfigurationCustomizer redissonClientCustomizer(final ProjectConfiguration projectConfiguration) {
+        return config -> {
+            final ProjectConfiguration.RedisClientProperties properties = projectConfiguration.getRedisClientProperties();
+            if (properties.getNettyThreads() > 0) {
+                config.setNettyThreads(properties.getNettyThreads());
+            }
+            if (properties.getThreads() > 0) {
+                config.setThreads(properties.getThreads());
+            }
+            if (config.isClusterConfig() || config.isSentinelConfig()) {
+                // 集群/哨兵模式下连接池由各自的配置文件控制
+                log.info("Redisson 使用集群/哨兵模式, 跳过单节点连接池配置");
+                return;
+            }
+            final SingleServerConfig serverConfig = config.useSingleServer();
+            serverConfig.setConnectionPoolSize(properties.getConnectionPoolSize());
+            serverConfig.setConnectionMinimumIdleSize(properties.getConnectionMinimumIdleSize());
+            serverConfig.setSubscriptionConnectionPoolSize(properties.getSubscriptionConnectionPoolSize());
+            serverConfig.setIdleConnectionTimeout((int) properties.getIdleConnectionTimeout().toMillis());
+            log.info("Redisson 连接池: 最大 {}, 最小空闲 {}, Netty 线程 {}", properties.getConnectionPoolSize(),
+                    properties.getConnectionMinimumIdleSize(), config.getNettyThreads());
+        };
+    }
+}
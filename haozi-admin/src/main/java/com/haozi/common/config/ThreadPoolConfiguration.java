@@ -1,12 +1,16 @@
 package com.haozi.common.config;
 
+import com.haozi.common.executor.ContextTaskDecorator;
+import com.haozi.common.executor.ExecutorRegistry;
+import com.haozi.common.executor.ResizableThreadPoolTaskExecutor;
+import com.haozi.common.executor.VirtualThreadExecutor;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadPoolExecutor;
@@ -14,22 +18,53 @@
 /**
  * 线程池配置
  * 统一管理所有异步任务的线程池配置
+ * 开启 project.executor-properties.virtual-threads 且运行在 JDK 21 上时，
+ * IO 型执行器（默认 @Async、日志）改为虚拟线程 + 信号量限流，不再回退到调用线程执行
+ * 提交任务时通过 ContextTaskDecorator 传递用户、traceId 与 MDC，异步任务中的自动填充与日志链路保持一致
+ * 所有执行器登记到 ExecutorRegistry，统一输出 executor.* 指标，并可通过系统参数 THREAD_POOL_{名称} 在运行时调整
  *
  * @author miguoma
  */
 @Slf4j
 @Configuration
 @EnableAsync
+@RequiredArgsConstructor
 public class ThreadPoolConfiguration implements AsyncConfigurer {
     public static final int cpuNum = Runtime.getRuntime().availableProcessors();
 
+    private final ProjectConfiguration projectConfiguration;
+    private final ExecutorRegistry executorRegistry;
+    private final ContextTaskDecorator contextTaskDecorator = new ContextTaskDecorator();
+    private volatile Executor asyncExecutor;
+
     /**
      * 默认异步线程池
-     * 用于通用异步任务
+     * 用于通用异步任务，只创建一次，@Async 之外的异步逻辑（如异步分布式锁）也通过此方法取得同一个执行器
      */
     @Override
     public Executor getAsyncExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        Executor executor = asyncExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = asyncExecutor;
+                if (executor == null) {
+                    executor = createAsyncExecutor();
+                    asyncExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    private Executor createAsyncExecutor() {
+        if (useVirtualThreads()) {
+            VirtualThreadExecutor executor = new VirtualThreadExecutor("async-default-",
+                    projectConfiguration.getExecutorProperties().getAsyncConcurrency(),
+                    projectConfiguration.getExecutorProperties().getAsyncMaxWaiting());
+            executorRegistry.register("async", executor, contextTaskDecorator);
+            return executor;
+        }
+        ResizableThreadPoolTaskExecutor executor = new ResizableThreadPoolTaskExecutor();
         // 核心线程大小 默认区 CPU 数量
         executor.setCorePoolSize(cpuNum);
         // 最大线程大小 默认区 CPU * 2 数量
@@ -39,7 +74,7 @@ public Executor getAsyncExecutor() {
         // 线程名前缀
         executor.setThreadNamePrefix("async-default-");
         // 拒绝策略：调用者运行
-        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executorRegistry.register("async", executor, new ThreadPoolExecutor.CallerRunsPolicy(), contextTaskDecorator);
         // 等待所有任务结束后再关闭线程池
         executor.setWaitForTasksToCompleteOnShutdown(true);
         // 等待时间
@@ -53,14 +88,14 @@ public Executor getAsyncExecutor() {
      */
     @Bean
     public ThreadPoolExecutor createThreadPoolTaskExecutor() {
-        ThreadPoolTaskExecutor taskExecutor = new ThreadPoolTaskExecutor();
+        ResizableThreadPoolTaskExecutor taskExecutor = new ResizableThreadPoolTaskExecutor();
         // 核心线程大小 默认区 CPU 数量
         taskExecutor.setCorePoolSize(cpuNum);
         // 最大线程大小 默认区 CPU * 2 数量
         taskExecutor.setMaxPoolSize(cpuNum * 2);
         // 队列最大容量
         taskExecutor.setQueueCapacity(500);
-        taskExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executorRegistry.register("common", taskExecutor, new ThreadPoolExecutor.CallerRunsPolicy(), contextTaskDecorator);
         taskExecutor.setWaitForTasksToCompleteOnShutdown(true);
         taskExecutor.setAwaitTerminationSeconds(60);
         taskExecutor.setThreadNamePrefix("Thread-");
@@ -75,7 +110,14 @@ public ThreadPoolExecutor createThreadPoolTaskExecutor() {
      */
     @Bean("logExecutor")
     public Executor logExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        if (useVirtualThreads()) {
+            VirtualThreadExecutor executor = new VirtualThreadExecutor("log-async-",
+                    projectConfiguration.getExecutorProperties().getLogConcurrency(),
+                    projectConfiguration.getExecutorProperties().getLogMaxWaiting());
+            executorRegistry.register("log", executor, contextTaskDecorator);
+            return executor;
+        }
+        ResizableThreadPoolTaskExecutor executor = new ResizableThreadPoolTaskExecutor();
         // 核心线程数
         executor.setCorePoolSize(2);
         // 最大线程数
@@ -85,7 +127,7 @@ public Executor logExecutor() {
         // 线程名前缀
         executor.setThreadNamePrefix("log-async-");
         // 拒绝策略：由调用线程处理
-        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executorRegistry.register("log", executor, new ThreadPoolExecutor.CallerRunsPolicy(), contextTaskDecorator);
         // 等待所有任务结束后再关闭线程池
         executor.setWaitForTasksToCompleteOnShutdown(true);
         // 等待时间
@@ -96,6 +138,20 @@ public Executor logExecutor() {
 
 
 
+    /**
+     * 是否使用虚拟线程执行器
+     */
+    private boolean useVirtualThreads() {
+        if (!projectConfiguration.getExecutorProperties().isVirtualThreads()) {
+            return false;
+        }
+        if (!VirtualThreadExecutor.isSupported()) {
+            log.warn("当前 JDK {} 不支持虚拟线程，IO 型执行器回退到平台线程池", Runtime.version().feature());
+            return false;
+        }
+        return true;
+    }
+
     /**
      * 异步任务异常处理
      */
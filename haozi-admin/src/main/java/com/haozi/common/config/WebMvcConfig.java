@@ -2,6 +2,8 @@
 
 import cn.dev33.satoken.interceptor.SaInterceptor;
 import cn.hutool.core.date.DatePattern;
+import com.haozi.common.bulkhead.BulkheadInterceptor;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.format.FormatterRegistry;
 import org.springframework.format.datetime.standard.DateTimeFormatterRegistrar;
@@ -17,10 +19,15 @@
  * @author lliyuu520 lliyuu520@gmail.com
  */
 @Configuration
+@RequiredArgsConstructor
 public class WebMvcConfig implements WebMvcConfigurer {
 
+    private final BulkheadInterceptor bulkheadInterceptor;
+
     @Override
     public void addInterceptors(final InterceptorRegistry registry) {
+        // 并发隔离放在最前，过载时不再访问 Redis 校验登录态
+        registry.addInterceptor(bulkheadInterceptor).addPathPatterns("/**");
         registry.addInterceptor(new SaInterceptor()).addPathPatterns("/**");
     }
 
@@ -0,0 +1,31 @@
+package com.haozi.common.exception;
+
+import lombok.Getter;
+
+/**
+ * 隔离分区并发已满异常
+ *
+ * <p>分区并发数达到自适应上限时抛出，全局异常处理器转换为 503 并设置 Retry-After。</p>
+ *
+ * @author liliangyu
+ */
+@Getter
+public class BulkheadFullException extends BaseException {
+
+    /**
+     * 建议客户端重试的等待秒数
+     */
+    private final long retryAfterSeconds;
+
+    /**
+     * 构造函数
+     *
+     * @param message           异常消息
+     * @param retryAfterSeconds 建议重试等待秒数
+     */
+    public BulkheadFullException(String message, long retryAfterSeconds) {
+        super(message);
+        setCode(503);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
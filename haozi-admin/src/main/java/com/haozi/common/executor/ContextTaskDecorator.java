@@ -0,0 +1,91 @@
+package com.haozi.common.executor;
+
+import com.haozi.common.satoken.user.UserDetail;
+import com.haozi.common.utils.SysUserUtil;
+import com.haozi.common.utils.ThreadLocalSysUserUtil;
+import com.yomahub.tlog.context.TLogContext;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * 上下文传递任务装饰器
+ * <p>
+ * 提交任务时采集当前用户、TLog traceId/spanId 与 MDC，在工作线程执行前恢复、执行后还原。
+ * 工作线程中 SysUserUtil.getUserInfo() 会读到提交方的用户，MyBatis-Plus 自动填充的创建者、更新者不再为空，
+ * 日志中的 traceId 也与请求一致。拒绝策略为调用者运行时任务在提交线程执行，结束后还原为原有上下文。
+ *
+ * @author liliangyu
+ */
+@Slf4j
+public class ContextTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        final UserDetail user = captureUser();
+        final String traceId = TLogContext.getTraceId();
+        final String spanId = TLogContext.getSpanId();
+        final Map<String, String> mdc = MDC.getCopyOfContextMap();
+        return () -> {
+            final UserDetail previousUser = ThreadLocalSysUserUtil.getUserInfo();
+            final String previousTraceId = TLogContext.getTraceId();
+            final String previousSpanId = TLogContext.getSpanId();
+            final Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+            apply(user, traceId, spanId, mdc);
+            try {
+                runnable.run();
+            } finally {
+                apply(previousUser, previousTraceId, previousSpanId, previousMdc);
+            }
+        };
+    }
+
+    /**
+     * 包装普通线程池，提交的任务经过上下文传递
+     *
+     * @param executor 线程池
+     * @return 包装后的执行器
+     */
+    public Executor wrap(Executor executor) {
+        return command -> executor.execute(decorate(command));
+    }
+
+    /**
+     * 提交方用户，未登录时为 null
+     */
+    private static UserDetail captureUser() {
+        try {
+            final UserDetail user = SysUserUtil.getUserInfo();
+            return user.getId() != null ? user : null;
+        } catch (Exception e) {
+            log.debug("提交异步任务时获取用户信息失败", e);
+            return null;
+        }
+    }
+
+    private static void apply(UserDetail user, String traceId, String spanId, Map<String, String> mdc) {
+        if (user != null) {
+            ThreadLocalSysUserUtil.setUserInfo(user);
+        } else {
+            ThreadLocalSysUserUtil.clearUserInfo();
+        }
+        if (traceId != null) {
+            TLogContext.putTraceId(traceId);
+        } else {
+            TLogContext.removeTraceId();
+        }
+        if (spanId != null) {
+            TLogContext.putSpanId(spanId);
+        } else {
+            TLogContext.removeSpanId();
+        }
+        if (mdc != null) {
+            MDC.setContextMap(mdc);
+        } else {
+            MDC.clear();
+        }
+    }
+}
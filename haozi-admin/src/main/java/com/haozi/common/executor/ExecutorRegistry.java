@@ -0,0 +1,345 @@
+package com.haozi.common.executor;
+
+import cn.hutool.core.util.StrUtil;
+import com.haozi.common.cache.SysConfigCache;
+import com.haozi.modules.monitor.vo.ExecutorStat;
+import com.haozi.modules.sys.entity.SysConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 线程池注册中心
+ * <p>
+ * 统一登记 ThreadPoolConfiguration 等处创建的执行器：
+ * <ul>
+ *     <li>以 executor.* 名称注册活跃数、排队数、完成数、拒绝与调用线程执行次数，以及排队/执行时间直方图</li>
+ *     <li>定时读取系统参数 THREAD_POOL_{名称}（文本类型，格式 核心线程数,最大线程数,队列容量，留空的项不修改），
+ *     各节点通过参数缓存拿到相同配置后在运行时调整线程池</li>
+ * </ul>
+ * 平台线程池需在 initialize() 之前登记，任务装饰器与拒绝策略在初始化时生效。
+ *
+ * @author liliangyu
+ */
+@Slf4j
+@Component
+public class ExecutorRegistry {
+
+    /**
+     * 线程池系统参数编码前缀
+     */
+    public static final String CONFIG_PREFIX = "THREAD_POOL_";
+
+    private final MeterRegistry meterRegistry;
+    private final ObjectProvider<SysConfigCache> sysConfigCacheProvider;
+
+    private final Map<String, ManagedExecutor> executors = new ConcurrentHashMap<>(8);
+    /**
+     * 上次应用的配置文本，未变化时不重复调整
+     */
+    private final Map<String, String> appliedConfigs = new ConcurrentHashMap<>(8);
+
+    public ExecutorRegistry(MeterRegistry meterRegistry, ObjectProvider<SysConfigCache> sysConfigCacheProvider) {
+        this.meterRegistry = meterRegistry;
+        this.sysConfigCacheProvider = sysConfigCacheProvider;
+    }
+
+    /**
+     * 登记平台线程池，需在 initialize() 之前调用
+     *
+     * @param name                     线程池名称
+     * @param executor                 线程池
+     * @param rejectedExecutionHandler 拒绝策略
+     */
+    public void register(String name, ThreadPoolTaskExecutor executor, RejectedExecutionHandler rejectedExecutionHandler) {
+        register(name, executor, rejectedExecutionHandler, null);
+    }
+
+    /**
+     * 登记平台线程池并附加任务装饰器，需在 initialize() 之前调用
+     * 计时装饰器在外层，排队时间从提交开始计算
+     *
+     * @param name                     线程池名称
+     * @param executor                 线程池
+     * @param rejectedExecutionHandler 拒绝策略
+     * @param taskDecorator            任务装饰器，可为 null
+     */
+    public void register(String name, ThreadPoolTaskExecutor executor, RejectedExecutionHandler rejectedExecutionHandler,
+                         TaskDecorator taskDecorator) {
+        ManagedExecutor managed = new ManagedExecutor(name, executor, null);
+        executor.setTaskDecorator(compose(managed.timingDecorator(), taskDecorator));
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            managed.rejected.increment();
+            if (rejectedExecutionHandler instanceof ThreadPoolExecutor.CallerRunsPolicy && !pool.isShutdown()) {
+                managed.callerRuns.increment();
+            }
+            rejectedExecutionHandler.rejectedExecution(task, pool);
+        });
+        Tags tags = managed.tags;
+        Gauge.builder("executor.active", executor, ThreadPoolTaskExecutor::getActiveCount).tags(tags).register(meterRegistry);
+        Gauge.builder("executor.pool.size", executor, ThreadPoolTaskExecutor::getPoolSize).tags(tags).register(meterRegistry);
+        Gauge.builder("executor.pool.core", executor, ThreadPoolTaskExecutor::getCorePoolSize).tags(tags).register(meterRegistry);
+        Gauge.builder("executor.pool.max", executor, ThreadPoolTaskExecutor::getMaxPoolSize).tags(tags).register(meterRegistry);
+        Gauge.builder("executor.queued", executor, ExecutorRegistry::queued).tags(tags).register(meterRegistry);
+        Gauge.builder("executor.queue.remaining", executor, ExecutorRegistry::queueRemaining).tags(tags).register(meterRegistry);
+        FunctionCounter.builder("executor.completed", executor, ExecutorRegistry::completed).tags(tags).register(meterRegistry);
+        executors.put(name, managed);
+    }
+
+    /**
+     * 登记虚拟线程执行器
+     *
+     * @param name     名称
+     * @param executor 执行器
+     */
+    public void register(String name, VirtualThreadExecutor executor) {
+        register(name, executor, null);
+    }
+
+    /**
+     * 登记虚拟线程执行器并附加任务装饰器
+     *
+     * @param name          名称
+     * @param executor      执行器
+     * @param taskDecorator 任务装饰器，可为 null
+     */
+    public void register(String name, VirtualThreadExecutor executor, TaskDecorator taskDecorator) {
+        ManagedExecutor managed = new ManagedExecutor(name, null, executor);
+        executor.setTaskDecorator(compose(managed.timingDecorator(), taskDecorator));
+        executor.setCallerRunsListener(() -> {
+            managed.rejected.increment();
+            managed.callerRuns.increment();
+        });
+        Gauge.builder("executor.active", executor, VirtualThreadExecutor::getActiveCount).tags(managed.tags).register(meterRegistry);
+        Gauge.builder("executor.queued", executor, VirtualThreadExecutor::getWaitingCount).tags(managed.tags).register(meterRegistry);
+        Gauge.builder("executor.pool.max", executor, VirtualThreadExecutor::getConcurrencyLimit).tags(managed.tags).register(meterRegistry);
+        executors.put(name, managed);
+    }
+
+    /**
+     * 所有线程池的运行状态
+     *
+     * @return 状态列表
+     */
+    public List<ExecutorStat> snapshot() {
+        List<ExecutorStat> result = new ArrayList<>(executors.size());
+        executors.values().forEach(managed -> result.add(managed.toStat()));
+        return result;
+    }
+
+    /**
+     * 运行时调整线程池，参数为 null 时不修改；虚拟线程执行器不支持
+     *
+     * @param name          线程池名称
+     * @param corePoolSize  核心线程数
+     * @param maxPoolSize   最大线程数
+     * @param queueCapacity 队列容量
+     * @return 是否调整成功
+     */
+    public boolean resize(String name, Integer corePoolSize, Integer maxPoolSize, Integer queueCapacity) {
+        ManagedExecutor managed = executors.get(name);
+        if (managed == null || managed.pool == null) {
+            return false;
+        }
+        ThreadPoolTaskExecutor pool = managed.pool;
+        int core = corePoolSize != null ? corePoolSize : pool.getCorePoolSize();
+        int max = maxPoolSize != null ? maxPoolSize : pool.getMaxPoolSize();
+        if (core <= 0 || max < core) {
+            log.warn("线程池 {} 参数无效: 核心 {}, 最大 {}", name, core, max);
+            return false;
+        }
+        // ThreadPoolExecutor 要求任意时刻 核心 <= 最大，调大时先调最大值，调小时先调核心值
+        if (core > pool.getMaxPoolSize()) {
+            pool.setMaxPoolSize(max);
+            pool.setCorePoolSize(core);
+        } else {
+            pool.setCorePoolSize(core);
+            pool.setMaxPoolSize(max);
+        }
+        if (queueCapacity != null && pool instanceof ResizableThreadPoolTaskExecutor resizable
+                && !resizable.resizeQueue(queueCapacity)) {
+            log.warn("线程池 {} 不支持调整队列容量", name);
+        }
+        log.info("线程池 {} 已调整: 核心 {}, 最大 {}, 队列 {}", name, core, max,
+                pool instanceof ResizableThreadPoolTaskExecutor resizable ? resizable.getCurrentQueueCapacity() : "-");
+        return true;
+    }
+
+    /**
+     * 定时从系统参数缓存读取线程池配置
+     */
+    @Scheduled(initialDelay = 30000, fixedDelay = 30000)
+    public void refreshFromConfig() {
+        SysConfigCache sysConfigCache = sysConfigCacheProvider.getIfAvailable();
+        if (sysConfigCache == null || executors.isEmpty()) {
+            return;
+        }
+        Map<String, String> codeToName = new LinkedHashMap<>(executors.size());
+        executors.keySet().forEach(name -> codeToName.put(configCode(name), name));
+        Map<String, SysConfig> configs;
+        try {
+            configs = sysConfigCache.getAll(codeToName.keySet());
+        } catch (Exception e) {
+            log.debug("读取线程池配置失败", e);
+            return;
+        }
+        configs.forEach((code, sysConfig) -> {
+            String name = codeToName.get(code);
+            if (Boolean.FALSE.equals(sysConfig.getEnabled())) {
+                return;
+            }
+            String text = StrUtil.trim(sysConfig.getText());
+            if (StrUtil.isBlank(text) || text.equals(appliedConfigs.get(name))) {
+                return;
+            }
+            List<String> parts = StrUtil.split(text, ',');
+            try {
+                if (resize(name, parseSize(parts, 0), parseSize(parts, 1), parseSize(parts, 2))) {
+                    appliedConfigs.put(name, text);
+                }
+            } catch (NumberFormatException e) {
+                log.warn("线程池配置格式错误: {}={}", code, text);
+            }
+        });
+    }
+
+    /**
+     * 线程池对应的系统参数编码
+     *
+     * @param name 线程池名称
+     * @return 参数编码
+     */
+    public static String configCode(String name) {
+        return CONFIG_PREFIX + name.toUpperCase(Locale.ROOT).replace('-', '_');
+    }
+
+    private static TaskDecorator compose(TaskDecorator outer, TaskDecorator inner) {
+        if (inner == null) {
+            return outer;
+        }
+        return task -> outer.decorate(inner.decorate(task));
+    }
+
+    private static Integer parseSize(List<String> parts, int index) {
+        if (parts.size() <= index || StrUtil.isBlank(parts.get(index))) {
+            return null;
+        }
+        return Integer.valueOf(parts.get(index).trim());
+    }
+
+    private static int queued(ThreadPoolTaskExecutor executor) {
+        ThreadPoolExecutor pool = executor.getThreadPoolExecutor();
+        return pool != null ? pool.getQueue().size() : 0;
+    }
+
+    private static int queueRemaining(ThreadPoolTaskExecutor executor) {
+        ThreadPoolExecutor pool = executor.getThreadPoolExecutor();
+        return pool != null ? pool.getQueue().remainingCapacity() : 0;
+    }
+
+    private static double completed(ThreadPoolTaskExecutor executor) {
+        ThreadPoolExecutor pool = executor.getThreadPoolExecutor();
+        return pool != null ? pool.getCompletedTaskCount() : 0;
+    }
+
+    /**
+     * 已登记的执行器
+     */
+    private final class ManagedExecutor {
+        private final String name;
+        private final ThreadPoolTaskExecutor pool;
+        private final VirtualThreadExecutor virtual;
+        private final Tags tags;
+        private final Timer waitTimer;
+        private final Timer runTimer;
+        private final Counter rejected;
+        private final Counter callerRuns;
+
+        private ManagedExecutor(String name, ThreadPoolTaskExecutor pool, VirtualThreadExecutor virtual) {
+            this.name = name;
+            this.pool = pool;
+            this.virtual = virtual;
+            this.tags = Tags.of("name", name, "type", pool != null ? "platform" : "virtual");
+            this.waitTimer = Timer.builder("executor.wait")
+                    .description("任务排队时间")
+                    .tags(tags)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry);
+            this.runTimer = Timer.builder("executor.run")
+                    .description("任务执行时间")
+                    .tags(tags)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("executor.rejected").tags(tags).register(meterRegistry);
+            this.callerRuns = Counter.builder("executor.caller.runs").tags(tags).register(meterRegistry);
+        }
+
+        /**
+         * 记录排队时间（提交到开始执行）与执行时间
+         */
+        private TaskDecorator timingDecorator() {
+            return task -> {
+                long submitted = System.nanoTime();
+                return () -> {
+                    long started = System.nanoTime();
+                    waitTimer.record(started - submitted, TimeUnit.NANOSECONDS);
+                    try {
+                        task.run();
+                    } finally {
+                        runTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                    }
+                };
+            };
+        }
+
+        private ExecutorStat toStat() {
+            ExecutorStat stat = new ExecutorStat();
+            stat.setName(name);
+            if (pool != null) {
+                stat.setType("platform");
+                stat.setCorePoolSize(pool.getCorePoolSize());
+                stat.setMaxPoolSize(pool.getMaxPoolSize());
+                stat.setPoolSize(pool.getPoolSize());
+                stat.setActive(pool.getActiveCount());
+                stat.setQueued(queued(pool));
+                stat.setQueueCapacity(queued(pool) + queueRemaining(pool));
+                stat.setCompleted((long) completed(pool));
+            } else {
+                stat.setType("virtual");
+                stat.setCorePoolSize(virtual.getConcurrencyLimit());
+                stat.setMaxPoolSize(virtual.getConcurrencyLimit());
+                stat.setPoolSize(virtual.getActiveCount());
+                stat.setActive(virtual.getActiveCount());
+                stat.setQueued(virtual.getWaitingCount());
+                stat.setQueueCapacity(virtual.getMaxWaiting());
+                stat.setCompleted(runTimer.count());
+            }
+            stat.setRejected((long) rejected.count());
+            stat.setCallerRuns((long) callerRuns.count());
+            stat.setWaitMeanMs(waitTimer.mean(TimeUnit.MILLISECONDS));
+            stat.setWaitMaxMs(waitTimer.max(TimeUnit.MILLISECONDS));
+            stat.setRunMeanMs(runTimer.mean(TimeUnit.MILLISECONDS));
+            stat.setRunMaxMs(runTimer.max(TimeUnit.MILLISECONDS));
+            return stat;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.haozi.common.executor;
+
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 队列容量可在运行时调整的线程池
+ * <p>
+ * 核心线程数、最大线程数本身支持运行时修改；队列容量在 JDK 的 LinkedBlockingQueue 中是 final，
+ * 这里改用无界队列并在 offer 时按可变容量判断，容量调小后已在队列中的任务不受影响。
+ *
+ * @author liliangyu
+ */
+public class ResizableThreadPoolTaskExecutor extends ThreadPoolTaskExecutor {
+
+    private volatile ResizableCapacityQueue<Runnable> queue;
+
+    @Override
+    protected BlockingQueue<Runnable> createQueue(int queueCapacity) {
+        if (queueCapacity <= 0) {
+            return new SynchronousQueue<>();
+        }
+        queue = new ResizableCapacityQueue<>(queueCapacity);
+        return queue;
+    }
+
+    /**
+     * 运行时修改队列容量，队列容量为 0（SynchronousQueue）时不支持
+     *
+     * @param queueCapacity 队列容量
+     * @return 是否修改成功
+     */
+    public boolean resizeQueue(int queueCapacity) {
+        ResizableCapacityQueue<Runnable> current = queue;
+        if (current == null || queueCapacity <= 0) {
+            return false;
+        }
+        current.capacity = queueCapacity;
+        setQueueCapacity(queueCapacity);
+        return true;
+    }
+
+    /**
+     * 当前队列容量
+     *
+     * @return 队列容量
+     */
+    public int getCurrentQueueCapacity() {
+        ResizableCapacityQueue<Runnable> current = queue;
+        return current != null ? current.capacity : 0;
+    }
+
+    /**
+     * 按可变容量判断的阻塞队列，只覆盖线程池使用的 offer
+     * <p>
+     * 判断容量与入队在同一把锁内完成，并发提交时不会超出容量；出队不加这把锁，只会让判断偏保守。
+     */
+    private static final class ResizableCapacityQueue<E> extends LinkedBlockingQueue<E> {
+
+        private final ReentrantLock offerLock = new ReentrantLock();
+        private volatile int capacity;
+
+        private ResizableCapacityQueue(int capacity) {
+            super();
+            this.capacity = capacity;
+        }
+
+        @Override
+        public boolean offer(E e) {
+            offerLock.lock();
+            try {
+                return size() < capacity && super.offer(e);
+            } finally {
+                offerLock.unlock();
+            }
+        }
+
+        @Override
+        public boolean offer(E e, long timeout, TimeUnit unit) {
+            // 底层队列无界，不会等待
+            return offer(e);
+        }
+
+        @Override
+        public int remainingCapacity() {
+            return Math.max(0, capacity - size());
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.haozi.common.executor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 虚拟线程执行器
+ * <p>
+ * 每个任务一个虚拟线程，并发数由信号量限制而不是线程池大小：
+ * 超出并发数的任务在各自的虚拟线程中等待许可，等待中的任务数相当于平台线程池的队列，
+ * 超过 maxWaiting 后不再创建线程，与平台线程池的 CallerRunsPolicy 一致由提交线程执行。
+ * 适用于 OSS 上传、HTTP 拉取等 IO 型任务，CPU 密集型任务仍应使用平台线程池。
+ * 需要 JDK 21，低版本构造时抛出 UnsupportedOperationException。
+ *
+ * @author liliangyu
+ */
+@Slf4j
+public class VirtualThreadExecutor implements TaskExecutor, AutoCloseable {
+
+    private final String name;
+    private final int concurrencyLimit;
+    private final int maxWaiting;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final ThreadFactory threadFactory;
+    private volatile TaskDecorator taskDecorator;
+    private volatile Runnable callerRunsListener;
+
+    /**
+     * @param threadNamePrefix 线程名前缀
+     * @param concurrencyLimit 最大并发数
+     * @param maxWaiting       最多等待许可的任务数，超出后由提交线程执行
+     */
+    public VirtualThreadExecutor(String threadNamePrefix, int concurrencyLimit, int maxWaiting) {
+        this.name = threadNamePrefix;
+        this.concurrencyLimit = concurrencyLimit;
+        this.maxWaiting = maxWaiting;
+        this.permits = new Semaphore(concurrencyLimit);
+        this.threadFactory = new VirtualThreadTaskExecutor(threadNamePrefix).getVirtualThreadFactory();
+    }
+
+    /**
+     * 当前运行环境是否支持虚拟线程
+     *
+     * @return 是否支持
+     */
+    public static boolean isSupported() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    /**
+     * 设置任务装饰器，在提交线程中调用
+     *
+     * @param taskDecorator 任务装饰器
+     */
+    public void setTaskDecorator(TaskDecorator taskDecorator) {
+        this.taskDecorator = taskDecorator;
+    }
+
+    /**
+     * 设置等待任务数达到上限、任务由提交线程执行时的回调，用于统计
+     *
+     * @param callerRunsListener 回调
+     */
+    public void setCallerRunsListener(Runnable callerRunsListener) {
+        this.callerRunsListener = callerRunsListener;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        TaskDecorator decorator = taskDecorator;
+        Runnable task = decorator != null ? decorator.decorate(command) : command;
+        if (permits.tryAcquire()) {
+            start(task, false);
+            return;
+        }
+        if (waiting.incrementAndGet() > maxWaiting) {
+            waiting.decrementAndGet();
+            log.debug("虚拟线程执行器 {} 等待任务数已达上限 {}，由提交线程执行", name, maxWaiting);
+            Runnable listener = callerRunsListener;
+            if (listener != null) {
+                listener.run();
+            }
+            task.run();
+            return;
+        }
+        start(task, true);
+    }
+
+    /**
+     * 启动虚拟线程执行任务，线程启动失败时归还占用的许可或等待名额
+     *
+     * @param task       任务
+     * @param needPermit 是否需要在线程中等待许可
+     */
+    private void start(Runnable task, boolean needPermit) {
+        try {
+            threadFactory.newThread(() -> {
+                if (needPermit) {
+                    permits.acquireUninterruptibly();
+                    waiting.decrementAndGet();
+                }
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            }).start();
+        } catch (RuntimeException | Error e) {
+            if (needPermit) {
+                waiting.decrementAndGet();
+            } else {
+                permits.release();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 执行器名称（线程名前缀）
+     *
+     * @return 名称
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 最大并发数
+     *
+     * @return 最大并发数
+     */
+    public int getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    /**
+     * 正在执行的任务数
+     *
+     * @return 任务数
+     */
+    public int getActiveCount() {
+        return concurrencyLimit - permits.availablePermits();
+    }
+
+    /**
+     * 等待许可的任务数
+     *
+     * @return 任务数
+     */
+    public int getWaitingCount() {
+        return waiting.get();
+    }
+
+    /**
+     * 最多等待许可的任务数
+     *
+     * @return 任务数
+     */
+    public int getMaxWaiting() {
+        return maxWaiting;
+    }
+
+    /**
+     * 关闭时最多等待 60 秒，让正在执行的任务完成
+     */
+    @Override
+    public void close() {
+        try {
+            if (permits.tryAcquire(concurrencyLimit, 60, TimeUnit.SECONDS)) {
+                permits.release(concurrencyLimit);
+            } else {
+                log.warn("虚拟线程执行器 {} 关闭时仍有 {} 个任务未完成", name, getActiveCount());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.haozi.common.export;
+
+import com.haozi.modules.sys.entity.SysDownloadCenter;
+
+/**
+ * 导出任务处理器
+ * <p>
+ * 每种导出实现一个 Spring Bean，由 ExportJobScheduler 按任务类型在任意节点上调用。
+ * 任务可能在节点失联后由其他节点重新执行，参数需完整保存在 jobParams 中，不能依赖提交时的上下文。
+ * 一般在 execute 中解析参数、执行查询并调用 AliyunOssUtil.uploadExcel(job.getId(), ...)。
+ *
+ * @author liliangyu
+ */
+public interface ExportJobHandler {
+
+    /**
+     * 任务类型，与提交时的 jobType 一致
+     *
+     * @return 任务类型
+     */
+    String getType();
+
+    /**
+     * 执行导出
+     *
+     * @param job 下载中心记录，creator 为提交用户
+     */
+    void execute(SysDownloadCenter job);
+}
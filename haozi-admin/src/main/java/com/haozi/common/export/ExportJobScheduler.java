@@ -0,0 +1,401 @@
+package com.haozi.common.export;
+
+import cn.hutool.core.exceptions.ExceptionUtil;
+import cn.hutool.core.net.NetUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.system.SystemUtil;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.haozi.common.bulkhead.BulkheadRegistry;
+import com.haozi.common.bulkhead.BulkheadType;
+import com.haozi.common.config.ProjectConfiguration;
+import com.haozi.common.exception.BulkheadFullException;
+import com.haozi.common.executor.ExecutorRegistry;
+import com.haozi.common.executor.ResizableThreadPoolTaskExecutor;
+import com.haozi.modules.sys.entity.SysDownloadCenter;
+import com.haozi.modules.sys.enums.DownloadStatus;
+import com.haozi.modules.sys.enums.ExportJobPriority;
+import com.haozi.modules.sys.mapper.SysDownloadCenterMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RPermitExpirableSemaphore;
+import org.redisson.api.RedissonClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 导出任务调度器
+ * <p>
+ * 任务保存在 sys_download_center 中，状态 QUEUED → RUNNING → SUCCESS/FAILED，排队或执行中可取消（CANCELLED）：
+ * <ul>
+ *     <li>各节点定时按优先级拉取排队任务，本节点保留的线程只给高优先级任务使用</li>
+ *     <li>全局与单用户并发数通过 Redis 带过期时间的信号量控制，节点宕机后许可随租约过期自动归还</li>
+ *     <li>认领时以状态为条件更新并写入租约，执行期间定时续约；租约过期的任务由任意节点重新排队，超过最大次数后置为失败</li>
+ *     <li>取消时修改状态，执行节点在本地或下次续约时发现后中断任务</li>
+ * </ul>
+ * 导出并发由这里的线程数与信号量决定，任务执行时跳过 EXPORT 舱壁（{@link BulkheadType#EXPORT}），
+ * 舱壁只限制未经调度器、直接调用 AliyunOssUtil.uploadExcel 的导出；其他分区（如外部 HTTP）仍然生效。
+ *
+ * @author liliangyu
+ */
+@Slf4j
+@Component
+public class ExportJobScheduler {
+
+    private static final String GLOBAL_PERMITS_KEY = "export:job:permits";
+    private static final String USER_PERMITS_KEY = "export:job:permits:user:";
+
+    /**
+     * 每次拉取的候选任务数
+     */
+    private static final int CANDIDATE_LIMIT = 50;
+
+    private final SysDownloadCenterMapper sysDownloadCenterMapper;
+    private final RedissonClient redissonClient;
+    private final ProjectConfiguration.ExportProperties properties;
+    private final Map<String, ExportJobHandler> handlers;
+    private final ExportProgressReporter exportProgressReporter;
+    private final ResizableThreadPoolTaskExecutor workerExecutor = new ResizableThreadPoolTaskExecutor();
+
+    /**
+     * 本节点标识，写入租约
+     */
+    private final String nodeId = NetUtil.getLocalHostName() + ":" + SystemUtil.getCurrentPID();
+
+    /**
+     * 本节点执行中的任务
+     */
+    private final Map<Long, RunningJob> running = new ConcurrentHashMap<>(8);
+
+    public ExportJobScheduler(SysDownloadCenterMapper sysDownloadCenterMapper, RedissonClient redissonClient,
+                              ProjectConfiguration projectConfiguration, List<ExportJobHandler> handlers,
+                              ExportProgressReporter exportProgressReporter, ExecutorRegistry executorRegistry) {
+        this.sysDownloadCenterMapper = sysDownloadCenterMapper;
+        this.redissonClient = redissonClient;
+        this.properties = projectConfiguration.getExportProperties();
+        this.handlers = handlers.stream().collect(Collectors.toMap(ExportJobHandler::getType, Function.identity()));
+        this.exportProgressReporter = exportProgressReporter;
+
+        workerExecutor.setCorePoolSize(properties.getWorkerCount());
+        workerExecutor.setMaxPoolSize(properties.getWorkerCount());
+        // 只在有空闲线程时提交，不排队
+        workerExecutor.setQueueCapacity(0);
+        workerExecutor.setThreadNamePrefix("export-job-");
+        workerExecutor.setWaitForTasksToCompleteOnShutdown(false);
+        executorRegistry.register("export-job", workerExecutor, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PostConstruct
+    public void init() {
+        workerExecutor.initialize();
+        log.info("导出任务调度器启动, 节点: {}, 任务类型: {}", nodeId, handlers.keySet());
+    }
+
+    /**
+     * 停止时中断本节点的任务并重新排队，由其他节点继续执行
+     */
+    @PreDestroy
+    public void destroy() {
+        List<Long> ids = List.copyOf(running.keySet());
+        running.values().stream().filter(job -> job.future != null).forEach(job -> job.future.cancel(true));
+        if (!ids.isEmpty()) {
+            sysDownloadCenterMapper.update(null, Wrappers.<SysDownloadCenter>lambdaUpdate()
+                    .set(SysDownloadCenter::getStatus, DownloadStatus.QUEUED.name())
+                    .set(SysDownloadCenter::getLeaseOwner, null)
+                    .set(SysDownloadCenter::getLeaseExpireTime, null)
+                    .in(SysDownloadCenter::getId, ids)
+                    .eq(SysDownloadCenter::getLeaseOwner, nodeId)
+                    .eq(SysDownloadCenter::getStatus, DownloadStatus.RUNNING.name()));
+            // 重新排队的任务不保留本次进度
+            exportProgressReporter.clear(ids);
+        }
+        workerExecutor.shutdown();
+    }
+
+    /**
+     * 拉取排队任务并在空闲线程上执行
+     */
+    @Scheduled(initialDelay = 10000, fixedDelay = 2000)
+    public synchronized void dispatch() {
+        int free = properties.getWorkerCount() - running.size();
+        if (free <= 0) {
+            return;
+        }
+        List<SysDownloadCenter> candidates = sysDownloadCenterMapper.selectList(Wrappers.<SysDownloadCenter>lambdaQuery()
+                .eq(SysDownloadCenter::getStatus, DownloadStatus.QUEUED.name())
+                .orderByAsc(SysDownloadCenter::getPriority)
+                .orderByAsc(SysDownloadCenter::getId)
+                .last("LIMIT " + CANDIDATE_LIMIT));
+        if (candidates.isEmpty()) {
+            return;
+        }
+        RPermitExpirableSemaphore globalPermits = globalPermits();
+        for (SysDownloadCenter job : candidates) {
+            if (free <= 0) {
+                break;
+            }
+            boolean highPriority = ExportJobPriority.HIGH.getCode().equals(job.getPriority());
+            if (!highPriority && free <= properties.getReservedHighPrioritySlots()) {
+                continue;
+            }
+            ExportJobHandler handler = handlers.get(job.getJobType());
+            if (handler == null) {
+                // 滚动发布时可能由其他节点处理
+                log.debug("本节点没有导出任务处理器: {}, 任务 {}", job.getJobType(), job.getId());
+                continue;
+            }
+            String globalPermit = tryAcquire(globalPermits);
+            if (globalPermit == null) {
+                // 全局并发已满
+                return;
+            }
+            RPermitExpirableSemaphore userPermits = userPermits(job.getCreator());
+            String userPermit = tryAcquire(userPermits);
+            if (userPermit == null) {
+                globalPermits.tryRelease(globalPermit);
+                continue;
+            }
+            RunningJob runningJob = new RunningJob(job.getId(), globalPermit, userPermits, userPermit);
+            if (!claim(job)) {
+                runningJob.releasePermits();
+                continue;
+            }
+            start(job, handler, runningJob);
+            free--;
+        }
+    }
+
+    /**
+     * 续约本节点执行中的任务，任务已取消或租约已被回收时中断
+     */
+    @Scheduled(initialDelay = 15000, fixedDelay = 15000)
+    public void heartbeat() {
+        for (RunningJob job : running.values()) {
+            int updated = sysDownloadCenterMapper.update(null, Wrappers.<SysDownloadCenter>lambdaUpdate()
+                    .set(SysDownloadCenter::getLeaseExpireTime, leaseExpireTime())
+                    .eq(SysDownloadCenter::getId, job.id)
+                    .eq(SysDownloadCenter::getLeaseOwner, nodeId)
+                    .eq(SysDownloadCenter::getStatus, DownloadStatus.RUNNING.name()));
+            if (updated == 0) {
+                log.info("导出任务已取消或租约失效, 中断执行: {}", job.id);
+                if (job.future != null) {
+                    job.future.cancel(true);
+                }
+                continue;
+            }
+            job.renewPermits();
+        }
+    }
+
+    /**
+     * 回收租约过期的任务：未超过最大次数的重新排队，否则置为失败
+     */
+    @Scheduled(initialDelay = 30000, fixedDelay = 30000)
+    public void reclaimExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> expired = sysDownloadCenterMapper.selectList(Wrappers.<SysDownloadCenter>lambdaQuery()
+                        .select(SysDownloadCenter::getId)
+                        .eq(SysDownloadCenter::getStatus, DownloadStatus.RUNNING.name())
+                        .lt(SysDownloadCenter::getLeaseExpireTime, now))
+                .stream().map(SysDownloadCenter::getId).toList();
+        if (expired.isEmpty()) {
+            return;
+        }
+        int requeued = sysDownloadCenterMapper.update(null, Wrappers.<SysDownloadCenter>lambdaUpdate()
+                .set(SysDownloadCenter::getStatus, DownloadStatus.QUEUED.name())
+                .set(SysDownloadCenter::getLeaseOwner, null)
+                .set(SysDownloadCenter::getLeaseExpireTime, null)
+                .in(SysDownloadCenter::getId, expired)
+                .eq(SysDownloadCenter::getStatus, DownloadStatus.RUNNING.name())
+                .lt(SysDownloadCenter::getLeaseExpireTime, now)
+                .lt(SysDownloadCenter::getAttempts, properties.getMaxAttempts()));
+        int failed = sysDownloadCenterMapper.update(null, Wrappers.<SysDownloadCenter>lambdaUpdate()
+                .set(SysDownloadCenter::getStatus, DownloadStatus.FAILED.name())
+                .set(SysDownloadCenter::getRemark, "执行节点失联，重试次数已用尽")
+                .set(SysDownloadCenter::getCompletedDateTime, now)
+                .in(SysDownloadCenter::getId, expired)
+                .eq(SysDownloadCenter::getStatus, DownloadStatus.RUNNING.name())
+                .lt(SysDownloadCenter::getLeaseExpireTime, now));
+        // 失联节点留下的进度停在执行中，以数据库状态为准
+        exportProgressReporter.clear(expired);
+        if (requeued > 0 || failed > 0) {
+            log.warn("回收租约过期的导出任务: 重新排队 {}, 失败 {}", requeued, failed);
+        }
+    }
+
+    /**
+     * 取消排队中或执行中的任务
+     *
+     * @param id 下载中心ID
+     * @return 是否取消成功，任务已结束时返回 false
+     */
+    public boolean cancel(Long id) {
+        int updated = sysDownloadCenterMapper.update(null, Wrappers.<SysDownloadCenter>lambdaUpdate()
+                .set(SysDownloadCenter::getStatus, DownloadStatus.CANCELLED.name())
+                .set(SysDownloadCenter::getRemark, DownloadStatus.CANCELLED.getDesc())
+                .set(SysDownloadCenter::getCompletedDateTime, LocalDateTime.now())
+                .eq(SysDownloadCenter::getId, id)
+                .in(SysDownloadCenter::getStatus, DownloadStatus.QUEUED.name(), DownloadStatus.RUNNING.name()));
+        // 在其他节点执行的任务由该节点下次续约时中断
+        RunningJob job = running.get(id);
+        if (job != null && job.future != null) {
+            job.future.cancel(true);
+        }
+        return updated == 1;
+    }
+
+    /**
+     * 以状态为条件认领任务，多个节点同时认领时只有一个成功
+     */
+    private boolean claim(SysDownloadCenter job) {
+        LocalDateTime now = LocalDateTime.now();
+        int updated = sysDownloadCenterMapper.update(null, Wrappers.<SysDownloadCenter>lambdaUpdate()
+                .set(SysDownloadCenter::getStatus, DownloadStatus.RUNNING.name())
+                .set(SysDownloadCenter::getLeaseOwner, nodeId)
+                .set(SysDownloadCenter::getLeaseExpireTime, leaseExpireTime())
+                .set(SysDownloadCenter::getStartedDateTime, now)
+                .setSql("attempts = attempts + 1")
+                .eq(SysDownloadCenter::getId, job.getId())
+                .eq(SysDownloadCenter::getStatus, DownloadStatus.QUEUED.name()));
+        return updated == 1;
+    }
+
+    private void start(SysDownloadCenter job, ExportJobHandler handler, RunningJob runningJob) {
+        running.put(job.getId(), runningJob);
+        try {
+            runningJob.future = workerExecutor.submit(() -> run(job, handler, runningJob));
+        } catch (Exception e) {
+            log.warn("导出任务提交失败, 重新排队: {}", job.getId(), e);
+            running.remove(job.getId());
+            runningJob.releasePermits();
+            requeue(job.getId());
+        }
+    }
+
+    private void run(SysDownloadCenter job, ExportJobHandler handler, RunningJob runningJob) {
+        log.info("开始执行导出任务: {}, 类型 {}, 文件 {}", job.getId(), job.getJobType(), job.getName());
+        try {
+            BulkheadRegistry.runBypassed(BulkheadType.EXPORT, () -> handler.execute(job));
+            finish(job.getId(), DownloadStatus.SUCCESS, null);
+        } catch (Exception e) {
+            if (ExceptionUtil.isCausedBy(e, BulkheadFullException.class)) {
+                // 任务内调用的其他分区（如外部 HTTP）已满，稍后重试；异常可能被导出流程包装
+                log.info("依赖的舱壁分区已满, 任务重新排队: {}", job.getId());
+                requeue(job.getId());
+                return;
+            }
+            if (runningJob.future != null && runningJob.future.isCancelled()) {
+                log.info("导出任务已中断: {}", job.getId());
+                return;
+            }
+            log.error("导出任务失败: {}", job.getId(), e);
+            finish(job.getId(), DownloadStatus.FAILED, StrUtil.maxLength(e.getMessage(), 200));
+        } finally {
+            running.remove(job.getId());
+            runningJob.releasePermits();
+        }
+    }
+
+    /**
+     * 结束本节点持有的任务；导出成功时状态已由 AliyunOssUtil 更新，此处只补充未更新的情况
+     */
+    private void finish(Long id, DownloadStatus status, String remark) {
+        sysDownloadCenterMapper.update(null, Wrappers.<SysDownloadCenter>lambdaUpdate()
+                .set(SysDownloadCenter::getStatus, status.name())
+                .set(remark != null, SysDownloadCenter::getRemark, remark)
+                .set(SysDownloadCenter::getCompletedDateTime, LocalDateTime.now())
+                .set(SysDownloadCenter::getLeaseOwner, null)
+                .eq(SysDownloadCenter::getId, id)
+                .eq(SysDownloadCenter::getLeaseOwner, nodeId)
+                .eq(SysDownloadCenter::getStatus, DownloadStatus.RUNNING.name()));
+    }
+
+    private void requeue(Long id) {
+        int updated = sysDownloadCenterMapper.update(null, Wrappers.<SysDownloadCenter>lambdaUpdate()
+                .set(SysDownloadCenter::getStatus, DownloadStatus.QUEUED.name())
+                .set(SysDownloadCenter::getLeaseOwner, null)
+                .set(SysDownloadCenter::getLeaseExpireTime, null)
+                .setSql("attempts = attempts - 1")
+                .eq(SysDownloadCenter::getId, id)
+                .eq(SysDownloadCenter::getLeaseOwner, nodeId)
+                .eq(SysDownloadCenter::getStatus, DownloadStatus.RUNNING.name()));
+        if (updated == 1) {
+            exportProgressReporter.clear(List.of(id));
+        }
+    }
+
+    private LocalDateTime leaseExpireTime() {
+        return LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(properties.getLeaseMs()));
+    }
+
+    private RPermitExpirableSemaphore globalPermits() {
+        RPermitExpirableSemaphore semaphore = redissonClient.getPermitExpirableSemaphore(GLOBAL_PERMITS_KEY);
+        semaphore.trySetPermits(properties.getGlobalConcurrency());
+        return semaphore;
+    }
+
+    private RPermitExpirableSemaphore userPermits(Long userId) {
+        RPermitExpirableSemaphore semaphore = redissonClient.getPermitExpirableSemaphore(USER_PERMITS_KEY + userId);
+        semaphore.trySetPermits(properties.getPerUserConcurrency());
+        return semaphore;
+    }
+
+    /**
+     * 不等待地获取许可，许可随租约过期
+     */
+    private String tryAcquire(RPermitExpirableSemaphore semaphore) {
+        try {
+            return semaphore.tryAcquire(0, properties.getLeaseMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * 本节点执行中的任务及其持有的许可
+     */
+    private final class RunningJob {
+        private final Long id;
+        private final String globalPermit;
+        private final RPermitExpirableSemaphore userPermits;
+        private final String userPermit;
+        private volatile Future<?> future;
+
+        private RunningJob(Long id, String globalPermit, RPermitExpirableSemaphore userPermits, String userPermit) {
+            this.id = id;
+            this.globalPermit = globalPermit;
+            this.userPermits = userPermits;
+            this.userPermit = userPermit;
+        }
+
+        private void renewPermits() {
+            try {
+                redissonClient.getPermitExpirableSemaphore(GLOBAL_PERMITS_KEY)
+                        .updateLeaseTime(globalPermit, properties.getLeaseMs(), TimeUnit.MILLISECONDS);
+                userPermits.updateLeaseTime(userPermit, properties.getLeaseMs(), TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                log.warn("续期导出并发许可失败: {}", id, e);
+            }
+        }
+
+        private void releasePermits() {
+            try {
+                redissonClient.getPermitExpirableSemaphore(GLOBAL_PERMITS_KEY).tryRelease(globalPermit);
+                userPermits.tryRelease(userPermit);
+            } catch (Exception e) {
+                log.warn("归还导出并发许可失败, 将随租约过期: {}", id, e);
+            }
+        }
+    }
+}
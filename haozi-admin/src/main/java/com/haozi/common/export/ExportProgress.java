@@ -0,0 +1,118 @@
+package com.haozi.common.export;
+
+import com.haozi.modules.sys.dto.ExportProgressDTO;
+import com.haozi.modules.sys.enums.ExportPhase;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单次导出的进度
+ * <p>
+ * 行数、字节数按最小间隔节流发布，阶段变化时立即发布。
+ * 已知总行数时按已用时间与完成比例估算剩余时间。
+ *
+ * @author liliangyu
+ */
+public class ExportProgress {
+
+    private final ExportProgressReporter reporter;
+    private final long intervalNanos;
+    private final Long downloadCenterId;
+    private final Long userId;
+    private final String fileName;
+    private final Long expectedRows;
+    private final long startNanos = System.nanoTime();
+
+    private ExportPhase phase;
+    private long rows;
+    private long lastPublishNanos;
+
+    ExportProgress(ExportProgressReporter reporter, long intervalMs, Long downloadCenterId, Long userId, String fileName,
+                   Long expectedRows) {
+        this.reporter = reporter;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMs);
+        this.downloadCenterId = downloadCenterId;
+        this.userId = userId;
+        this.fileName = fileName;
+        this.expectedRows = expectedRows;
+    }
+
+    /**
+     * 更新已写入的行数与字节数，距上次发布不足间隔时不发布
+     *
+     * @param rows  已写入行数
+     * @param bytes 已生成字节数
+     */
+    public void update(long rows, long bytes) {
+        this.rows = rows;
+        if (System.nanoTime() - lastPublishNanos >= intervalNanos) {
+            publish(bytes, null, null);
+        }
+    }
+
+    /**
+     * 进入新阶段，立即发布
+     *
+     * @param phase 阶段
+     * @param bytes 已生成字节数
+     */
+    public void phase(ExportPhase phase, long bytes) {
+        this.phase = phase;
+        publish(bytes, null, null);
+    }
+
+    /**
+     * 导出成功
+     *
+     * @param url   下载地址
+     * @param bytes 文件大小
+     */
+    public void success(String url, long bytes) {
+        this.phase = ExportPhase.SUCCESS;
+        publish(bytes, url, null);
+    }
+
+    /**
+     * 导出失败或取消
+     *
+     * @param phase   FAILED 或 CANCELLED
+     * @param bytes   已生成字节数
+     * @param message 原因
+     */
+    public void fail(ExportPhase phase, long bytes, String message) {
+        this.phase = phase;
+        publish(bytes, null, message);
+    }
+
+    private void publish(long bytes, String url, String message) {
+        long now = System.nanoTime();
+        lastPublishNanos = now;
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(now - startNanos);
+
+        ExportProgressDTO progress = new ExportProgressDTO();
+        progress.setDownloadCenterId(downloadCenterId);
+        progress.setUserId(userId);
+        progress.setFileName(fileName);
+        progress.setPhase(phase.name());
+        progress.setRows(rows);
+        progress.setExpectedRows(expectedRows);
+        progress.setBytes(bytes);
+        progress.setElapsedMs(elapsedMs);
+        progress.setEtaSeconds(eta(elapsedMs));
+        progress.setUrl(url);
+        progress.setMessage(message);
+        progress.setUpdateTime(System.currentTimeMillis());
+        reporter.publish(progress);
+    }
+
+    /**
+     * 按写入速度估算剩余秒数，上传阶段只剩文件收尾，不再估算
+     */
+    private Long eta(long elapsedMs) {
+        if (phase == ExportPhase.WRITING && expectedRows != null && expectedRows > 0 && rows > 0) {
+            long remainingRows = Math.max(0, expectedRows - rows);
+            return elapsedMs * remainingRows / rows / 1000;
+        }
+        return phase.isFinished() ? 0L : null;
+    }
+}
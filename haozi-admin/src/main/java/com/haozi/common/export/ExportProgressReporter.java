@@ -0,0 +1,145 @@
+package com.haozi.common.export;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.json.JSONUtil;
+import com.haozi.common.config.ProjectConfiguration;
+import com.haozi.common.redis.RedisBatchTemplate;
+import com.haozi.modules.sys.dto.ExportProgressDTO;
+import com.haozi.modules.sys.enums.ExportPhase;
+import com.haozi.modules.sys.service.SseService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 导出进度发布
+ * <p>
+ * 进度写入 Redis（下载中心列表读取），同时通过 Redis 主题广播到各节点，由持有用户 SSE 连接的节点推送。
+ * 导出任务与用户的 SSE 连接可能不在同一节点，不能直接调用本地的 SseService。
+ *
+ * @author liliangyu
+ */
+@Slf4j
+@Component
+public class ExportProgressReporter {
+
+    private static final String PROGRESS_KEY = "export:progress:";
+    private static final String PROGRESS_TOPIC = "export:progress";
+
+    /**
+     * 进行中的进度保留时间，每次更新重置
+     */
+    private static final Duration RUNNING_TTL = Duration.ofHours(1);
+    /**
+     * 结束后的进度保留时间，之后以数据库状态为准
+     */
+    private static final Duration FINISHED_TTL = Duration.ofMinutes(10);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisBatchTemplate redisBatchTemplate;
+    private final SseService sseService;
+    private final ProjectConfiguration.ExportProperties properties;
+    private final RTopic topic;
+    private int listenerId = -1;
+
+    public ExportProgressReporter(RedisTemplate<String, Object> redisTemplate, RedisBatchTemplate redisBatchTemplate,
+                                  SseService sseService, RedissonClient redissonClient,
+                                  ProjectConfiguration projectConfiguration) {
+        this.redisTemplate = redisTemplate;
+        this.redisBatchTemplate = redisBatchTemplate;
+        this.sseService = sseService;
+        this.properties = projectConfiguration.getExportProperties();
+        this.topic = redissonClient.getTopic(PROGRESS_TOPIC, StringCodec.INSTANCE);
+    }
+
+    @PostConstruct
+    public void init() {
+        listenerId = topic.addListener(String.class, (channel, message) -> {
+            ExportProgressDTO progress = JSONUtil.toBean(message, ExportProgressDTO.class);
+            if (progress.getUserId() != null && sseService.hasActiveConnection(progress.getUserId())) {
+                sseService.sendExportProgress(progress.getUserId(), progress);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (listenerId != -1) {
+            topic.removeListener(listenerId);
+        }
+    }
+
+    /**
+     * 开始跟踪一次导出
+     *
+     * @param downloadCenterId 下载中心ID
+     * @param userId           提交用户ID
+     * @param fileName         文件名
+     * @param expectedRows     预计总行数，未知时为 null
+     * @return 进度
+     */
+    public ExportProgress start(Long downloadCenterId, Long userId, String fileName, Long expectedRows) {
+        ExportProgress progress = new ExportProgress(this, properties.getProgressIntervalMs(),
+                downloadCenterId, userId, fileName, expectedRows);
+        progress.phase(ExportPhase.WRITING, 0);
+        return progress;
+    }
+
+    /**
+     * 批量读取进度，用于下载中心列表
+     *
+     * @param downloadCenterIds 下载中心ID
+     * @return 下载中心ID -> 进度，没有进度的不放入结果
+     */
+    public Map<Long, ExportProgressDTO> get(Collection<Long> downloadCenterIds) {
+        if (CollUtil.isEmpty(downloadCenterIds)) {
+            return new HashMap<>(0);
+        }
+        Map<String, Long> keyToId = new LinkedHashMap<>(downloadCenterIds.size());
+        downloadCenterIds.forEach(id -> keyToId.put(PROGRESS_KEY + id, id));
+        Map<String, ExportProgressDTO> cached = redisBatchTemplate.multiGet(keyToId.keySet());
+        Map<Long, ExportProgressDTO> result = new HashMap<>(cached.size());
+        cached.forEach((key, progress) -> result.put(keyToId.get(key), progress));
+        return result;
+    }
+
+    /**
+     * 删除进度，任务重新排队时调用，避免列表与推送停留在上次执行的进度
+     *
+     * @param downloadCenterIds 下载中心ID
+     */
+    public void clear(Collection<Long> downloadCenterIds) {
+        if (CollUtil.isEmpty(downloadCenterIds)) {
+            return;
+        }
+        try {
+            redisTemplate.delete(downloadCenterIds.stream().map(id -> PROGRESS_KEY + id).toList());
+        } catch (Exception e) {
+            log.warn("删除导出进度失败: {}", downloadCenterIds, e);
+        }
+    }
+
+    /**
+     * 保存并广播进度，失败不影响导出
+     */
+    void publish(ExportProgressDTO progress) {
+        try {
+            Duration ttl = ExportPhase.valueOf(progress.getPhase()).isFinished() ? FINISHED_TTL : RUNNING_TTL;
+            redisTemplate.opsForValue().set(PROGRESS_KEY + progress.getDownloadCenterId(), progress, ttl);
+            topic.publish(JSONUtil.toJsonStr(progress));
+        } catch (Exception e) {
+            log.warn("发布导出进度失败: {}", progress.getDownloadCenterId(), e);
+        }
+    }
+}
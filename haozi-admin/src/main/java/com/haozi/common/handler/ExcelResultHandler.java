@@ -0,0 +1,120 @@
+package com.haozi.common.handler;
+
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.ExcelWriter;
+import com.alibaba.excel.write.metadata.WriteSheet;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+/**
+ * 按批写入 Excel 的 MyBatis 结果处理器
+ * <p>
+ * 查询结果逐行进入缓冲区，满一批后通过 ExcelWriter 写出并清空，写出的行由 SXSSF 按行窗口刷到临时文件，
+ * 堆内存只与批大小有关，与总行数无关。单个 sheet 达到行数上限后自动新建 sheet。
+ * 查询需按流式方式执行（MySQL 为 fetchSize = Integer.MIN_VALUE），否则驱动仍会一次读入全部结果。
+ *
+ * @author liliangyu
+ */
+public class ExcelResultHandler<D> implements ResultHandler<D> {
+
+    private final ExcelWriter excelWriter;
+    private final Class<D> headClass;
+    private final int batchSize;
+    private final int maxRowsPerSheet;
+    private final List<D> buffer;
+    private LongConsumer flushListener;
+
+    private WriteSheet writeSheet;
+    private int sheetNo;
+    private int sheetRows;
+    private long totalRows;
+
+    /**
+     * @param excelWriter     Excel 写出器，由调用方关闭
+     * @param headClass       表头类
+     * @param batchSize       每批行数
+     * @param maxRowsPerSheet 单个 sheet 最大行数
+     */
+    public ExcelResultHandler(ExcelWriter excelWriter, Class<D> headClass, int batchSize, int maxRowsPerSheet) {
+        this.excelWriter = excelWriter;
+        this.headClass = headClass;
+        this.batchSize = batchSize;
+        this.maxRowsPerSheet = maxRowsPerSheet;
+        this.buffer = new ArrayList<>(batchSize);
+    }
+
+    @Override
+    public void handleResult(ResultContext<? extends D> resultContext) {
+        add(resultContext.getResultObject());
+    }
+
+    /**
+     * 写入游标中的所有行
+     *
+     * @param cursor 游标，由调用方关闭
+     */
+    public void addAll(Cursor<D> cursor) {
+        for (D row : cursor) {
+            add(row);
+        }
+    }
+
+    /**
+     * 写入一行
+     *
+     * @param row 行数据
+     */
+    public void add(D row) {
+        buffer.add(row);
+        // 当前 sheet 已写满时下一批写入新 sheet，可容纳整 sheet 的行数
+        int sheetRemaining = sheetRows >= maxRowsPerSheet ? maxRowsPerSheet : maxRowsPerSheet - sheetRows;
+        if (buffer.size() >= Math.min(batchSize, sheetRemaining)) {
+            flush();
+        }
+    }
+
+    /**
+     * 写出缓冲区中的数据，全部数据处理完后必须调用
+     */
+    public void flush() {
+        if (buffer.isEmpty() && writeSheet != null) {
+            return;
+        }
+        if (writeSheet == null || sheetRows >= maxRowsPerSheet) {
+            sheetNo++;
+            sheetRows = 0;
+            writeSheet = EasyExcel.writerSheet(sheetNo - 1, "Sheet" + sheetNo).head(headClass).build();
+        }
+        // 没有数据时也写出表头，保证至少有一个 sheet
+        excelWriter.write(buffer, writeSheet);
+        sheetRows += buffer.size();
+        totalRows += buffer.size();
+        buffer.clear();
+        if (flushListener != null) {
+            flushListener.accept(totalRows);
+        }
+    }
+
+    /**
+     * 设置每批写出后的回调，参数为已写出的总行数，用于上报进度
+     *
+     * @param flushListener 回调
+     */
+    public void setFlushListener(LongConsumer flushListener) {
+        this.flushListener = flushListener;
+    }
+
+    /**
+     * 已写出的总行数
+     *
+     * @return 行数
+     */
+    public long getTotalRows() {
+        return totalRows;
+    }
+}
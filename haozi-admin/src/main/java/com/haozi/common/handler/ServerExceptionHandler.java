@@ -3,10 +3,12 @@
 import cn.dev33.satoken.exception.NotLoginException;
 import cn.dev33.satoken.exception.NotPermissionException;
 import com.haozi.common.exception.BaseException;
+import com.haozi.common.exception.BulkheadFullException;
 import com.haozi.common.exception.LockAcquisitionException;
 import com.haozi.common.model.ErrorResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindException;
@@ -47,6 +49,25 @@ public ResponseEntity<ErrorResponse> handleLockAcquisitionException(
         return build(HttpStatus.CONFLICT, "CONFLICT", ex.getMessage(), request);
     }
 
+    /**
+     * 隔离分区并发已满异常处理
+     * 返回 503 并通过 Retry-After 告知客户端稍后重试。
+     *
+     * @param ex 并发已满异常对象
+     * @param request 当前请求
+     * @return 错误响应
+     */
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<ErrorResponse> handleBulkheadFullException(
+            final BulkheadFullException ex,
+            final HttpServletRequest request
+    ) {
+        log.warn("并发已满: {} {}", request.getMethod(), request.getRequestURI());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ErrorResponse.of("SERVICE_UNAVAILABLE", ex.getMessage(), request.getRequestURI()));
+    }
+
     /**
      * 处理自定义异常
      * 处理系统中抛出的 BaseException 自定义异常。
@@ -0,0 +1,57 @@
+package com.haozi.common.idempotent;
+
+import java.lang.annotation.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 幂等注解
+ * 同一幂等key的重复请求直接返回首次请求的结果，不再执行方法；
+ * 首次请求仍在执行时，重复请求等待其结果而不是失败。
+ * 方法抛出异常时不缓存结果，客户端可以用同一个key重试。
+ * <p>
+ * 幂等key优先取 {@link #key()}，为空时取请求头 {@link #header()}，两者都没有时不做幂等处理。
+ * 结果以 JSON 缓存在 Redis，按方法与登录用户隔离；同一个key的请求参数与首次请求不一致时返回 422。
+ *
+ * @author liliangyu
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Idempotent {
+
+    /**
+     * 幂等key，支持SpEL模板表达式，例如：order:submit:#{#dto.orderNo}
+     */
+    String key() default "";
+
+    /**
+     * 幂等key请求头
+     */
+    String header() default "Idempotency-Key";
+
+    /**
+     * 结果缓存时间，默认24小时
+     */
+    long expire() default 24 * 60 * 60;
+
+    /**
+     * 重复请求等待首次请求结果的最长时间，默认10秒
+     */
+    long waitTime() default 10;
+
+    /**
+     * 执行中标识的存活时间，默认5分钟；需大于方法的最长执行时间，
+     * 否则标识过期后重复请求会再次执行方法。实例宕机后重复请求最多等待到此时间后重新执行
+     */
+    long processingTimeout() default 5 * 60;
+
+    /**
+     * 时间单位，默认秒
+     */
+    TimeUnit timeUnit() default TimeUnit.SECONDS;
+
+    /**
+     * 等待超时时的错误消息
+     */
+    String failMessage() default "请求正在处理中，请稍后重试";
+}
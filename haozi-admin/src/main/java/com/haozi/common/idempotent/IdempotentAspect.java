@@ -0,0 +1,208 @@
+package com.haozi.common.idempotent;
+
+import cn.dev33.satoken.stp.StpUtil;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.haozi.common.exception.BaseException;
+import com.haozi.common.exception.LockAcquisitionException;
+import com.haozi.common.lock.LockKeyResolver;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 幂等切面处理器
+ * <p>
+ * Redis 中每个幂等key只有两种状态：执行中（P:参数摘要:随机标识）与已完成（D:参数摘要:结果JSON）。
+ * 首个请求通过 SET NX 写入执行中标识后执行方法，完成后用脚本比对标识并替换为结果；
+ * 方法异常时比对标识后删除，允许重试。重复请求读到已完成状态直接反序列化返回，
+ * 读到执行中状态则退避轮询，直到拿到结果或等待超时(409)。
+ * 参数摘要与首次请求不一致时说明同一个key被用于不同的请求，直接拒绝(422)。
+ * 优先级高于分布式锁与事务切面，命中缓存时不再加锁。
+ *
+ * @author liliangyu
+ */
+@Slf4j
+@Aspect
+@Component
+@RequiredArgsConstructor
+@Order(Ordered.LOWEST_PRECEDENCE - 2)
+public class IdempotentAspect {
+
+    private static final String KEY_PREFIX = "idempotent:";
+    private static final String PROCESSING = "P:";
+    private static final String DONE = "D:";
+    private static final long MIN_POLL_MILLIS = 50;
+    private static final long MAX_POLL_MILLIS = 500;
+    /**
+     * 参数摘要长度（MD5 十六进制）
+     */
+    private static final int ARGS_HASH_LENGTH = 32;
+
+    /**
+     * 标识仍属于本次请求时写入结果
+     */
+    private static final RedisScript<Long> COMPLETE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then "
+                    + "redis.call('set', KEYS[1], ARGV[2], 'PX', ARGV[3]) return 1 end return 0", Long.class);
+    /**
+     * 标识仍属于本次请求时删除
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) end return 0", Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final LockKeyResolver lockKeyResolver;
+
+    /**
+     * 环绕通知处理幂等请求
+     */
+    @Around("@annotation(idempotent)")
+    public Object around(ProceedingJoinPoint joinPoint, Idempotent idempotent) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        String idempotentKey = resolveKey(idempotent, method, joinPoint.getArgs());
+        if (StrUtil.isBlank(idempotentKey)) {
+            return joinPoint.proceed();
+        }
+
+        String redisKey = buildRedisKey(method, idempotentKey);
+        String argsHash = hashArgs(joinPoint.getArgs());
+        String token = PROCESSING + argsHash + ":" + IdUtil.fastSimpleUUID();
+        long deadline = System.nanoTime() + idempotent.timeUnit().toNanos(idempotent.waitTime());
+        Duration processingTtl = Duration.ofMillis(idempotent.timeUnit().toMillis(idempotent.processingTimeout()));
+        long pollMillis = MIN_POLL_MILLIS;
+        while (true) {
+            if (Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(redisKey, token, processingTtl))) {
+                return execute(joinPoint, idempotent, redisKey, token, argsHash);
+            }
+            String existing = stringRedisTemplate.opsForValue().get(redisKey);
+            if (existing == null) {
+                // 首次请求失败后标识已删除，重新争抢
+                continue;
+            }
+            if (!argsHash.equals(storedArgsHash(existing))) {
+                log.warn("幂等key已用于不同的请求参数: {}", redisKey);
+                throw new BaseException(HttpStatus.UNPROCESSABLE_ENTITY.value(), "幂等key已用于不同的请求参数");
+            }
+            if (existing.startsWith(DONE)) {
+                log.info("幂等请求返回已缓存结果: {}", redisKey);
+                JavaType returnType = objectMapper.constructType(method.getGenericReturnType());
+                return objectMapper.readValue(existing.substring(DONE.length() + ARGS_HASH_LENGTH + 1), returnType);
+            }
+            if (System.nanoTime() >= deadline) {
+                log.warn("幂等请求等待首次请求结果超时: {}", redisKey);
+                throw new LockAcquisitionException(idempotent.failMessage());
+            }
+            try {
+                Thread.sleep(pollMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new LockAcquisitionException(idempotent.failMessage(), e);
+            }
+            pollMillis = Math.min(pollMillis * 2, MAX_POLL_MILLIS);
+        }
+    }
+
+    /**
+     * 执行方法并缓存结果，方法异常时删除执行中标识
+     */
+    private Object execute(ProceedingJoinPoint joinPoint, Idempotent idempotent, String redisKey, String token,
+                           String argsHash) throws Throwable {
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(redisKey), token);
+            throw e;
+        }
+
+        try {
+            String value = DONE + argsHash + ":" + objectMapper.writeValueAsString(result);
+            long expireMillis = idempotent.timeUnit().toMillis(idempotent.expire());
+            stringRedisTemplate.execute(COMPLETE_SCRIPT, List.of(redisKey), token, value, String.valueOf(expireMillis));
+        } catch (Exception e) {
+            // 结果缓存失败不影响本次返回，删除标识让重复请求重新执行
+            log.error("幂等结果缓存失败: {}", redisKey, e);
+            stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(redisKey), token);
+        }
+        return result;
+    }
+
+    /**
+     * 解析幂等key：注解表达式优先，其次请求头
+     */
+    private String resolveKey(Idempotent idempotent, Method method, Object[] args) {
+        if (StrUtil.isNotBlank(idempotent.key())) {
+            return lockKeyResolver.resolve(idempotent.key(), method, args);
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletRequestAttributes) {
+            HttpServletRequest request = servletRequestAttributes.getRequest();
+            return request.getHeader(idempotent.header());
+        }
+        return null;
+    }
+
+    /**
+     * 请求参数摘要
+     * 请求、响应与上传文件等不能序列化的参数不参与摘要
+     */
+    private String hashArgs(Object[] args) throws Exception {
+        List<Object> hashed = new ArrayList<>(args.length);
+        for (Object arg : args) {
+            if (arg instanceof ServletRequest || arg instanceof ServletResponse || arg instanceof InputStreamSource) {
+                continue;
+            }
+            hashed.add(arg);
+        }
+        return DigestUtil.md5Hex(objectMapper.writeValueAsBytes(hashed));
+    }
+
+    /**
+     * 取出存储值中的参数摘要，格式为 P:摘要:标识 或 D:摘要:结果JSON
+     */
+    private static String storedArgsHash(String value) {
+        int start = value.startsWith(DONE) ? DONE.length() : PROCESSING.length();
+        return value.length() > start + ARGS_HASH_LENGTH ? value.substring(start, start + ARGS_HASH_LENGTH) : "";
+    }
+
+    /**
+     * 按方法（全限定类名）与登录用户隔离，避免不同用户或同名类使用相同key时串结果
+     */
+    private String buildRedisKey(Method method, String idempotentKey) {
+        Object loginId = null;
+        try {
+            loginId = StpUtil.getLoginIdDefaultNull();
+        } catch (Exception e) {
+            log.debug("幂等请求获取登录用户失败", e);
+        }
+        return KEY_PREFIX + method.getDeclaringClass().getName() + "." + method.getName() + ":"
+                + (loginId != null ? loginId : "anonymous") + ":" + idempotentKey;
+    }
+}
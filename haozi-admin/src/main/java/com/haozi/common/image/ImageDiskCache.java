@@ -0,0 +1,288 @@
+package com.haozi.common.image;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.haozi.common.config.ImageCompressionConfig;
+import com.haozi.common.config.ProjectConfiguration;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 导出图片本地磁盘缓存
+ * <p>
+ * 缓存压缩后的图片，key 为 图片地址 + 压缩参数，命中时跳过下载与压缩。
+ * 图片内容按内容哈希存放在 blobs 目录，不同地址的相同图片只存一份；index 目录每个 key 一个小文件，
+ * 记录内容哈希与尺寸，重启后据此重建内存索引。
+ * 内存索引按访问顺序淘汰（LRU），总大小超过上限时删除最久未使用的条目，内容不再被引用时删除文件。
+ * 读取使用内存映射。
+ *
+ * @author liliangyu
+ */
+@Slf4j
+@Component
+public class ImageDiskCache {
+
+    /**
+     * 供 ExcelImageUtil 等静态工具类使用，容器外或未开启时为 null
+     */
+    private static volatile ImageDiskCache instance;
+
+    private final ProjectConfiguration.ImageIoProperties properties;
+    private final Path indexDir;
+    private final Path blobDir;
+
+    /**
+     * key -> 条目，按访问顺序排列
+     */
+    private final LinkedHashMap<String, Entry> index = new LinkedHashMap<>(256, 0.75f, true);
+    /**
+     * 内容哈希 -> 引用数
+     */
+    private final Map<String, Integer> blobRefs = new HashMap<>(256);
+    private long totalBytes;
+
+    public ImageDiskCache(ProjectConfiguration projectConfiguration) {
+        this.properties = projectConfiguration.getImageIoProperties();
+        Path root = Path.of(properties.getCacheDir());
+        this.indexDir = root.resolve("index");
+        this.blobDir = root.resolve("blobs");
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!properties.isCacheEnabled()) {
+            return;
+        }
+        try {
+            Files.createDirectories(indexDir);
+            Files.createDirectories(blobDir);
+            load();
+            instance = this;
+            log.info("图片缓存目录: {}, 条目 {}, 大小 {}KB", indexDir.getParent(), index.size(), totalBytes / 1024);
+        } catch (IOException e) {
+            log.warn("图片缓存目录不可用, 不使用缓存: {}", properties.getCacheDir(), e);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        instance = null;
+    }
+
+    /**
+     * 可用的缓存，容器外或未开启时为 null
+     *
+     * @return 缓存
+     */
+    public static ImageDiskCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * 读取缓存
+     *
+     * @param url    图片地址
+     * @param config 压缩配置
+     * @return 缓存的压缩结果，未命中时为 null
+     */
+    public CachedImage get(String url, ImageCompressionConfig config) {
+        String key = key(url, config);
+        Entry entry;
+        synchronized (this) {
+            entry = index.get(key);
+        }
+        if (entry == null) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(blobDir.resolve(entry.contentHash), StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            byte[] bytes = new byte[mapped.remaining()];
+            mapped.get(bytes);
+            return new CachedImage(bytes, entry.width, entry.height);
+        } catch (IOException e) {
+            log.debug("读取图片缓存失败: {}", url, e);
+            remove(key, entry);
+            return null;
+        }
+    }
+
+    /**
+     * 写入缓存
+     * <p>
+     * 内容先写入临时文件，在锁内检查内容文件是否存在、移动到位并更新索引，
+     * 与淘汰删除文件互斥，避免刚确认存在的内容文件在更新索引前被淘汰删除。
+     *
+     * @param url    图片地址
+     * @param config 压缩配置
+     * @param image  压缩结果
+     */
+    public void put(String url, ImageCompressionConfig config, CachedImage image) {
+        if (image.bytes().length > properties.getCacheMaxBytes()) {
+            return;
+        }
+        String key = key(url, config);
+        String contentHash = DigestUtil.sha256Hex(image.bytes());
+        String meta = contentHash + "," + image.width() + "," + image.height();
+        Path blobTemp = null;
+        Path indexTemp = null;
+        try {
+            blobTemp = writeTemp(blobDir, image.bytes());
+            indexTemp = writeTemp(indexDir, meta.getBytes(StandardCharsets.UTF_8));
+            synchronized (this) {
+                Path blob = blobDir.resolve(contentHash);
+                if (!Files.exists(blob)) {
+                    moveIntoPlace(blobTemp, blob);
+                }
+                moveIntoPlace(indexTemp, indexDir.resolve(key));
+                addEntry(key, new Entry(contentHash, image.width(), image.height(), image.bytes().length));
+                evict();
+            }
+        } catch (IOException e) {
+            log.debug("写入图片缓存失败: {}", url, e);
+        } finally {
+            deleteQuietly(blobTemp);
+            deleteQuietly(indexTemp);
+        }
+    }
+
+    /**
+     * 启动时按 index 文件的修改时间重建 LRU 顺序，丢弃不完整的条目与无引用的内容文件
+     */
+    private void load() throws IOException {
+        List<Path> indexFiles;
+        try (Stream<Path> files = Files.list(indexDir)) {
+            indexFiles = files.sorted(Comparator.comparingLong(path -> path.toFile().lastModified())).toList();
+        }
+        for (Path indexFile : indexFiles) {
+            try {
+                String[] meta = Files.readString(indexFile, StandardCharsets.UTF_8).split(",");
+                Path blob = blobDir.resolve(meta[0]);
+                if (meta.length != 3 || !Files.exists(blob)) {
+                    Files.deleteIfExists(indexFile);
+                    continue;
+                }
+                addEntry(indexFile.getFileName().toString(),
+                        new Entry(meta[0], Integer.parseInt(meta[1]), Integer.parseInt(meta[2]), Files.size(blob)));
+            } catch (Exception e) {
+                Files.deleteIfExists(indexFile);
+            }
+        }
+        try (Stream<Path> files = Files.list(blobDir)) {
+            files.filter(blob -> !blobRefs.containsKey(blob.getFileName().toString()))
+                    .forEach(blob -> FileUtil.del(blob.toFile()));
+        }
+        evict();
+    }
+
+    /**
+     * 先增加新内容的引用再释放旧条目，同一 key 重复写入相同内容时不会删除仍在使用的内容文件
+     */
+    private void addEntry(String key, Entry entry) {
+        if (blobRefs.merge(entry.contentHash, 1, Integer::sum) == 1) {
+            totalBytes += entry.size;
+        }
+        Entry previous = index.put(key, entry);
+        if (previous != null) {
+            release(previous);
+        }
+    }
+
+    /**
+     * 读取失败时移除条目，条目已被替换时不处理
+     */
+    private synchronized void remove(String key, Entry entry) {
+        if (index.remove(key, entry)) {
+            FileUtil.del(indexDir.resolve(key).toFile());
+            release(entry);
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Entry>> iterator = index.entrySet().iterator();
+        while (totalBytes > properties.getCacheMaxBytes() && iterator.hasNext()) {
+            Map.Entry<String, Entry> eldest = iterator.next();
+            iterator.remove();
+            FileUtil.del(indexDir.resolve(eldest.getKey()).toFile());
+            release(eldest.getValue());
+        }
+    }
+
+    /**
+     * 减少内容引用，不再被引用时删除文件
+     */
+    private void release(Entry entry) {
+        Integer refs = blobRefs.computeIfPresent(entry.contentHash, (hash, count) -> count > 1 ? count - 1 : null);
+        if (refs == null) {
+            totalBytes -= entry.size;
+            FileUtil.del(blobDir.resolve(entry.contentHash).toFile());
+        }
+    }
+
+    /**
+     * 写入同目录下的临时文件，之后移动到位，读取方不会看到写了一半的文件
+     */
+    private static Path writeTemp(Path dir, byte[] bytes) throws IOException {
+        Path temp = Files.createTempFile(dir, ".tmp", null);
+        try {
+            Files.write(temp, bytes);
+            return temp;
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    private static void moveIntoPlace(Path temp, Path target) throws IOException {
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void deleteQuietly(Path temp) {
+        if (temp != null) {
+            FileUtil.del(temp.toFile());
+        }
+    }
+
+    /**
+     * 缓存 key：图片地址与影响压缩结果的参数
+     */
+    private static String key(String url, ImageCompressionConfig config) {
+        return DigestUtil.sha256Hex(url + "|" + config.getMaxWidth() + "x" + config.getMaxHeight()
+                + "|" + config.getJpegQuality() + "|" + config.getMaxFileSizeKb());
+    }
+
+    /**
+     * 压缩后的图片
+     *
+     * @param bytes  JPEG 内容
+     * @param width  宽度
+     * @param height 高度
+     */
+    public record CachedImage(byte[] bytes, int width, int height) {
+    }
+
+    private record Entry(String contentHash, int width, int height, long size) {
+    }
+}
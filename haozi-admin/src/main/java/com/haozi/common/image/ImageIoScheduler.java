@@ -0,0 +1,303 @@
+package com.haozi.common.image;
+
+import cn.hutool.core.util.URLUtil;
+import cn.hutool.http.HttpRequest;
+import cn.hutool.http.HttpResponse;
+import com.haozi.common.config.ImageCompressionConfig;
+import com.haozi.common.config.ProjectConfiguration;
+import com.haozi.common.executor.ContextTaskDecorator;
+import com.haozi.common.executor.ExecutorRegistry;
+import com.haozi.common.executor.ResizableThreadPoolTaskExecutor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 图片下载与解码调度器
+ * <p>
+ * 网络下载与 CPU 密集的解码、压缩使用两个独立线程池，互不占用：
+ * <ul>
+ *     <li>下载线程数默认取 ImageCompressionConfig 的线程池大小，解码线程数默认取 CPU 核数</li>
+ *     <li>同一主机同时下载的连接数有上限，全局在途字节数（下载中 + 待解码）有预算，超出时延迟重新调度而不是阻塞线程</li>
+ *     <li>下载失败按递增间隔定时重试，等待期间不占用下载线程</li>
+ * </ul>
+ * 线程池随 Spring 容器创建和关闭，并登记到 ExecutorRegistry 输出指标。
+ *
+ * @author liliangyu
+ */
+@Slf4j
+@Component
+public class ImageIoScheduler {
+
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    /**
+     * 供 ExcelImageUtil 等静态工具类使用，容器外为 null
+     */
+    private static volatile ImageIoScheduler instance;
+
+    private final ProjectConfiguration.ImageIoProperties properties;
+    private final ResizableThreadPoolTaskExecutor fetchExecutor = new ResizableThreadPoolTaskExecutor();
+    private final ResizableThreadPoolTaskExecutor decodeExecutor = new ResizableThreadPoolTaskExecutor();
+    private final ThreadPoolTaskScheduler retryScheduler = new ThreadPoolTaskScheduler();
+
+    private final ConcurrentHashMap<String, Semaphore> hostPermits = new ConcurrentHashMap<>(16);
+    private final AtomicLong inFlightBytes = new AtomicLong();
+
+    public ImageIoScheduler(ProjectConfiguration projectConfiguration, ExecutorRegistry executorRegistry) {
+        this.properties = projectConfiguration.getImageIoProperties();
+        ContextTaskDecorator contextTaskDecorator = new ContextTaskDecorator();
+
+        int fetchConcurrency = properties.getFetchConcurrency() > 0
+                ? properties.getFetchConcurrency() : new ImageCompressionConfig().getThreadPoolSize();
+        fetchExecutor.setCorePoolSize(fetchConcurrency);
+        fetchExecutor.setMaxPoolSize(fetchConcurrency);
+        fetchExecutor.setQueueCapacity(properties.getQueueCapacity());
+        fetchExecutor.setThreadNamePrefix("image-fetch-");
+        fetchExecutor.setWaitForTasksToCompleteOnShutdown(false);
+        executorRegistry.register("image-fetch", fetchExecutor, new ThreadPoolExecutor.AbortPolicy(), contextTaskDecorator);
+
+        int decodeConcurrency = properties.getDecodeConcurrency() > 0
+                ? properties.getDecodeConcurrency() : Runtime.getRuntime().availableProcessors();
+        decodeExecutor.setCorePoolSize(decodeConcurrency);
+        decodeExecutor.setMaxPoolSize(decodeConcurrency);
+        decodeExecutor.setQueueCapacity(properties.getQueueCapacity());
+        decodeExecutor.setThreadNamePrefix("image-decode-");
+        decodeExecutor.setWaitForTasksToCompleteOnShutdown(false);
+        executorRegistry.register("image-decode", decodeExecutor, new ThreadPoolExecutor.AbortPolicy(), contextTaskDecorator);
+
+        retryScheduler.setPoolSize(1);
+        retryScheduler.setThreadNamePrefix("image-retry-");
+        retryScheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    @PostConstruct
+    public void init() {
+        fetchExecutor.initialize();
+        decodeExecutor.initialize();
+        retryScheduler.initialize();
+        instance = this;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        instance = null;
+        retryScheduler.shutdown();
+        fetchExecutor.shutdown();
+        decodeExecutor.shutdown();
+    }
+
+    /**
+     * 容器中的调度器，容器外使用时为 null
+     *
+     * @return 调度器
+     */
+    public static ImageIoScheduler getInstance() {
+        return instance;
+    }
+
+    /**
+     * 下载图片并在解码线程池中处理
+     *
+     * @param url     图片地址
+     * @param config  压缩配置，使用其中的超时时间与重试次数
+     * @param decoder 解码、压缩处理，返回值作为结果
+     * @param <T>     结果类型
+     * @return 结果，下载最终失败时异常完成
+     */
+    public <T> CompletableFuture<T> submit(String url, ImageCompressionConfig config, Function<byte[], T> decoder) {
+        FetchTask<T> task = new FetchTask<>(url, config, decoder);
+        task.schedule(0);
+        return task.future;
+    }
+
+    /**
+     * 当前在途字节数
+     *
+     * @return 字节数
+     */
+    public long getInFlightBytes() {
+        return inFlightBytes.get();
+    }
+
+    /**
+     * 预占字节预算，没有其他在途数据时总是允许，避免单张大图永远无法调度
+     */
+    private boolean tryReserve(long bytes) {
+        while (true) {
+            long current = inFlightBytes.get();
+            if (current > 0 && current + bytes > properties.getMaxInFlightBytes()) {
+                return false;
+            }
+            if (inFlightBytes.compareAndSet(current, current + bytes)) {
+                return true;
+            }
+        }
+    }
+
+    private Semaphore hostPermit(String url) {
+        String host;
+        try {
+            host = URLUtil.url(url).getHost();
+        } catch (Exception e) {
+            host = "";
+        }
+        return hostPermits.computeIfAbsent(host, key -> new Semaphore(properties.getMaxConnectionsPerHost()));
+    }
+
+    /**
+     * 单张图片的下载任务
+     */
+    private final class FetchTask<T> implements Runnable {
+        private final String url;
+        private final ImageCompressionConfig config;
+        private final Function<byte[], T> decoder;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private final long deadline = System.nanoTime() + Duration.ofMillis(properties.getAcquireTimeoutMs()).toNanos();
+        private int attempt;
+
+        private FetchTask(String url, ImageCompressionConfig config, Function<byte[], T> decoder) {
+            this.url = url;
+            this.config = config;
+            this.decoder = decoder;
+        }
+
+        /**
+         * 延迟后提交到下载线程池，延迟期间不占用线程
+         */
+        private void schedule(long delayMs) {
+            try {
+                if (delayMs <= 0) {
+                    fetchExecutor.execute(this);
+                } else {
+                    retryScheduler.schedule(() -> schedule(0), Instant.now().plusMillis(delayMs));
+                }
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public void run() {
+            if (future.isDone()) {
+                return;
+            }
+            Semaphore hostPermit = hostPermit(url);
+            long reserved = properties.getEstimatedImageBytes();
+            if (!hostPermit.tryAcquire()) {
+                waitForPermit();
+                return;
+            }
+            if (!tryReserve(reserved)) {
+                hostPermit.release();
+                waitForPermit();
+                return;
+            }
+            byte[] bytes;
+            try {
+                bytes = download();
+            } catch (Exception e) {
+                inFlightBytes.addAndGet(-reserved);
+                onFailure(e);
+                return;
+            } finally {
+                hostPermit.release();
+            }
+            // 按实际大小修正预算，解码完成后释放
+            long actual = bytes.length;
+            inFlightBytes.addAndGet(actual - reserved);
+            try {
+                decodeExecutor.execute(() -> {
+                    try {
+                        future.complete(decoder.apply(bytes));
+                    } catch (Exception e) {
+                        future.completeExceptionally(e);
+                    } finally {
+                        inFlightBytes.addAndGet(-actual);
+                    }
+                });
+            } catch (Exception e) {
+                inFlightBytes.addAndGet(-actual);
+                future.completeExceptionally(e);
+            }
+        }
+
+        private byte[] download() throws IOException {
+            log.debug("下载图片 (尝试 {}/{}): {}", attempt + 1, config.getMaxRetries() + 1, url);
+            try (HttpResponse response = HttpRequest.get(url).timeout(config.getTimeoutMs()).executeAsync()) {
+                if (!response.isOk()) {
+                    throw new IOException("HTTP " + response.getStatus());
+                }
+                long maxBytes = properties.getMaxImageBytes();
+                long contentLength = response.contentLength();
+                if (contentLength > maxBytes) {
+                    throw new OversizedImageException("图片过大: " + contentLength + " 字节");
+                }
+                // 分块传输或未返回 Content-Length 时为 -1，读取过程中按上限截断
+                return readBounded(response.bodyStream(), contentLength, maxBytes);
+            }
+        }
+
+        private byte[] readBounded(InputStream in, long contentLength, long maxBytes) throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(contentLength > 0 ? (int) contentLength : READ_BUFFER_SIZE);
+            byte[] buffer = new byte[READ_BUFFER_SIZE];
+            long total = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                total += read;
+                if (total > maxBytes) {
+                    throw new OversizedImageException("图片过大: 超过 " + maxBytes + " 字节");
+                }
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+
+        /**
+         * 主机连接数或字节预算已满，稍后重新调度；不计入重试次数
+         */
+        private void waitForPermit() {
+            if (System.nanoTime() > deadline) {
+                future.completeExceptionally(new TimeoutException("等待图片下载资源超时: " + url));
+                return;
+            }
+            schedule(properties.getPermitRetryDelayMs());
+        }
+
+        private void onFailure(Exception e) {
+            if (e instanceof OversizedImageException || attempt >= config.getMaxRetries()) {
+                log.error("下载图片最终失败: {}", url, e);
+                future.completeExceptionally(e);
+                return;
+            }
+            log.warn("下载图片失败 (尝试 {}/{}): {}", attempt + 1, config.getMaxRetries() + 1, url);
+            attempt++;
+            // 递增等待时间
+            schedule(500L * attempt);
+        }
+    }
+
+    /**
+     * 图片超过大小上限，不再重试
+     */
+    private static final class OversizedImageException extends IOException {
+        private OversizedImageException(String message) {
+            super(message);
+        }
+    }
+}
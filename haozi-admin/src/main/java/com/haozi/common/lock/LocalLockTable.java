@@ -0,0 +1,103 @@
+package com.haozi.common.lock;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 进程内锁表
+ * <p>
+ * 作为分布式锁前面的第一级锁：同一节点上竞争同一个key的线程先在本地排队，
+ * 只有持有本地锁的线程才去竞争 Redisson 锁，竞争时每个节点只有一个线程访问 Redis。
+ * <p>
+ * 按key分配锁并做引用计数，没有线程持有或等待时即从表中移除；
+ * 不使用固定条带，避免不相关的key落在同一条带上互相阻塞并导致误报获取失败。
+ *
+ * @author liliangyu
+ */
+class LocalLockTable {
+
+    private final ConcurrentHashMap<String, LocalLock> locks = new ConcurrentHashMap<>(64);
+
+    /**
+     * 尝试获取本地锁
+     *
+     * @param key      锁key
+     * @param waitTime 等待时间
+     * @param timeUnit 时间单位
+     * @param fair     是否公平锁（仅在首次创建时生效）
+     * @return 是否获取成功
+     * @throws InterruptedException 等待被中断
+     */
+    boolean tryLock(String key, long waitTime, TimeUnit timeUnit, boolean fair) throws InterruptedException {
+        LocalLock lock = retain(key, fair);
+        boolean acquired = false;
+        try {
+            // 与 Redisson 一致，等待时间小于等于0时只尝试一次
+            acquired = lock.tryLock(Math.max(waitTime, 0), timeUnit);
+            return acquired;
+        } finally {
+            if (!acquired) {
+                release(key);
+            }
+        }
+    }
+
+    /**
+     * 释放本地锁，当前线程未持有时忽略
+     *
+     * @param key 锁key
+     */
+    void unlock(String key) {
+        LocalLock lock = locks.get(key);
+        if (lock == null || !lock.isHeldByCurrentThread()) {
+            return;
+        }
+        lock.unlock();
+        release(key);
+    }
+
+    /**
+     * 当前线程是否持有本地锁
+     *
+     * @param key 锁key
+     * @return 是否持有
+     */
+    boolean isHeldByCurrentThread(String key) {
+        LocalLock lock = locks.get(key);
+        return lock != null && lock.isHeldByCurrentThread();
+    }
+
+    /**
+     * 当前本地锁数量
+     *
+     * @return 数量
+     */
+    int size() {
+        return locks.size();
+    }
+
+    private LocalLock retain(String key, boolean fair) {
+        return locks.compute(key, (k, lock) -> {
+            LocalLock current = lock != null ? lock : new LocalLock(fair);
+            current.references++;
+            return current;
+        });
+    }
+
+    private void release(String key) {
+        locks.computeIfPresent(key, (k, lock) -> --lock.references == 0 ? null : lock);
+    }
+
+    /**
+     * 带引用计数的本地锁，引用计数只在 ConcurrentHashMap 的 compute 中修改
+     */
+    private static final class LocalLock extends ReentrantLock {
+
+        private int references;
+
+        private LocalLock(boolean fair) {
+            super(fair);
+        }
+    }
+}
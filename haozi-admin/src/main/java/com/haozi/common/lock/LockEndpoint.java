@@ -0,0 +1,47 @@
+package com.haozi.common.lock;
+
+import com.haozi.modules.monitor.vo.LockHolder;
+import com.haozi.modules.monitor.vo.LockStat;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 分布式锁统计 actuator 端点（/actuator/locks、/actuator/locks/holders）
+ * <p>
+ * 原始指标同时以 lock.* 名称注册到 MeterRegistry。
+ *
+ * @author liliangyu
+ */
+@Component
+@Endpoint(id = "locks")
+@RequiredArgsConstructor
+public class LockEndpoint {
+
+    private final LockMetrics lockMetrics;
+
+    /**
+     * 按 key 模板统计
+     *
+     * @return 统计列表
+     */
+    @ReadOperation
+    public List<LockStat> locks() {
+        return lockMetrics.snapshot();
+    }
+
+    /**
+     * 本节点当前持有的锁
+     *
+     * @param name 固定为 holders
+     * @return 持有列表
+     */
+    @ReadOperation
+    public List<LockHolder> holders(@Selector String name) {
+        return lockMetrics.holders();
+    }
+}
@@ -0,0 +1,148 @@
+package com.haozi.common.lock;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.ArrayUtil;
+import cn.hutool.core.util.StrUtil;
+import com.haozi.common.exception.LockAcquisitionException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ParserContext;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 锁key表达式解析器
+ * <p>
+ * key 按模板语法解析，例如 {@code qrcode:generate:#{#level}}，#{} 之外的部分原样保留。
+ * 解析后的表达式与方法参数名按 方法 + 表达式 缓存，表达式以 {@link SpelCompilerMode#MIXED} 编译为字节码执行，
+ * 每次调用只需新建求值上下文并绑定参数。
+ * 编译后的字节码按首次调用时的参数类型做强制转换，例如 {@code #userIdList} 先传入 ArrayList、后传入 List.of，
+ * MIXED 模式下编译版本失败会退回解释执行并重新编译，不会像 IMMEDIATE 那样一直抛出异常。
+ *
+ * @author liliangyu
+ */
+@Slf4j
+@Component
+public class LockKeyResolver {
+
+    /** 模板表达式标记 */
+    private static final String TEMPLATE_PREFIX = ParserContext.TEMPLATE_EXPRESSION.getExpressionPrefix();
+
+    /** SpEL表达式解析器，混合编译模式 */
+    private final SpelExpressionParser parser = new SpelExpressionParser(
+            new SpelParserConfiguration(SpelCompilerMode.MIXED, LockKeyResolver.class.getClassLoader()));
+
+    /** 参数名称发现器 */
+    private final ParameterNameDiscoverer discoverer = new DefaultParameterNameDiscoverer();
+
+    /** 方法 + 表达式 -> 已解析的key */
+    private final Map<ExpressionKey, CompiledKey> cache = new ConcurrentHashMap<>(64);
+
+    /**
+     * 解析锁的key
+     *
+     * @param keyExpression key表达式
+     * @param method        方法
+     * @param args          方法参数
+     * @return 解析后的key
+     */
+    public String resolve(String keyExpression, Method method, Object[] args) {
+        if (StrUtil.isBlank(keyExpression)) {
+            throw new IllegalArgumentException("锁key不能为空");
+        }
+        // 不包含表达式标记，直接返回，无需缓存
+        if (!keyExpression.contains(TEMPLATE_PREFIX)) {
+            return keyExpression;
+        }
+        CompiledKey compiledKey = cache.computeIfAbsent(new ExpressionKey(method, keyExpression, true), this::compile);
+        try {
+            Object value = compiledKey.expression().getValue(createContext(compiledKey.paramNames(), args));
+            return value != null ? value.toString() : keyExpression;
+        } catch (Exception e) {
+            log.error("解析锁key表达式失败: {}", keyExpression, e);
+            throw new LockAcquisitionException("解析锁key表达式失败: " + keyExpression, e);
+        }
+    }
+
+    /**
+     * 解析多个锁key的元素，表达式为普通SpEL（不使用模板语法），结果可以是集合、数组或单个值
+     * 例如：#userIdList
+     *
+     * @param keysExpression 集合表达式
+     * @param method         方法
+     * @param args           方法参数
+     * @return 元素列表，表达式结果为 null 时返回空列表
+     */
+    public List<Object> resolveAll(String keysExpression, Method method, Object[] args) {
+        if (StrUtil.isBlank(keysExpression)) {
+            throw new IllegalArgumentException("锁key表达式不能为空");
+        }
+        CompiledKey compiledKey = cache.computeIfAbsent(new ExpressionKey(method, keysExpression, false), this::compile);
+        Object value;
+        try {
+            value = compiledKey.expression().getValue(createContext(compiledKey.paramNames(), args));
+        } catch (Exception e) {
+            log.error("解析锁key表达式失败: {}", keysExpression, e);
+            throw new LockAcquisitionException("解析锁key表达式失败: " + keysExpression, e);
+        }
+        if (value == null) {
+            return List.of();
+        }
+        if (value instanceof Collection<?> collection) {
+            return new ArrayList<>(collection);
+        }
+        if (value.getClass().isArray()) {
+            return CollUtil.newArrayList(ArrayUtil.wrap(value));
+        }
+        return List.of(value);
+    }
+
+    private CompiledKey compile(ExpressionKey key) {
+        String[] paramNames = discoverer.getParameterNames(key.method());
+        if (paramNames == null) {
+            throw new LockAcquisitionException("无法获取方法参数名称，请确保编译时保留参数名称信息");
+        }
+        try {
+            Expression expression = key.template()
+                    ? parser.parseExpression(key.expression(), ParserContext.TEMPLATE_EXPRESSION)
+                    : parser.parseExpression(key.expression());
+            return new CompiledKey(expression, paramNames);
+        } catch (Exception e) {
+            log.error("解析锁key表达式失败: {}", key.expression(), e);
+            throw new LockAcquisitionException("解析锁key表达式失败: " + key.expression(), e);
+        }
+    }
+
+    private EvaluationContext createContext(String[] paramNames, Object[] args) {
+        StandardEvaluationContext context = new StandardEvaluationContext();
+        for (int i = 0; i < paramNames.length && i < args.length; i++) {
+            context.setVariable(paramNames[i], args[i]);
+        }
+        return context;
+    }
+
+    /**
+     * 缓存键
+     */
+    private record ExpressionKey(Method method, String expression, boolean template) {
+    }
+
+    /**
+     * 已解析的表达式及参数名
+     */
+    private record CompiledKey(Expression expression, String[] paramNames) {
+    }
+}
@@ -0,0 +1,317 @@
+package com.haozi.common.lock;
+
+import com.haozi.common.config.ProjectConfiguration;
+import com.haozi.modules.monitor.vo.LockHolder;
+import com.haozi.modules.monitor.vo.LockStat;
+import com.yomahub.tlog.context.TLogContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 分布式锁统计
+ * <p>
+ * 按 key 模板（注解上未展开的 key，未指定模板的直接调用统一归入 {@link #DIRECT_TEMPLATE}）记录等待时间、持有时间直方图、失败次数与当前持有数，
+ * 指标以 lock.* 名称注册到 MeterRegistry。同时记录本节点当前持有的锁及加锁时的 TLog traceId，
+ * 慢锁按模板限频打印日志，便于定位 409 锁冲突的来源。
+ *
+ * @author liliangyu
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LockMetrics {
+
+    /**
+     * 超出最大模板数量后归入此模板
+     */
+    private static final String OVERFLOW_TEMPLATE = "other";
+
+    /**
+     * 直接调用 RedisLockService 且未指定模板时使用的模板，避免展开后的 key 各占一个模板
+     */
+    public static final String DIRECT_TEMPLATE = "direct";
+
+    private final MeterRegistry meterRegistry;
+    private final ProjectConfiguration projectConfiguration;
+
+    private final ConcurrentHashMap<String, TemplateMetrics> templates = new ConcurrentHashMap<>(64);
+    /**
+     * 本节点当前持有的锁：完整key + 线程 -> 持有信息
+     */
+    private final ConcurrentHashMap<HolderKey, Holder> holders = new ConcurrentHashMap<>(64);
+
+    /**
+     * 记录一次加锁成功
+     *
+     * @param keyTemplate key 模板
+     * @param fullKey     完整 key
+     * @param waitNanos   等待时间(纳秒)
+     */
+    public void onAcquired(String keyTemplate, String fullKey, long waitNanos) {
+        Thread thread = Thread.currentThread();
+        onAcquired(keyTemplate, fullKey, waitNanos, thread.getId(), thread.getName(), TLogContext.getTraceId());
+    }
+
+    /**
+     * 记录一次加锁成功，持有者不是当前线程时使用（异步锁）
+     *
+     * @param keyTemplate key 模板
+     * @param fullKey     完整 key
+     * @param waitNanos   等待时间(纳秒)
+     * @param ownerId     持有者标识，与 Redisson 加锁使用的 threadId 一致
+     * @param ownerName   持有者名称
+     * @param traceId     加锁时的 traceId
+     */
+    public void onAcquired(String keyTemplate, String fullKey, long waitNanos, long ownerId, String ownerName, String traceId) {
+        TemplateMetrics metrics = metrics(keyTemplate);
+        metrics.acquiredWait.record(waitNanos, TimeUnit.NANOSECONDS);
+        HolderKey holderKey = new HolderKey(fullKey, ownerId);
+        Holder holder = holders.get(holderKey);
+        if (holder != null) {
+            // 同一线程重入，只在最外层统计持有时间
+            holder.reentrant++;
+            return;
+        }
+        holders.put(holderKey, new Holder(metrics, fullKey, ownerName, traceId));
+        metrics.holders.incrementAndGet();
+        if (TimeUnit.NANOSECONDS.toMillis(waitNanos) >= lockProperties().getSlowWaitMs() && metrics.shouldLogSlow()) {
+            log.warn("慢锁等待: key={}, 模板={}, 等待 {}ms, traceId={}", fullKey, metrics.keyTemplate,
+                    TimeUnit.NANOSECONDS.toMillis(waitNanos), traceId);
+        }
+    }
+
+    /**
+     * 记录一次加锁失败（超时或异常）
+     *
+     * @param keyTemplate key 模板
+     * @param fullKey     完整 key
+     * @param waitNanos   等待时间(纳秒)
+     */
+    public void onFailed(String keyTemplate, String fullKey, long waitNanos) {
+        onFailed(keyTemplate, fullKey, waitNanos, TLogContext.getTraceId());
+    }
+
+    /**
+     * 记录一次加锁失败，回调线程不是调用线程时使用（异步锁）
+     *
+     * @param keyTemplate key 模板
+     * @param fullKey     完整 key
+     * @param waitNanos   等待时间(纳秒)
+     * @param traceId     调用方 traceId
+     */
+    public void onFailed(String keyTemplate, String fullKey, long waitNanos, String traceId) {
+        TemplateMetrics metrics = metrics(keyTemplate);
+        metrics.failedWait.record(waitNanos, TimeUnit.NANOSECONDS);
+        metrics.failures.increment();
+        if (metrics.shouldLogSlow()) {
+            // 持有者在本节点时一并打印其 traceId
+            String holderTraceId = holders.values().stream()
+                    .filter(holder -> holder.fullKey.equals(fullKey))
+                    .map(holder -> holder.traceId + "@" + holder.thread)
+                    .findFirst()
+                    .orElse("其他节点");
+            log.warn("获取锁失败: key={}, 模板={}, 等待 {}ms, traceId={}, 持有者={}", fullKey, metrics.keyTemplate,
+                    TimeUnit.NANOSECONDS.toMillis(waitNanos), traceId, holderTraceId);
+        }
+    }
+
+    /**
+     * 记录一次释放，当前线程未记录持有时忽略
+     *
+     * @param fullKey 完整 key
+     */
+    public void onReleased(String fullKey) {
+        onReleased(fullKey, Thread.currentThread().getId());
+    }
+
+    /**
+     * 记录一次释放，持有者不是当前线程时使用（异步锁）
+     *
+     * @param fullKey 完整 key
+     * @param ownerId 持有者标识
+     */
+    public void onReleased(String fullKey, long ownerId) {
+        HolderKey holderKey = new HolderKey(fullKey, ownerId);
+        Holder holder = holders.get(holderKey);
+        if (holder == null) {
+            return;
+        }
+        if (holder.reentrant > 0) {
+            holder.reentrant--;
+            return;
+        }
+        holders.remove(holderKey);
+        TemplateMetrics metrics = holder.metrics;
+        metrics.holders.decrementAndGet();
+        long heldNanos = System.nanoTime() - holder.acquiredNanos;
+        metrics.hold.record(heldNanos, TimeUnit.NANOSECONDS);
+        if (TimeUnit.NANOSECONDS.toMillis(heldNanos) >= lockProperties().getSlowHoldMs() && metrics.shouldLogSlow()) {
+            log.warn("慢锁持有: key={}, 模板={}, 持有 {}ms, traceId={}", fullKey, metrics.keyTemplate,
+                    TimeUnit.NANOSECONDS.toMillis(heldNanos), holder.traceId);
+        }
+    }
+
+    /**
+     * 按模板统计快照，按失败次数、最大等待时间降序
+     *
+     * @return 统计列表
+     */
+    public List<LockStat> snapshot() {
+        List<LockStat> result = new ArrayList<>(templates.size());
+        templates.values().forEach(metrics -> result.add(metrics.toStat()));
+        result.sort(Comparator.comparingLong(LockStat::getFailures)
+                .thenComparingDouble(LockStat::getWaitMaxMs)
+                .reversed());
+        return result;
+    }
+
+    /**
+     * 本节点当前持有的锁，按持有时间降序
+     *
+     * @return 持有列表
+     */
+    public List<LockHolder> holders() {
+        long now = System.nanoTime();
+        List<LockHolder> result = new ArrayList<>(holders.size());
+        holders.values().forEach(holder -> {
+            LockHolder lockHolder = new LockHolder();
+            lockHolder.setKey(holder.fullKey);
+            lockHolder.setKeyTemplate(holder.metrics.keyTemplate);
+            lockHolder.setThread(holder.thread);
+            lockHolder.setTraceId(holder.traceId);
+            lockHolder.setHeldMs(TimeUnit.NANOSECONDS.toMillis(now - holder.acquiredNanos));
+            result.add(lockHolder);
+        });
+        result.sort(Comparator.comparingLong(LockHolder::getHeldMs).reversed());
+        return result;
+    }
+
+    private TemplateMetrics metrics(String keyTemplate) {
+        TemplateMetrics metrics = templates.get(keyTemplate);
+        if (metrics != null) {
+            return metrics;
+        }
+        String template = templates.size() < lockProperties().getMaxTemplates() ? keyTemplate : OVERFLOW_TEMPLATE;
+        return templates.computeIfAbsent(template, TemplateMetrics::new);
+    }
+
+    private ProjectConfiguration.LockProperties lockProperties() {
+        return projectConfiguration.getLockProperties();
+    }
+
+    private static double percentile(HistogramSnapshot snapshot, double percentile) {
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 单个 key 模板的统计
+     */
+    private final class TemplateMetrics {
+        private final String keyTemplate;
+        private final Timer acquiredWait;
+        private final Timer failedWait;
+        private final Timer hold;
+        private final Counter failures;
+        private final AtomicInteger holders = new AtomicInteger();
+        private final AtomicLong lastSlowLog = new AtomicLong();
+
+        private TemplateMetrics(String keyTemplate) {
+            this.keyTemplate = keyTemplate;
+            this.acquiredWait = waitTimer("acquired");
+            this.failedWait = waitTimer("failed");
+            this.hold = Timer.builder("lock.hold")
+                    .description("分布式锁持有时间")
+                    .tag("key", keyTemplate)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry);
+            this.failures = Counter.builder("lock.failures")
+                    .description("分布式锁获取失败次数")
+                    .tag("key", keyTemplate)
+                    .register(meterRegistry);
+            Gauge.builder("lock.holders", holders, AtomicInteger::get)
+                    .description("本节点当前持有数")
+                    .tag("key", keyTemplate)
+                    .register(meterRegistry);
+        }
+
+        private Timer waitTimer(String result) {
+            return Timer.builder("lock.wait")
+                    .description("分布式锁等待时间")
+                    .tag("key", keyTemplate)
+                    .tag("result", result)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry);
+        }
+
+        /**
+         * 慢锁日志采样：同一模板在间隔内只打印一次
+         */
+        private boolean shouldLogSlow() {
+            long now = System.currentTimeMillis();
+            long last = lastSlowLog.get();
+            return now - last >= lockProperties().getSlowLogIntervalMs() && lastSlowLog.compareAndSet(last, now);
+        }
+
+        private LockStat toStat() {
+            LockStat stat = new LockStat();
+            stat.setKeyTemplate(keyTemplate);
+            stat.setFailures((long) failures.count());
+            stat.setHolders(holders.get());
+            HistogramSnapshot wait = acquiredWait.takeSnapshot();
+            stat.setAcquired(wait.count());
+            stat.setWaitMeanMs(wait.mean(TimeUnit.MILLISECONDS));
+            stat.setWaitP99Ms(percentile(wait, 0.99));
+            stat.setWaitMaxMs(Math.max(wait.max(TimeUnit.MILLISECONDS), failedWait.max(TimeUnit.MILLISECONDS)));
+            HistogramSnapshot held = hold.takeSnapshot();
+            stat.setHoldMeanMs(held.mean(TimeUnit.MILLISECONDS));
+            stat.setHoldP99Ms(percentile(held, 0.99));
+            stat.setHoldMaxMs(held.max(TimeUnit.MILLISECONDS));
+            return stat;
+        }
+    }
+
+    /**
+     * 持有者键
+     */
+    private record HolderKey(String fullKey, long threadId) {
+    }
+
+    /**
+     * 持有信息，reentrant 只由持有者修改
+     */
+    private static final class Holder {
+        private final TemplateMetrics metrics;
+        private final String fullKey;
+        private final String thread;
+        private final String traceId;
+        private final long acquiredNanos = System.nanoTime();
+        private int reentrant;
+
+        private Holder(TemplateMetrics metrics, String fullKey, String thread, String traceId) {
+            this.metrics = metrics;
+            this.fullKey = fullKey;
+            this.thread = thread;
+            this.traceId = traceId;
+        }
+    }
+}
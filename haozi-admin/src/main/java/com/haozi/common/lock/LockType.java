@@ -28,7 +28,17 @@ public enum LockType {
     WRITE,
     
     /**
-     * 红锁（多个Redis实例）
+     * 红锁（多个Redis实例），需配置至少两个独立实例的 RedissonClient，否则加锁时抛出 IllegalStateException
      */
-    RED_LOCK
+    RED_LOCK;
+    
+    /**
+     * 兼容 fair 参数
+     *
+     * @param fair 是否公平锁
+     * @return 锁类型
+     */
+    public static LockType of(boolean fair) {
+        return fair ? FAIR : REENTRANT;
+    }
 }
\ No newline at end of file
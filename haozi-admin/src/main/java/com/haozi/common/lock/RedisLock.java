@@ -6,6 +6,7 @@
 /**
  * Redis分布式锁注解
  * 用于方法级别的分布式锁控制
+ * 方法返回 CompletableFuture 时使用异步锁，等待锁不阻塞调用线程，返回的 future 完成后释放锁
  * 
  * @author liliangyu
  */
@@ -15,8 +16,8 @@
 public @interface RedisLock {
     
     /**
-     * 锁的key，支持SpEL表达式
-     * 例如：'qrcode:generate:#{#level}' 或 'order:#{#orderId}'
+     * 锁的key，支持SpEL模板表达式，#{} 内为表达式，其余部分原样保留
+     * 例如：qrcode:generate:#{#level} 或 order:#{#orderId}
      */
     String key();
     
@@ -26,7 +27,7 @@
     long waitTime() default 3;
     
     /**
-     * 锁的持有时间，默认10秒
+     * 锁的持有时间，默认10秒，仅在关闭自动续期时生效
      */
     long leaseTime() default 10;
     
@@ -41,12 +42,19 @@
     String failMessage() default "系统繁忙，请稍后重试";
     
     /**
-     * 是否公平锁，默认非公平锁
+     * 是否公平锁，默认非公平锁，等同于 type = FAIR
      */
     boolean fair() default false;
     
+    /**
+     * 锁类型，默认可重入锁
+     * READ/WRITE 使用读写锁，读锁之间可并行；RED_LOCK 在所有 Redisson 实例上同时加锁，仅一个实例时拒绝
+     */
+    LockType type() default LockType.REENTRANT;
+    
     /**
      * 是否自动续期，默认开启
+     * 开启时由看门狗续期直到方法结束，忽略 leaseTime
      */
     boolean autoRenew() default true;
 }
\ No newline at end of file
@@ -1,6 +1,5 @@
 package com.haozi.common.lock;
 
-import cn.hutool.core.util.StrUtil;
 import com.haozi.common.exception.LockAcquisitionException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -8,35 +7,42 @@
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
-import org.springframework.core.DefaultParameterNameDiscoverer;
-import org.springframework.expression.EvaluationContext;
-import org.springframework.expression.Expression;
-import org.springframework.expression.ExpressionParser;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Redis分布式锁切面处理器
  * 实现基于注解的分布式锁功能
+ * 优先级高于事务切面，方法自己开启的事务在释放锁之前提交；
+ * 方法加入调用方已开启的事务时，锁在外层事务完成（提交或回滚）后才释放
  * 
  * @author liliangyu
  */
 @Aspect
 @Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
 @RequiredArgsConstructor
 @Slf4j
 public class RedisLockAspect {
     
     private final RedisLockService redisLockService;
     
-    /** SpEL表达式解析器 */
-    private final ExpressionParser parser = new SpelExpressionParser();
+    private final LockKeyResolver lockKeyResolver;
     
-    /** 参数名称发现器 */
-    private final DefaultParameterNameDiscoverer discoverer = new DefaultParameterNameDiscoverer();
+    /**
+     * 提供默认异步执行器，经过 ContextTaskDecorator 传递上下文并登记到 ExecutorRegistry
+     */
+    private final AsyncConfigurer asyncConfigurer;
     
     /**
      * 环绕通知处理分布式锁
@@ -48,13 +54,24 @@ public Object around(ProceedingJoinPoint joinPoint, RedisLock redisLock) throws
         
         log.debug("开始尝试获取分布式锁: {}", lockKey);
         
+        LockType lockType = resolveLockType(redisLock);
+        // 自动续期时持有时间传 -1，由看门狗续期
+        long leaseTime = redisLock.autoRenew() ? -1 : redisLock.leaseTime();
+        
+        // 返回 CompletableFuture 的方法使用异步锁，等待锁时不阻塞调用线程
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        if (CompletionStage.class.isAssignableFrom(signature.getReturnType())) {
+            return aroundAsync(joinPoint, redisLock, lockKey, lockType, leaseTime);
+        }
+        
         // 尝试获取锁
         boolean acquired = redisLockService.tryLock(
             lockKey,
+            redisLock.key(),
             redisLock.waitTime(),
-            redisLock.leaseTime(),
+            leaseTime,
             redisLock.timeUnit(),
-            redisLock.fair()
+            lockType
         );
         
         if (!acquired) {
@@ -67,55 +84,136 @@ public Object around(ProceedingJoinPoint joinPoint, RedisLock redisLock) throws
             return joinPoint.proceed();
         } finally {
             // 释放锁
-            redisLockService.unlock(lockKey, redisLock.fair());
-            log.debug("释放分布式锁: {}", lockKey);
+            releaseAfterTransaction(() -> {
+                redisLockService.unlock(lockKey, lockType);
+                log.debug("释放分布式锁: {}", lockKey);
+            });
         }
     }
     
     /**
-     * 解析锁的key，支持SpEL表达式
-     * 
-     * @param keyExpression key表达式
-     * @param joinPoint 连接点
-     * @return 解析后的key
+     * 环绕通知处理批量分布式锁
      */
-    private String parseLockKey(String keyExpression, ProceedingJoinPoint joinPoint) {
-        if (StrUtil.isBlank(keyExpression)) {
-            throw new IllegalArgumentException("锁key不能为空");
-        }
-        
-        // 如果不包含SpEL表达式标记，直接返回
-        if (!keyExpression.contains("#{")) {
-            return keyExpression;
-        }
-        
-        // 获取方法信息
+    @Around("@annotation(redisMultiLock)")
+    public Object aroundMulti(ProceedingJoinPoint joinPoint, RedisMultiLock redisMultiLock) throws Throwable {
         MethodSignature signature = (MethodSignature) joinPoint.getSignature();
-        Method method = signature.getMethod();
-        Object[] args = joinPoint.getArgs();
-        
-        // 获取参数名称
-        String[] paramNames = discoverer.getParameterNames(method);
-        if (paramNames == null) {
-            throw new LockAcquisitionException("无法获取方法参数名称，请确保编译时保留参数名称信息");
-        }
+        List<String> lockKeys = lockKeyResolver.resolveAll(redisMultiLock.keys(), signature.getMethod(), joinPoint.getArgs())
+            .stream()
+            .filter(Objects::nonNull)
+            .map(element -> redisMultiLock.prefix() + element)
+            .toList();
+        String keyTemplate = redisMultiLock.prefix() + "[" + redisMultiLock.keys() + "]";
+        long leaseTime = redisMultiLock.autoRenew() ? -1 : redisMultiLock.leaseTime();
         
-        // 创建SpEL上下文
-        EvaluationContext context = new StandardEvaluationContext();
-        
-        // 将方法参数添加到上下文中
-        for (int i = 0; i < paramNames.length; i++) {
-            context.setVariable(paramNames[i], args[i]);
+        boolean acquired = redisLockService.tryMultiLock(
+            lockKeys,
+            keyTemplate,
+            redisMultiLock.waitTime(),
+            leaseTime,
+            redisMultiLock.timeUnit()
+        );
+        if (!acquired) {
+            log.warn("获取批量分布式锁失败: {}, 共{}个", keyTemplate, lockKeys.size());
+            throw new LockAcquisitionException(redisMultiLock.failMessage());
         }
         
         try {
-            // 解析表达式
-            Expression expression = parser.parseExpression(keyExpression);
-            Object value = expression.getValue(context);
-            return value != null ? value.toString() : keyExpression;
-        } catch (Exception e) {
-            log.error("解析锁key表达式失败: {}", keyExpression, e);
-            throw new LockAcquisitionException("解析锁key表达式失败: " + keyExpression, e);
+            return joinPoint.proceed();
+        } finally {
+            releaseAfterTransaction(() -> redisLockService.unlockMulti(lockKeys));
         }
     }
+    
+    /**
+     * 释放锁
+     * <p>
+     * 本切面在方法自己的事务之外，方法返回时该事务已经结束；此时仍有活动的事务同步，
+     * 说明方法加入了外层事务，改为在外层事务完成后释放，避免其他节点在提交前读到旧数据。
+     * afterCompletion 在同一线程执行，本地锁与 Redisson 锁的持有者不变。
+     *
+     * @param release 释放动作
+     */
+    private void releaseAfterTransaction(Runnable release) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                release.run();
+            }
+        });
+    }
+    
+    /**
+     * 异步锁：获取锁后在默认异步执行器中调用目标方法，返回的 future 完成后释放锁
+     * 用户、traceId 与 MDC 由执行器的任务装饰器传递，其他依赖线程上下文的逻辑需在调用前取出
+     */
+    @SuppressWarnings("unchecked")
+    private CompletableFuture<Object> aroundAsync(ProceedingJoinPoint joinPoint, RedisLock redisLock, String lockKey,
+                                                  LockType lockType, long leaseTime) {
+        AtomicBoolean started = new AtomicBoolean();
+        CompletableFuture<Object> result = redisLockService.executeWithLockAsync(
+            lockKey,
+            redisLock.key(),
+            redisLock.waitTime(),
+            leaseTime,
+            redisLock.timeUnit(),
+            lockType,
+            () -> {
+                started.set(true);
+                try {
+                    CompletionStage<Object> stage = (CompletionStage<Object>) joinPoint.proceed();
+                    return stage != null ? stage : CompletableFuture.completedFuture(null);
+                } catch (Throwable e) {
+                    return CompletableFuture.failedFuture(e);
+                }
+            },
+            asyncConfigurer.getAsyncExecutor()
+        );
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        result.whenComplete((value, e) -> {
+            if (e == null) {
+                future.complete(value);
+            } else if (!started.get() && e instanceof LockAcquisitionException) {
+                log.warn("获取分布式锁失败: {}", lockKey);
+                future.completeExceptionally(new LockAcquisitionException(redisLock.failMessage()));
+            } else {
+                future.completeExceptionally(e);
+            }
+        });
+        // 调用方取消时向下传递
+        future.whenComplete((value, e) -> {
+            if (e != null) {
+                result.cancel(true);
+            }
+        });
+        return future;
+    }
+    
+    /**
+     * 解析锁类型，兼容 fair 属性
+     * 
+     * @param redisLock 注解
+     * @return 锁类型
+     */
+    private LockType resolveLockType(RedisLock redisLock) {
+        if (redisLock.type() == LockType.REENTRANT && redisLock.fair()) {
+            return LockType.FAIR;
+        }
+        return redisLock.type();
+    }
+    
+    /**
+     * 解析锁的key，支持SpEL模板表达式
+     * 
+     * @param keyExpression key表达式
+     * @param joinPoint 连接点
+     * @return 解析后的key
+     */
+    private String parseLockKey(String keyExpression, ProceedingJoinPoint joinPoint) {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        return lockKeyResolver.resolve(keyExpression, signature.getMethod(), joinPoint.getArgs());
+    }
 }
\ No newline at end of file
@@ -1,19 +1,41 @@
 package com.haozi.common.lock;
 
 import cn.hutool.core.util.StrUtil;
+import com.haozi.common.config.ProjectConfiguration;
 import com.haozi.common.exception.LockAcquisitionException;
+import com.yomahub.tlog.context.TLogContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.redisson.RedissonMultiLock;
+import org.redisson.RedissonRedLock;
 import org.redisson.api.RLock;
 import org.redisson.api.RReadWriteLock;
 import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Redis分布式锁服务
  * 基于Redisson实现的分布式锁服务
+ * <p>
+ * 加锁分两级：先获取进程内的同key锁，再竞争 Redisson 锁，
+ * 同一节点上的竞争线程在本地排队，不再各自轮询 Redis。
  * 
  * @author liliangyu
  */
@@ -24,9 +46,25 @@ public class RedisLockService {
     
     private final RedissonClient redissonClient;
     
+    private final ProjectConfiguration projectConfiguration;
+    
+    /** 全部 Redisson 客户端（每个独立 Redis 实例一个），用于红锁 */
+    private final ObjectProvider<RedissonClient> redissonClients;
+    
+    private final LockMetrics lockMetrics;
+    
+    /** 默认异步执行器，经过 ContextTaskDecorator 传递上下文 */
+    private final ObjectProvider<AsyncConfigurer> asyncConfigurer;
+    
     /** 默认锁前缀 */
     private static final String LOCK_PREFIX = "distributed:lock:";
     
+    /** 异步锁持有者标识序列 */
+    private static final AtomicLong ASYNC_OWNER_IDS = new AtomicLong();
+    
+    /** 进程内第一级锁 */
+    private final LocalLockTable localLocks = new LocalLockTable();
+    
     /**
      * 尝试获取锁
      *
@@ -38,11 +76,43 @@ public class RedisLockService {
      * @return 是否获取成功
      */
     public boolean tryLock(String lockKey, long waitTime, long leaseTime, TimeUnit timeUnit, boolean fair) {
+        return tryLock(lockKey, waitTime, leaseTime, timeUnit, LockType.of(fair));
+    }
+
+    /**
+     * 按锁类型尝试获取锁
+     *
+     * @param lockKey 锁的key
+     * @param waitTime 等待时间
+     * @param leaseTime 持有时间，小于等于0时使用看门狗自动续期
+     * @param timeUnit 时间单位
+     * @param lockType 锁类型
+     * @return 是否获取成功
+     */
+    public boolean tryLock(String lockKey, long waitTime, long leaseTime, TimeUnit timeUnit, LockType lockType) {
+        return tryLock(lockKey, LockMetrics.DIRECT_TEMPLATE, waitTime, leaseTime, timeUnit, lockType);
+    }
+
+    /**
+     * 按锁类型尝试获取锁，并按key模板统计
+     *
+     * @param lockKey 锁的key
+     * @param keyTemplate key模板（未展开的key），用于统计聚合
+     * @param waitTime 等待时间
+     * @param leaseTime 持有时间，小于等于0时使用看门狗自动续期
+     * @param timeUnit 时间单位
+     * @param lockType 锁类型
+     * @return 是否获取成功
+     */
+    public boolean tryLock(String lockKey, String keyTemplate, long waitTime, long leaseTime, TimeUnit timeUnit, LockType lockType) {
         String fullKey = buildLockKey(lockKey);
-        RLock lock = fair ? redissonClient.getFairLock(fullKey) : redissonClient.getLock(fullKey);
+        if (lockType == LockType.RED_LOCK) {
+            // 配置错误直接抛出，不当作加锁失败
+            redLockClients();
+        }
 
         try {
-            boolean acquired = lock.tryLock(waitTime, leaseTime, timeUnit);
+            boolean acquired = acquire(fullKey, keyTemplate, waitTime, leaseTime, timeUnit, lockType);
             if (acquired) {
                 log.debug("成功获取分布式锁: {}", fullKey);
             } else {
@@ -71,10 +141,9 @@ public boolean tryLock(String lockKey, long waitTime, long leaseTime, TimeUnit t
      */
     public void tryLockOrThrow(String lockKey, long waitTime, long leaseTime, TimeUnit timeUnit, boolean fair) {
         String fullKey = buildLockKey(lockKey);
-        RLock lock = fair ? redissonClient.getFairLock(fullKey) : redissonClient.getLock(fullKey);
 
         try {
-            boolean acquired = lock.tryLock(waitTime, leaseTime, timeUnit);
+            boolean acquired = acquire(fullKey, LockMetrics.DIRECT_TEMPLATE, waitTime, leaseTime, timeUnit, LockType.of(fair));
             if (acquired) {
                 log.debug("成功获取分布式锁: {}", fullKey);
             } else {
@@ -109,11 +178,25 @@ public void tryLockOrThrow(String lockKey, long waitTime, long leaseTime, TimeUn
      * @param fair 是否公平锁
      */
     public void unlock(String lockKey, boolean fair) {
+        unlock(lockKey, LockType.of(fair));
+    }
+
+    /**
+     * 按锁类型释放锁
+     *
+     * @param lockKey 锁的key
+     * @param lockType 锁类型
+     */
+    public void unlock(String lockKey, LockType lockType) {
         String fullKey = buildLockKey(lockKey);
-        RLock lock = fair ? redissonClient.getFairLock(fullKey) : redissonClient.getLock(fullKey);
+        RLock lock = getLock(fullKey, lockType);
         
         try {
-            if (lock.isHeldByCurrentThread()) {
+            if (lock instanceof RedissonMultiLock) {
+                // 联锁不支持 isHeldByCurrentThread，逐个释放各实例上的锁
+                lock.unlock();
+                log.debug("成功释放分布式锁: {}", fullKey);
+            } else if (lock.isHeldByCurrentThread()) {
                 lock.unlock();
                 log.debug("成功释放分布式锁: {}", fullKey);
             } else {
@@ -121,6 +204,13 @@ public void unlock(String lockKey, boolean fair) {
             }
         } catch (Exception e) {
             log.error("释放分布式锁异常: {}", fullKey, e);
+        } finally {
+            lockMetrics.onReleased(fullKey);
+            // 分布式锁释放后再放开本地排队的线程；读锁加锁时不经过本地锁，
+            // 同一线程持有写锁时重入读锁，释放读锁不能放开写锁占用的本地锁
+            if (usesLocalLock(lockType)) {
+                localLocks.unlock(fullKey);
+            }
         }
     }
     
@@ -140,11 +230,10 @@ public void unlock(String lockKey, boolean fair) {
     public <T> T executeWithLock(String lockKey, long waitTime, long leaseTime, 
                                 TimeUnit timeUnit, boolean fair, LockBusiness<T> business) throws Exception {
         String fullKey = buildLockKey(lockKey);
-        RLock lock = fair ? redissonClient.getFairLock(fullKey) : redissonClient.getLock(fullKey);
         
         boolean acquired = false;
         try {
-            acquired = lock.tryLock(waitTime, leaseTime, timeUnit);
+            acquired = acquire(fullKey, LockMetrics.DIRECT_TEMPLATE, waitTime, leaseTime, timeUnit, LockType.of(fair));
             if (!acquired) {
                 throw new RuntimeException("获取分布式锁失败: " + fullKey);
             }
@@ -156,17 +245,225 @@ public <T> T executeWithLock(String lockKey, long waitTime, long leaseTime,
             Thread.currentThread().interrupt();
             throw new RuntimeException("获取分布式锁被中断: " + fullKey, e);
         } finally {
-            if (acquired && lock.isHeldByCurrentThread()) {
-                try {
-                    lock.unlock();
-                    log.debug("成功释放分布式锁: {}", fullKey);
-                } catch (Exception e) {
-                    log.error("释放分布式锁异常: {}", fullKey, e);
-                }
+            if (acquired) {
+                unlock(fullKey, fair);
+            }
+        }
+    }
+    
+    /**
+     * 批量获取锁
+     * <p>
+     * key 去重并按字典序排序后通过 RedissonMultiLock 获取，所有调用方以相同顺序加锁；
+     * 任一把锁获取失败时已获取的锁全部释放，不会出现交叉等待导致的死锁。
+     * 
+     * @param lockKeys 锁的key列表
+     * @param keyTemplate key模板，用于统计聚合
+     * @param waitTime 等待时间
+     * @param leaseTime 持有时间，小于等于0时使用看门狗自动续期
+     * @param timeUnit 时间单位
+     * @return 是否获取成功，key列表为空时直接返回 true
+     */
+    public boolean tryMultiLock(Collection<String> lockKeys, String keyTemplate, long waitTime, long leaseTime, TimeUnit timeUnit) {
+        List<String> fullKeys = sortLockKeys(lockKeys);
+        if (fullKeys.isEmpty()) {
+            return true;
+        }
+        String lockName = multiLockName(fullKeys);
+        long leaseMillis = leaseTime > 0 ? timeUnit.toMillis(leaseTime) : -1;
+        long start = System.nanoTime();
+        boolean acquired = false;
+        try {
+            acquired = getMultiLock(fullKeys).tryLock(timeUnit.toMillis(waitTime), leaseMillis, TimeUnit.MILLISECONDS);
+            if (acquired) {
+                log.debug("成功获取批量分布式锁: {}", lockName);
+            } else {
+                log.warn("获取批量分布式锁失败: {}", lockName);
+            }
+            return acquired;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("获取批量分布式锁被中断: {}", lockName, e);
+            return false;
+        } catch (Exception e) {
+            log.error("获取批量分布式锁异常: {}", lockName, e);
+            return false;
+        } finally {
+            if (acquired) {
+                lockMetrics.onAcquired(keyTemplate, lockName, System.nanoTime() - start);
+            } else {
+                lockMetrics.onFailed(keyTemplate, lockName, System.nanoTime() - start);
             }
         }
     }
     
+    /**
+     * 批量释放锁
+     * 
+     * @param lockKeys 锁的key列表，与加锁时一致
+     */
+    public void unlockMulti(Collection<String> lockKeys) {
+        List<String> fullKeys = sortLockKeys(lockKeys);
+        if (fullKeys.isEmpty()) {
+            return;
+        }
+        String lockName = multiLockName(fullKeys);
+        try {
+            getMultiLock(fullKeys).unlock();
+            log.debug("成功释放批量分布式锁: {}", lockName);
+        } catch (Exception e) {
+            log.error("释放批量分布式锁异常: {}", lockName, e);
+        } finally {
+            lockMetrics.onReleased(lockName);
+        }
+    }
+    
+    /**
+     * 执行带批量锁的业务逻辑
+     * 
+     * @param lockKeys 锁的key列表
+     * @param keyTemplate key模板，用于统计聚合
+     * @param waitTime 等待时间
+     * @param leaseTime 持有时间，小于等于0时使用看门狗自动续期
+     * @param timeUnit 时间单位
+     * @param business 业务逻辑
+     * @param <T> 返回类型
+     * @return 业务执行结果
+     * @throws Exception 业务异常或锁获取失败异常
+     */
+    public <T> T executeWithMultiLock(Collection<String> lockKeys, String keyTemplate, long waitTime, long leaseTime,
+                                     TimeUnit timeUnit, LockBusiness<T> business) throws Exception {
+        if (!tryMultiLock(lockKeys, keyTemplate, waitTime, leaseTime, timeUnit)) {
+            throw new LockAcquisitionException("获取批量分布式锁失败: " + keyTemplate);
+        }
+        try {
+            return business.execute();
+        } finally {
+            unlockMulti(lockKeys);
+        }
+    }
+    
+    /**
+     * 异步执行带锁的业务逻辑，等待锁期间不占用调用线程，获取锁后在默认异步执行器中调用 business
+     * 
+     * @param lockKey 锁的key
+     * @param waitTime 等待时间
+     * @param leaseTime 持有时间，小于等于0时使用看门狗自动续期
+     * @param timeUnit 时间单位
+     * @param lockType 锁类型
+     * @param business 异步业务逻辑，返回的 CompletionStage 完成后释放锁
+     * @param <T> 返回类型
+     * @return 业务结果，获取锁失败时以 LockAcquisitionException 异常完成
+     */
+    public <T> CompletableFuture<T> executeWithLockAsync(String lockKey, long waitTime, long leaseTime, TimeUnit timeUnit,
+                                                         LockType lockType, Supplier<? extends CompletionStage<T>> business) {
+        AsyncConfigurer configurer = asyncConfigurer.getIfAvailable();
+        Executor executor = configurer != null && configurer.getAsyncExecutor() != null
+                ? configurer.getAsyncExecutor() : ForkJoinPool.commonPool();
+        return executeWithLockAsync(lockKey, LockMetrics.DIRECT_TEMPLATE, waitTime, leaseTime, timeUnit, lockType, business, executor);
+    }
+    
+    /**
+     * 异步执行带锁的业务逻辑
+     * <p>
+     * 基于 RLockAsync，以独立的持有者标识代替线程id加锁与解锁，加锁与业务可以在任意线程完成；
+     * 异步锁不经过进程内锁。取消返回的 future（或对其使用 orTimeout 超时）时：
+     * 仍在等待锁则放弃等待，业务执行中则尝试取消业务 future，锁在业务结束后释放。
+     * 
+     * @param lockKey 锁的key
+     * @param keyTemplate key模板（未展开的key），用于统计聚合
+     * @param waitTime 等待时间
+     * @param leaseTime 持有时间，小于等于0时使用看门狗自动续期
+     * @param timeUnit 时间单位
+     * @param lockType 锁类型
+     * @param business 异步业务逻辑，返回的 CompletionStage 完成后释放锁
+     * @param executor 获取锁后调用 business 的线程池，避免在 Redisson 的 IO 线程上执行业务
+     * @param <T> 返回类型
+     * @return 业务结果，获取锁失败时以 LockAcquisitionException 异常完成
+     */
+    public <T> CompletableFuture<T> executeWithLockAsync(String lockKey, String keyTemplate, long waitTime, long leaseTime,
+                                                         TimeUnit timeUnit, LockType lockType,
+                                                         Supplier<? extends CompletionStage<T>> business, Executor executor) {
+        String fullKey = buildLockKey(lockKey);
+        RLock lock = getLock(fullKey, lockType);
+        long ownerId = nextAsyncOwnerId();
+        String traceId = TLogContext.getTraceId();
+        long leaseMillis = leaseTime > 0 ? timeUnit.toMillis(leaseTime) : -1;
+        long start = System.nanoTime();
+        
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<?>> running = new AtomicReference<>();
+        CompletableFuture<Boolean> acquiring = lock.tryLockAsync(timeUnit.toMillis(waitTime), leaseMillis, TimeUnit.MILLISECONDS, ownerId)
+                .toCompletableFuture();
+        running.set(acquiring);
+        // 调用方取消或超时：放弃等待锁，或取消执行中的业务
+        result.whenComplete((value, e) -> {
+            if (e != null) {
+                running.get().cancel(true);
+            }
+        });
+        
+        acquiring.whenComplete((acquired, e) -> {
+            if (e != null || !Boolean.TRUE.equals(acquired)) {
+                if (e instanceof CancellationException) {
+                    // 取消与加锁成功可能同时发生，尽力释放一次
+                    lock.unlockAsync(ownerId);
+                }
+                lockMetrics.onFailed(keyTemplate, fullKey, System.nanoTime() - start, traceId);
+                result.completeExceptionally(e != null && !(e instanceof CancellationException)
+                        ? new LockAcquisitionException("获取分布式锁异常: " + fullKey, e)
+                        : new LockAcquisitionException("获取分布式锁失败: " + fullKey));
+                return;
+            }
+            lockMetrics.onAcquired(keyTemplate, fullKey, System.nanoTime() - start, ownerId, "async-" + ownerId, traceId);
+            if (result.isDone()) {
+                // 等待期间已被取消
+                releaseAsync(lock, fullKey, ownerId);
+                return;
+            }
+            CompletableFuture<T> stage;
+            try {
+                stage = CompletableFuture.<CompletionStage<T>>supplyAsync(business::get, executor)
+                        .thenCompose(Function.identity());
+            } catch (RuntimeException rejected) {
+                // 执行器拒绝（已关闭或队列已满且拒绝策略抛出异常）：业务未开始，释放锁后以异常完成
+                releaseAsync(lock, fullKey, ownerId).whenComplete((released, unlockError) -> result.completeExceptionally(rejected));
+                return;
+            }
+            running.set(stage);
+            stage.whenComplete((value, error) -> releaseAsync(lock, fullKey, ownerId).whenComplete((released, unlockError) -> {
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            }));
+        });
+        return result;
+    }
+    
+    /**
+     * 异步释放锁，释放失败只记录日志
+     */
+    private CompletableFuture<Void> releaseAsync(RLock lock, String fullKey, long ownerId) {
+        lockMetrics.onReleased(fullKey, ownerId);
+        return lock.unlockAsync(ownerId).toCompletableFuture().handle((value, e) -> {
+            if (e != null) {
+                log.error("释放分布式锁异常: {}", fullKey, e);
+            } else {
+                log.debug("成功释放分布式锁: {}", fullKey);
+            }
+            return null;
+        });
+    }
+    
+    /**
+     * 异步锁持有者标识，取负数避免与线程id冲突
+     */
+    private static long nextAsyncOwnerId() {
+        return -ASYNC_OWNER_IDS.incrementAndGet();
+    }
+    
     /**
      * 获取读写锁的读锁
      * 
@@ -225,6 +522,139 @@ public boolean forceUnlock(String lockKey) {
         }
     }
     
+    /**
+     * 加锁并记录等待时间、失败次数
+     *
+     * @param fullKey 完整key
+     * @param keyTemplate key模板
+     * @param waitTime 等待时间
+     * @param leaseTime 持有时间，小于等于0时使用看门狗自动续期
+     * @param timeUnit 时间单位
+     * @param lockType 锁类型
+     * @return 是否获取成功
+     * @throws InterruptedException 等待被中断
+     */
+    private boolean acquire(String fullKey, String keyTemplate, long waitTime, long leaseTime, TimeUnit timeUnit, LockType lockType) throws InterruptedException {
+        long start = System.nanoTime();
+        boolean acquired = false;
+        try {
+            acquired = acquire(fullKey, waitTime, leaseTime, timeUnit, lockType);
+            return acquired;
+        } finally {
+            if (acquired) {
+                lockMetrics.onAcquired(keyTemplate, fullKey, System.nanoTime() - start);
+            } else {
+                lockMetrics.onFailed(keyTemplate, fullKey, System.nanoTime() - start);
+            }
+        }
+    }
+    
+    /**
+     * 两级加锁：先在本地排队，拿到本地锁后在剩余等待时间内竞争分布式锁
+     * 读锁之间不互斥，不经过本地锁
+     *
+     * @param fullKey 完整key
+     * @param waitTime 等待时间
+     * @param leaseTime 持有时间，小于等于0时使用看门狗自动续期
+     * @param timeUnit 时间单位
+     * @param lockType 锁类型
+     * @return 是否获取成功
+     * @throws InterruptedException 等待被中断
+     */
+    private boolean acquire(String fullKey, long waitTime, long leaseTime, TimeUnit timeUnit, LockType lockType) throws InterruptedException {
+        RLock lock = getLock(fullKey, lockType);
+        long leaseMillis = leaseTime > 0 ? timeUnit.toMillis(leaseTime) : -1;
+        if (!usesLocalLock(lockType)) {
+            return lock.tryLock(timeUnit.toMillis(waitTime), leaseMillis, TimeUnit.MILLISECONDS);
+        }
+        
+        long start = System.nanoTime();
+        if (!localLocks.tryLock(fullKey, waitTime, timeUnit, lockType == LockType.FAIR)) {
+            log.debug("本地排队等待分布式锁超时: {}", fullKey);
+            return false;
+        }
+        
+        boolean acquired = false;
+        try {
+            long remainingMillis = Math.max(0, timeUnit.toMillis(waitTime) - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            acquired = lock.tryLock(remainingMillis, leaseMillis, TimeUnit.MILLISECONDS);
+            return acquired;
+        } finally {
+            if (!acquired) {
+                localLocks.unlock(fullKey);
+            }
+        }
+    }
+    
+    /**
+     * 是否先经过本地锁排队，加锁与释放须使用同一判断
+     * 读锁之间不互斥，不经过本地锁
+     *
+     * @param lockType 锁类型
+     * @return 是否经过本地锁
+     */
+    private boolean usesLocalLock(LockType lockType) {
+        return lockType != LockType.READ && projectConfiguration.getLockProperties().isLocalLockEnabled();
+    }
+    
+    /**
+     * 按锁类型获取 Redisson 锁对象
+     *
+     * @param fullKey 完整key
+     * @param lockType 锁类型
+     * @return 锁对象
+     */
+    @SuppressWarnings("deprecation")
+    private RLock getLock(String fullKey, LockType lockType) {
+        return switch (lockType) {
+            case FAIR -> redissonClient.getFairLock(fullKey);
+            case READ -> redissonClient.getReadWriteLock(fullKey).readLock();
+            case WRITE -> redissonClient.getReadWriteLock(fullKey).writeLock();
+            case RED_LOCK -> new RedissonRedLock(redLockClients().stream()
+                    .map(client -> client.getLock(fullKey))
+                    .toArray(RLock[]::new));
+            default -> redissonClient.getLock(fullKey);
+        };
+    }
+    
+    /**
+     * 红锁使用的客户端
+     * 红锁的意义在于多数独立实例加锁成功，只有一个客户端时退化为普通锁，直接拒绝
+     *
+     * @return 全部 Redisson 客户端
+     * @throws IllegalStateException 独立客户端少于两个
+     */
+    private List<RedissonClient> redLockClients() {
+        List<RedissonClient> clients = redissonClients.orderedStream().toList();
+        if (clients.size() < 2) {
+            throw new IllegalStateException("RED_LOCK 需要至少两个独立 Redis 实例的 Redisson 客户端，当前为 " + clients.size() + " 个");
+        }
+        return clients;
+    }
+    
+    /**
+     * 批量锁的key：补全前缀、去重并排序
+     */
+    private List<String> sortLockKeys(Collection<String> lockKeys) {
+        if (lockKeys == null || lockKeys.isEmpty()) {
+            return List.of();
+        }
+        TreeSet<String> sorted = new TreeSet<>();
+        lockKeys.forEach(lockKey -> sorted.add(buildLockKey(lockKey)));
+        return new ArrayList<>(sorted);
+    }
+    
+    private RedissonMultiLock getMultiLock(List<String> fullKeys) {
+        return new RedissonMultiLock(fullKeys.stream().map(redissonClient::getLock).toArray(RLock[]::new));
+    }
+    
+    /**
+     * 批量锁在统计与日志中的名称
+     */
+    private static String multiLockName(List<String> fullKeys) {
+        return fullKeys.size() == 1 ? fullKeys.get(0) : fullKeys.get(0) + " 等" + fullKeys.size() + "个";
+    }
+    
     /**
      * 构建完整的锁key
      * 
@@ -0,0 +1,54 @@
+package com.haozi.common.lock;
+
+import java.lang.annotation.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis批量分布式锁注解
+ * 用于批量操作按实体加锁：集合中每个元素对应一把锁，按key排序后通过联锁一次性获取，
+ * 获取失败时已获取的锁全部释放，不会出现交叉等待导致的死锁
+ * 
+ * @author liliangyu
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RedisMultiLock {
+    
+    /**
+     * 每把锁的key前缀，与元素拼接成完整key，应与单个实体的 @RedisLock key 保持一致
+     * 例如：sys:user:role:
+     */
+    String prefix();
+    
+    /**
+     * 元素集合，SpEL表达式（不使用模板语法），结果可以是集合、数组或单个值
+     * 例如：#userIdList
+     */
+    String keys();
+    
+    /**
+     * 锁的等待时间，默认3秒
+     */
+    long waitTime() default 3;
+    
+    /**
+     * 锁的持有时间，默认10秒，仅在关闭自动续期时生效
+     */
+    long leaseTime() default 10;
+    
+    /**
+     * 时间单位，默认秒
+     */
+    TimeUnit timeUnit() default TimeUnit.SECONDS;
+    
+    /**
+     * 获取锁失败时的错误消息
+     */
+    String failMessage() default "系统繁忙，请稍后重试";
+    
+    /**
+     * 是否自动续期，默认开启
+     */
+    boolean autoRenew() default true;
+}
@@ -0,0 +1,82 @@
+package com.haozi.common.oss;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 分片缓冲池
+ * <p>
+ * 固定数量、固定大小的堆外缓冲区，按需创建后循环使用。缓冲区用完时 acquire 阻塞，
+ * 生成速度快于上传速度时由此反压，堆外内存占用不超过 分片大小 × 缓冲区数量。
+ *
+ * @author liliangyu
+ */
+public class OssBufferPool {
+
+    private final int bufferSize;
+    private final int capacity;
+    private final BlockingQueue<ByteBuffer> idle;
+    private final AtomicInteger created = new AtomicInteger();
+
+    /**
+     * @param bufferSize 单个缓冲区大小（分片大小）
+     * @param capacity   缓冲区数量
+     */
+    public OssBufferPool(int bufferSize, int capacity) {
+        this.bufferSize = bufferSize;
+        this.capacity = capacity;
+        this.idle = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * 获取一个已清空的缓冲区，全部在使用中时等待归还
+     *
+     * @return 缓冲区
+     * @throws InterruptedException 等待时被中断
+     */
+    public ByteBuffer acquire() throws InterruptedException {
+        ByteBuffer buffer = idle.poll();
+        if (buffer != null) {
+            return buffer;
+        }
+        while (true) {
+            int current = created.get();
+            if (current >= capacity) {
+                return idle.take();
+            }
+            if (created.compareAndSet(current, current + 1)) {
+                return ByteBuffer.allocateDirect(bufferSize);
+            }
+        }
+    }
+
+    /**
+     * 归还缓冲区
+     *
+     * @param buffer 缓冲区
+     */
+    public void release(ByteBuffer buffer) {
+        buffer.clear();
+        idle.offer(buffer);
+    }
+
+    /**
+     * 单个缓冲区大小
+     *
+     * @return 字节数
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * 空闲缓冲区数量（含尚未创建的）
+     *
+     * @return 数量
+     */
+    public int getAvailable() {
+        return idle.size() + capacity - created.get();
+    }
+}
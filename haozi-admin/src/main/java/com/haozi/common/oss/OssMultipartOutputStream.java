@@ -0,0 +1,269 @@
+package com.haozi.common.oss;
+
+import com.aliyun.oss.OSS;
+import com.aliyun.oss.model.AbortMultipartUploadRequest;
+import com.aliyun.oss.model.CompleteMultipartUploadRequest;
+import com.aliyun.oss.model.InitiateMultipartUploadRequest;
+import com.aliyun.oss.model.PartETag;
+import com.aliyun.oss.model.UploadPartRequest;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * 直接写入 OSS 的输出流
+ * <p>
+ * 数据写入池化的堆外缓冲区，每满一个分片就在上传线程池中异步上传，同时继续生成下一个分片；
+ * 关闭时上传最后一个分片并合并。总大小不足一个分片时直接 putObject，不走分片上传。
+ * 写入过程中出错时调用 {@link #abort()} 取消分片上传，已上传的分片不会留在 OSS。
+ * 非线程安全，同一时间只能由一个线程写入。
+ *
+ * @author liliangyu
+ */
+@Slf4j
+public class OssMultipartOutputStream extends OutputStream {
+
+    private final OSS client;
+    private final String bucketName;
+    private final String key;
+    private final OssBufferPool bufferPool;
+    private final Executor executor;
+    private final OssUploadMetrics metrics;
+
+    private final List<CompletableFuture<PartETag>> parts = new ArrayList<>();
+    private ByteBuffer current;
+    private String uploadId;
+    private long size;
+    private boolean closed;
+
+    /**
+     * @param client     OSS 客户端
+     * @param bucketName bucket 名称
+     * @param key        对象路径
+     * @param bufferPool 分片缓冲池
+     * @param executor   分片上传线程池
+     * @param metrics    上传统计
+     */
+    public OssMultipartOutputStream(OSS client, String bucketName, String key, OssBufferPool bufferPool, Executor executor,
+                                    OssUploadMetrics metrics) {
+        this.client = client;
+        this.bucketName = bucketName;
+        this.key = key;
+        this.bufferPool = bufferPool;
+        this.executor = executor;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureBuffer().put((byte) b);
+        size++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            ByteBuffer buffer = ensureBuffer();
+            int n = Math.min(len, buffer.remaining());
+            buffer.put(b, off, n);
+            off += n;
+            len -= n;
+            size += n;
+        }
+    }
+
+    /**
+     * 当前缓冲区已满时提交上传并换一个缓冲区
+     */
+    private ByteBuffer ensureBuffer() throws IOException {
+        if (closed) {
+            throw new IOException("输出流已关闭");
+        }
+        if (current != null && !current.hasRemaining()) {
+            submitPart(current);
+            current = null;
+        }
+        if (current == null) {
+            try {
+                current = bufferPool.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("等待上传缓冲区时被中断");
+            }
+        }
+        return current;
+    }
+
+    private void submitPart(ByteBuffer buffer) {
+        if (uploadId == null) {
+            uploadId = client.initiateMultipartUpload(new InitiateMultipartUploadRequest(bucketName, key)).getUploadId();
+        }
+        int partNumber = parts.size() + 1;
+        buffer.flip();
+        int partSize = buffer.remaining();
+        parts.add(CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            boolean success = false;
+            try {
+                UploadPartRequest request = new UploadPartRequest();
+                request.setBucketName(bucketName);
+                request.setKey(key);
+                request.setUploadId(uploadId);
+                request.setPartNumber(partNumber);
+                request.setPartSize(partSize);
+                request.setInputStream(new ByteBufferInputStream(buffer));
+                PartETag partETag = client.uploadPart(request).getPartETag();
+                success = true;
+                return partETag;
+            } finally {
+                metrics.record("part", partSize, System.nanoTime() - start, success);
+                bufferPool.release(buffer);
+            }
+        }, executor));
+    }
+
+    /**
+     * 上传剩余数据并合并分片
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (uploadId == null) {
+                // 不足一个分片，直接上传
+                ByteBuffer buffer = current != null ? current : ByteBuffer.allocate(0);
+                buffer.flip();
+                long start = System.nanoTime();
+                boolean success = false;
+                try {
+                    client.putObject(bucketName, key, new ByteBufferInputStream(buffer));
+                    success = true;
+                } finally {
+                    metrics.record("put", size, System.nanoTime() - start, success);
+                    if (current != null) {
+                        bufferPool.release(current);
+                    }
+                }
+            } else {
+                if (current != null && current.position() > 0) {
+                    submitPart(current);
+                } else if (current != null) {
+                    bufferPool.release(current);
+                }
+                List<PartETag> partETags = new ArrayList<>(parts.size());
+                for (CompletableFuture<PartETag> part : parts) {
+                    partETags.add(part.join());
+                }
+                partETags.sort(Comparator.comparingInt(PartETag::getPartNumber));
+                client.completeMultipartUpload(new CompleteMultipartUploadRequest(bucketName, key, uploadId, partETags));
+            }
+            current = null;
+            log.debug("OSS 上传完成: {}, {} 字节, {} 个分片", key, size, parts.size());
+        } catch (CompletionException e) {
+            abortUpload();
+            throw new IOException("上传分片失败: " + key, e.getCause());
+        } catch (RuntimeException e) {
+            abortUpload();
+            throw new IOException("上传文件失败: " + key, e);
+        }
+    }
+
+    /**
+     * 放弃上传，取消已开始的分片上传并归还缓冲区
+     */
+    public void abort() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (current != null) {
+            bufferPool.release(current);
+            current = null;
+        }
+        abortUpload();
+    }
+
+    private void abortUpload() {
+        // 等待已提交的分片结束，缓冲区归还后再取消
+        parts.forEach(part -> part.handle((eTag, e) -> null).join());
+        if (uploadId == null) {
+            return;
+        }
+        try {
+            client.abortMultipartUpload(new AbortMultipartUploadRequest(bucketName, key, uploadId));
+        } catch (Exception e) {
+            log.warn("取消分片上传失败: {}, uploadId={}", key, uploadId, e);
+        }
+    }
+
+    /**
+     * 已写入的字节数
+     *
+     * @return 字节数
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * 读取 ByteBuffer 剩余内容的输入流
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+
+        /**
+         * 支持 mark/reset，SDK 重试时可重新读取分片
+         */
+        @Override
+        public boolean markSupported() {
+            return true;
+        }
+
+        @Override
+        public synchronized void mark(int readLimit) {
+            buffer.mark();
+        }
+
+        @Override
+        public synchronized void reset() {
+            buffer.reset();
+        }
+    }
+}
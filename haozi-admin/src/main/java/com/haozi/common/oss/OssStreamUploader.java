@@ -0,0 +1,59 @@
+package com.haozi.common.oss;
+
+import com.aliyun.oss.OSS;
+import com.haozi.common.config.ProjectConfiguration;
+import com.haozi.common.executor.ContextTaskDecorator;
+import com.haozi.common.executor.ExecutorRegistry;
+import com.haozi.common.executor.ResizableThreadPoolTaskExecutor;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * OSS 流式上传
+ * 持有全局共享的分片缓冲池与分片上传线程池，为每次上传创建 OssMultipartOutputStream
+ *
+ * @author liliangyu
+ */
+@Component
+public class OssStreamUploader {
+
+    private final OSS ossClient;
+    private final OssUploadMetrics ossUploadMetrics;
+    private final OssBufferPool bufferPool;
+    private final ResizableThreadPoolTaskExecutor executor = new ResizableThreadPoolTaskExecutor();
+
+    public OssStreamUploader(OSS ossClient, OssUploadMetrics ossUploadMetrics, ProjectConfiguration projectConfiguration,
+                             ExecutorRegistry executorRegistry) {
+        this.ossClient = ossClient;
+        this.ossUploadMetrics = ossUploadMetrics;
+        ProjectConfiguration.AliyunOssProperties properties = projectConfiguration.getAliyunOssProperties();
+        this.bufferPool = new OssBufferPool(properties.getPartSize(), properties.getPartBufferCount());
+        executor.setCorePoolSize(properties.getPartUploadConcurrency());
+        executor.setMaxPoolSize(properties.getPartUploadConcurrency());
+        // 在途分片数已由缓冲区数量限制，队列只需容纳这些分片
+        executor.setQueueCapacity(properties.getPartBufferCount());
+        executor.setThreadNamePrefix("oss-upload-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executorRegistry.register("oss-upload", executor, new ThreadPoolExecutor.CallerRunsPolicy(), new ContextTaskDecorator());
+        executor.initialize();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    /**
+     * 打开直接写入 OSS 的输出流
+     *
+     * @param bucketName bucket 名称
+     * @param key        对象路径
+     * @return 输出流，写完后 close 完成上传，出错时 abort
+     */
+    public OssMultipartOutputStream open(String bucketName, String key) {
+        return new OssMultipartOutputStream(ossClient, bucketName, key, bufferPool, executor, ossUploadMetrics);
+    }
+}
@@ -0,0 +1,51 @@
+package com.haozi.common.oss;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OSS 上传统计
+ * <p>
+ * oss.upload 记录每次请求耗时（按 type、result 区分），oss.upload.bytes 记录上传字节数，
+ * 吞吐量由 oss.upload.bytes 的 total 随时间的增量得到。
+ * type：put 为普通上传，part 为分片上传中的单个分片。
+ *
+ * @author liliangyu
+ */
+@Component
+@RequiredArgsConstructor
+public class OssUploadMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 记录一次上传
+     *
+     * @param type    上传类型
+     * @param bytes   字节数，未知时传 -1
+     * @param nanos   耗时(纳秒)
+     * @param success 是否成功
+     */
+    public void record(String type, long bytes, long nanos, boolean success) {
+        Timer.builder("oss.upload")
+                .description("OSS 上传耗时")
+                .tag("type", type)
+                .tag("result", success ? "success" : "failed")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        if (success && bytes >= 0) {
+            DistributionSummary.builder("oss.upload.bytes")
+                    .description("OSS 上传字节数")
+                    .baseUnit("bytes")
+                    .tag("type", type)
+                    .register(meterRegistry)
+                    .record(bytes);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.haozi.common.redis;
+
+import org.springframework.data.redis.connection.DefaultedRedisConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Redis 连接代理
+ * <p>
+ * 拦截 RedisConnection 以及其 xxxCommands() 返回的命令对象，记录命令耗时、key 前缀与字节数。
+ * 基于 JDK 动态代理，每次调用都会分配参数数组并通过反射调用目标方法，这部分开销与命令的网络往返相比可以忽略；
+ * 不产生额外对象的只有 RedisCommandMetrics 中按 key 字节查找前缀的部分。
+ *
+ * @author liliangyu
+ */
+final class InstrumentedRedisConnectionHandler implements InvocationHandler {
+
+    /**
+     * 命令方法缓存：方法 -> 是否为需要统计的命令
+     */
+    private static final Map<Method, Boolean> COMMAND_METHODS = new ConcurrentHashMap<>(256);
+    /**
+     * 代理接口缓存
+     */
+    private static final Map<Class<?>, Class<?>[]> INTERFACES = new ConcurrentHashMap<>(16);
+    private static final String CONNECTION_PACKAGE = "org.springframework.data.redis.connection.";
+
+    private final Object target;
+    private final RedisConnection connection;
+    private final RedisCommandMetrics metrics;
+    /**
+     * 当前连接下已代理的命令对象，避免每次 xxxCommands() 都创建代理
+     */
+    private Map<Object, Object> commandProxies;
+
+    private InstrumentedRedisConnectionHandler(final Object target, final RedisConnection connection,
+                                               final RedisCommandMetrics metrics) {
+        this.target = target;
+        this.connection = connection;
+        this.metrics = metrics;
+    }
+
+    /**
+     * 包装连接
+     *
+     * @param connection 原始连接
+     * @param metrics    统计
+     * @return 代理连接
+     */
+    static RedisConnection wrap(final RedisConnection connection, final RedisCommandMetrics metrics) {
+        return (RedisConnection) newProxy(connection, new InstrumentedRedisConnectionHandler(connection, connection, metrics));
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        if (isCommandsAccessor(method)) {
+            final Object commands = invokeTarget(method, args);
+            return commands == null ? null : commandsProxy(proxy, commands);
+        }
+        if (!isCommand(method)) {
+            return invokeTarget(method, args);
+        }
+        // 管道和事务中命令只是排队，耗时在 closePipeline/exec 时体现
+        final boolean queued = connection.isPipelined() || connection.isQueueing();
+        final long start = System.nanoTime();
+        Object result = null;
+        boolean error = false;
+        try {
+            result = invokeTarget(method, args);
+            return result;
+        } catch (Throwable e) {
+            error = true;
+            throw e;
+        } finally {
+            metrics.record(method.getName(), firstKey(args), queued ? -1 : System.nanoTime() - start,
+                    sizeOf(args), sizeOf(result), error);
+        }
+    }
+
+    private Object invokeTarget(final Method method, final Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * 命令对象代理，RedissonConnection 等实现直接返回自身，此时复用当前代理
+     */
+    private Object commandsProxy(final Object proxy, final Object commands) {
+        if (commands == target || commands == connection) {
+            return proxy;
+        }
+        if (commandProxies == null) {
+            commandProxies = new IdentityHashMap<>(8);
+        }
+        return commandProxies.computeIfAbsent(commands,
+                c -> newProxy(c, new InstrumentedRedisConnectionHandler(c, connection, metrics)));
+    }
+
+    private static Object newProxy(final Object target, final InvocationHandler handler) {
+        final Class<?>[] interfaces = INTERFACES.computeIfAbsent(target.getClass(),
+                type -> ClassUtils.getAllInterfacesForClass(type, type.getClassLoader()));
+        return Proxy.newProxyInstance(target.getClass().getClassLoader(), interfaces, handler);
+    }
+
+    /**
+     * keyCommands()、stringCommands() 等返回命令对象的方法
+     */
+    private static boolean isCommandsAccessor(final Method method) {
+        return method.getParameterCount() == 0
+                && method.getReturnType().isInterface()
+                && method.getName().endsWith("Commands")
+                && method.getReturnType().getName().startsWith(CONNECTION_PACKAGE);
+    }
+
+    /**
+     * 声明在 RedisXxxCommands 或 DefaultedRedisConnection 上的方法视为命令
+     */
+    private static boolean isCommand(final Method method) {
+        return COMMAND_METHODS.computeIfAbsent(method, m -> {
+            final Class<?> declaring = m.getDeclaringClass();
+            if (declaring == DefaultedRedisConnection.class) {
+                return true;
+            }
+            final String name = declaring.getName();
+            return name.startsWith(CONNECTION_PACKAGE)
+                    && declaring.getSimpleName().startsWith("Redis")
+                    && declaring.getSimpleName().endsWith("Commands");
+        });
+    }
+
+    private static byte[] firstKey(final Object[] args) {
+        if (args == null || args.length == 0) {
+            return null;
+        }
+        final Object first = args[0];
+        if (first instanceof byte[] key) {
+            return key;
+        }
+        if (first instanceof byte[][] keys && keys.length > 0) {
+            return keys[0];
+        }
+        return null;
+    }
+
+    private static long sizeOf(final Object[] args) {
+        if (args == null) {
+            return 0;
+        }
+        long size = 0;
+        for (final Object arg : args) {
+            size += sizeOf(arg);
+        }
+        return size;
+    }
+
+    private static long sizeOf(final Object value) {
+        if (value instanceof byte[] bytes) {
+            return bytes.length;
+        }
+        if (value instanceof byte[][] array) {
+            long size = 0;
+            for (final byte[] bytes : array) {
+                size += bytes == null ? 0 : bytes.length;
+            }
+            return size;
+        }
+        if (value instanceof Collection<?> collection) {
+            long size = 0;
+            for (final Object element : collection) {
+                if (element instanceof byte[] bytes) {
+                    size += bytes.length;
+                }
+            }
+            return size;
+        }
+        if (value instanceof Map<?, ?> map) {
+            long size = 0;
+            for (final Map.Entry<?, ?> entry : map.entrySet()) {
+                size += sizeOf(entry.getKey()) + sizeOf(entry.getValue());
+            }
+            return size;
+        }
+        return 0;
+    }
+}
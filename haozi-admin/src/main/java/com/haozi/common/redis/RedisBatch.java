@@ -0,0 +1,238 @@
+package com.haozi.common.redis;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Redis 批量操作
+ * <p>
+ * 收集一组 get/set/delete/list 操作，在 {@link #execute()} 时通过一次管道往返全部发送，
+ * 每个读操作返回一个 {@link Response}，执行后可取得带类型的结果。
+ * 实例非线程安全，用完即弃，通过 {@link RedisBatchTemplate#batch()} 创建。
+ *
+ * @author liliangyu
+ */
+public final class RedisBatch {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final List<Operation> operations = new ArrayList<>();
+    private boolean executed;
+
+    RedisBatch(final RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    /**
+     * GET
+     *
+     * @param key key
+     * @param <T> 值类型
+     * @return 结果句柄
+     */
+    public <T> Response<T> get(final String key) {
+        final Response<T> response = new Response<>();
+        add(1, connection -> connection.stringCommands().get(rawKey(key)), results -> response.set(cast(results.get(0))));
+        return response;
+    }
+
+    /**
+     * SET
+     *
+     * @param key   key
+     * @param value 值
+     * @return 当前批次
+     */
+    public RedisBatch set(final String key, final Object value) {
+        add(1, connection -> connection.stringCommands().set(rawKey(key), rawValue(value)), null);
+        return this;
+    }
+
+    /**
+     * SET 并设置过期时间
+     *
+     * @param key   key
+     * @param value 值
+     * @param ttl   过期时间
+     * @return 当前批次
+     */
+    public RedisBatch set(final String key, final Object value, final Duration ttl) {
+        add(1, connection -> connection.stringCommands().set(rawKey(key), rawValue(value),
+                Expiration.from(ttl), RedisStringCommands.SetOption.upsert()), null);
+        return this;
+    }
+
+    /**
+     * DEL
+     *
+     * @param keys key 列表
+     * @return 当前批次
+     */
+    public RedisBatch delete(final Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return this;
+        }
+        final byte[][] rawKeys = keys.stream().map(this::rawKey).toArray(byte[][]::new);
+        add(1, connection -> connection.keyCommands().del(rawKeys), null);
+        return this;
+    }
+
+    /**
+     * DEL
+     *
+     * @param key key
+     * @return 当前批次
+     */
+    public RedisBatch delete(final String key) {
+        add(1, connection -> connection.keyCommands().del(rawKey(key)), null);
+        return this;
+    }
+
+    /**
+     * LRANGE key 0 -1
+     *
+     * @param key key
+     * @param <T> 元素类型
+     * @return 结果句柄，key 不存在时为空列表
+     */
+    public <T> Response<List<T>> range(final String key) {
+        final Response<List<T>> response = new Response<>();
+        add(1, connection -> connection.listCommands().lRange(rawKey(key), 0, -1), results -> {
+            final List<T> list = cast(results.get(0));
+            response.set(list == null ? new ArrayList<>() : list);
+        });
+        return response;
+    }
+
+    /**
+     * 用新列表整体替换（DEL + LPUSH），与 opsForList().leftPushAll 的顺序保持一致
+     *
+     * @param key    key
+     * @param values 新列表，为空时仅删除
+     * @return 当前批次
+     */
+    public RedisBatch replaceList(final String key, final Collection<?> values) {
+        delete(key);
+        if (values != null && !values.isEmpty()) {
+            final byte[][] rawValues = values.stream().map(this::rawValue).toArray(byte[][]::new);
+            add(1, connection -> connection.listCommands().lPush(rawKey(key), rawValues), null);
+        }
+        return this;
+    }
+
+    /**
+     * 当前批次中的命令数量
+     *
+     * @return 命令数量
+     */
+    public int size() {
+        return operations.stream().mapToInt(Operation::commandCount).sum();
+    }
+
+    /**
+     * 一次管道往返执行全部操作，并填充各结果句柄
+     */
+    public void execute() {
+        if (executed) {
+            throw new IllegalStateException("RedisBatch 只能执行一次");
+        }
+        executed = true;
+        if (operations.isEmpty()) {
+            return;
+        }
+        // executePipelined 会用模板的 value 序列化器反序列化结果
+        final List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (final Operation operation : operations) {
+                operation.command.apply(connection);
+            }
+            return null;
+        });
+        int offset = 0;
+        for (final Operation operation : operations) {
+            if (operation.callback != null) {
+                operation.callback.apply(results.subList(offset, offset + operation.commandCount));
+            }
+            offset += operation.commandCount;
+        }
+    }
+
+    private void add(final int commandCount, final Function<RedisConnection, Object> command,
+                     final ResultCallback callback) {
+        if (executed) {
+            throw new IllegalStateException("RedisBatch 已执行，不能再添加操作");
+        }
+        operations.add(new Operation(commandCount, command, callback));
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] rawKey(final String key) {
+        return ((RedisSerializer<String>) redisTemplate.getKeySerializer()).serialize(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    private byte[] rawValue(final Object value) {
+        return ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(final Object value) {
+        return (T) value;
+    }
+
+    /**
+     * 结果回调
+     */
+    @FunctionalInterface
+    private interface ResultCallback {
+        /**
+         * 处理该操作对应的结果
+         *
+         * @param results 结果
+         * @return 忽略
+         */
+        Object apply(List<Object> results);
+    }
+
+    /**
+     * 单个操作
+     */
+    private record Operation(int commandCount, Function<RedisConnection, Object> command, ResultCallback callback) {
+    }
+
+    /**
+     * 批量操作结果句柄
+     *
+     * @param <T> 结果类型
+     */
+    public static final class Response<T> {
+        private T value;
+        private boolean done;
+
+        private Object set(final T value) {
+            this.value = value;
+            this.done = true;
+            return null;
+        }
+
+        /**
+         * 获取结果，必须在 {@link RedisBatch#execute()} 之后调用
+         *
+         * @return 结果
+         */
+        public T get() {
+            if (!done) {
+                throw new IllegalStateException("RedisBatch 尚未执行");
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.haozi.common.redis;
+
+import cn.hutool.core.collection.CollUtil;
+import jakarta.annotation.Resource;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Redis 批量访问门面
+ * <p>
+ * 在现有 RedisTemplate 之上提供 MGET/MSET 与管道批量操作，
+ * 把多次串行往返合并为一次。
+ *
+ * @author liliangyu
+ */
+@Component
+public class RedisBatchTemplate {
+
+    /**
+     * 单次 MSET/DEL 的最大 key 数量，避免单条命令过大阻塞 Redis
+     */
+    private static final int MAX_KEYS_PER_COMMAND = 500;
+
+    @Resource
+    private RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * 创建一个管道批次
+     *
+     * @return 批次
+     */
+    public RedisBatch batch() {
+        return new RedisBatch(redisTemplate);
+    }
+
+    /**
+     * MGET，一次往返读取多个 key
+     *
+     * @param keys key 列表
+     * @param <V>  值类型
+     * @return key -> 值，不存在的 key 不放入结果
+     */
+    @SuppressWarnings("unchecked")
+    public <V> Map<String, V> multiGet(final Collection<String> keys) {
+        if (CollUtil.isEmpty(keys)) {
+            return new HashMap<>(0);
+        }
+        final List<String> keyList = new ArrayList<>(keys);
+        final List<Object> values = redisTemplate.opsForValue().multiGet(keyList);
+        final Map<String, V> result = new LinkedHashMap<>(keyList.size());
+        if (values == null) {
+            return result;
+        }
+        for (int i = 0; i < keyList.size(); i++) {
+            final Object value = values.get(i);
+            if (value != null) {
+                result.put(keyList.get(i), (V) value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * MSET，一次往返写入多个 key（按 {@value #MAX_KEYS_PER_COMMAND} 个一组拆分）
+     *
+     * @param values key -> 值
+     */
+    public void multiSet(final Map<String, ?> values) {
+        if (CollUtil.isEmpty(values)) {
+            return;
+        }
+        Map<String, Object> chunk = new LinkedHashMap<>();
+        for (final Map.Entry<String, ?> entry : values.entrySet()) {
+            chunk.put(entry.getKey(), entry.getValue());
+            if (chunk.size() >= MAX_KEYS_PER_COMMAND) {
+                redisTemplate.opsForValue().multiSet(chunk);
+                chunk = new LinkedHashMap<>();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            redisTemplate.opsForValue().multiSet(chunk);
+        }
+    }
+
+    /**
+     * 按模式删除（SCAN + 批量 DEL），不使用阻塞的 KEYS 命令
+     *
+     * @param pattern 匹配模式，例如 sys:config:*
+     * @return 删除的 key 数量
+     */
+    public long deleteByPattern(final String pattern) {
+        final ScanOptions options = ScanOptions.scanOptions().match(pattern).count(MAX_KEYS_PER_COMMAND).build();
+        final List<String> chunk = new ArrayList<>(MAX_KEYS_PER_COMMAND);
+        long deleted = 0;
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                chunk.add(cursor.next());
+                if (chunk.size() >= MAX_KEYS_PER_COMMAND) {
+                    deleted += delete(chunk);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            deleted += delete(chunk);
+        }
+        return deleted;
+    }
+
+    private long delete(final List<String> keys) {
+        final Long count = redisTemplate.delete(keys);
+        return count == null ? 0 : count;
+    }
+}
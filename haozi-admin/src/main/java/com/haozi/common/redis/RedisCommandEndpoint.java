@@ -0,0 +1,34 @@
+package com.haozi.common.redis;
+
+import com.haozi.modules.monitor.vo.RedisCommandStat;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Redis 客户端命令统计 actuator 端点（/actuator/redis-commands）
+ * <p>
+ * 原始指标同时以 redis.client.* 名称注册到 MeterRegistry。
+ *
+ * @author liliangyu
+ */
+@Component
+@Endpoint(id = "redis-commands")
+@RequiredArgsConstructor
+public class RedisCommandEndpoint {
+
+    private final RedisCommandMetrics redisCommandMetrics;
+
+    /**
+     * 按前缀统计
+     *
+     * @return 统计列表
+     */
+    @ReadOperation
+    public List<RedisCommandStat> commands() {
+        return redisCommandMetrics.snapshot();
+    }
+}
@@ -0,0 +1,345 @@
+package com.haozi.common.redis;
+
+import com.haozi.common.config.ProjectConfiguration;
+import com.haozi.modules.monitor.vo.RedisCommandStat;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Redis 客户端命令统计
+ * <p>
+ * 按 key 前缀记录命令次数、延迟直方图(HdrHistogram)、请求/响应字节数，并采样调用位置。
+ * 前缀通过开放寻址表直接按 key 字节查找，已出现过的前缀在查找时不产生额外对象；
+ * 连接代理本身的参数数组与反射调用仍有分配，见 InstrumentedRedisConnectionHandler。
+ *
+ * @author liliangyu
+ */
+@Component
+@RequiredArgsConstructor
+public class RedisCommandMetrics {
+
+    /**
+     * 没有 key 的命令（如 INFO、DBSIZE）归入此前缀
+     */
+    private static final String NO_KEY_PREFIX = "-";
+    /**
+     * 不含冒号的 key 统一归入此前缀，避免每个 key 各占一个前缀
+     */
+    private static final String NO_COLON_PREFIX = "*";
+    /**
+     * 超出最大前缀数量后归入此前缀
+     */
+    private static final String OVERFLOW_PREFIX = "other";
+    /**
+     * 每个前缀最多记录的调用位置数量
+     */
+    private static final int MAX_CALL_SITES = 20;
+    /**
+     * 调用位置过滤：只记录业务代码
+     */
+    private static final String APP_PACKAGE = "com.haozi.";
+    private static final String SELF_PACKAGE = "com.haozi.common.redis.";
+
+    private final MeterRegistry meterRegistry;
+    private final ProjectConfiguration projectConfiguration;
+
+    /**
+     * 前缀表，容量为最大前缀数的 2 倍（2 的幂）
+     */
+    private volatile AtomicReferenceArray<PrefixMetrics> table;
+    private final AtomicInteger size = new AtomicInteger();
+    private volatile PrefixMetrics noKeyMetrics;
+    private volatile PrefixMetrics noColonMetrics;
+    private volatile PrefixMetrics overflowMetrics;
+
+    /**
+     * 记录一次命令
+     *
+     * @param command       命令名称（方法名，常量字符串）
+     * @param key           命令的首个 key，可为 null
+     * @param elapsedNanos  耗时(纳秒)，小于 0 表示不记录延迟（管道/事务内排队的命令）
+     * @param requestBytes  请求字节数
+     * @param responseBytes 响应字节数
+     * @param error         是否失败
+     */
+    public void record(final String command, final byte[] key, final long elapsedNanos,
+                       final long requestBytes, final long responseBytes, final boolean error) {
+        final PrefixMetrics metrics = key == null ? noKey() : lookup(key);
+        if (elapsedNanos >= 0) {
+            metrics.timer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        }
+        metrics.requestBytes.record(requestBytes);
+        metrics.responseBytes.record(responseBytes);
+        metrics.command(command).increment();
+        if (error) {
+            metrics.errors.increment();
+        }
+        final int interval = projectConfiguration.getRedisMetricsProperties().getCallSiteSampleInterval();
+        if (interval > 0 && ThreadLocalRandom.current().nextInt(interval) == 0) {
+            metrics.sampleCallSite();
+        }
+    }
+
+    /**
+     * 获取所有前缀的统计快照，按累计耗时降序
+     *
+     * @return 统计列表
+     */
+    public List<RedisCommandStat> snapshot() {
+        final List<RedisCommandStat> result = new ArrayList<>();
+        final AtomicReferenceArray<PrefixMetrics> current = table;
+        if (current != null) {
+            for (int i = 0; i < current.length(); i++) {
+                final PrefixMetrics metrics = current.get(i);
+                if (metrics != null) {
+                    result.add(metrics.toStat());
+                }
+            }
+        }
+        if (noKeyMetrics != null) {
+            result.add(noKeyMetrics.toStat());
+        }
+        if (noColonMetrics != null) {
+            result.add(noColonMetrics.toStat());
+        }
+        if (overflowMetrics != null) {
+            result.add(overflowMetrics.toStat());
+        }
+        result.sort(Comparator.comparingDouble(RedisCommandStat::getTotalTimeMs).reversed());
+        return result;
+    }
+
+    /**
+     * 按 key 字节查找前缀统计，命中时不分配对象
+     */
+    private PrefixMetrics lookup(final byte[] key) {
+        final ProjectConfiguration.RedisMetricsProperties properties = projectConfiguration.getRedisMetricsProperties();
+        final int prefixLength = prefixLength(key, properties.getPrefixDepth());
+        if (prefixLength == 0) {
+            return noColon();
+        }
+        final int hash = hash(key, prefixLength);
+        final AtomicReferenceArray<PrefixMetrics> slots = table(properties.getMaxPrefixes());
+        final int mask = slots.length() - 1;
+        int index = hash & mask;
+        for (int probe = 0; probe < slots.length(); probe++) {
+            PrefixMetrics metrics = slots.get(index);
+            if (metrics == null) {
+                if (size.get() >= properties.getMaxPrefixes()) {
+                    return overflow();
+                }
+                final PrefixMetrics created = new PrefixMetrics(Arrays.copyOf(key, prefixLength), hash,
+                        prefixName(key, prefixLength));
+                if (slots.compareAndSet(index, null, created)) {
+                    size.incrementAndGet();
+                    return created;
+                }
+                metrics = slots.get(index);
+            }
+            if (metrics.matches(key, prefixLength, hash)) {
+                return metrics;
+            }
+            index = (index + 1) & mask;
+        }
+        return overflow();
+    }
+
+    private AtomicReferenceArray<PrefixMetrics> table(final int maxPrefixes) {
+        AtomicReferenceArray<PrefixMetrics> current = table;
+        if (current == null) {
+            synchronized (this) {
+                current = table;
+                if (current == null) {
+                    int capacity = 16;
+                    while (capacity < maxPrefixes * 2) {
+                        capacity <<= 1;
+                    }
+                    current = new AtomicReferenceArray<>(capacity);
+                    table = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private PrefixMetrics noKey() {
+        PrefixMetrics metrics = noKeyMetrics;
+        if (metrics == null) {
+            synchronized (this) {
+                if (noKeyMetrics == null) {
+                    noKeyMetrics = new PrefixMetrics(new byte[0], 0, NO_KEY_PREFIX);
+                }
+                metrics = noKeyMetrics;
+            }
+        }
+        return metrics;
+    }
+
+    private PrefixMetrics noColon() {
+        PrefixMetrics metrics = noColonMetrics;
+        if (metrics == null) {
+            synchronized (this) {
+                if (noColonMetrics == null) {
+                    noColonMetrics = new PrefixMetrics(new byte[0], 0, NO_COLON_PREFIX);
+                }
+                metrics = noColonMetrics;
+            }
+        }
+        return metrics;
+    }
+
+    private PrefixMetrics overflow() {
+        PrefixMetrics metrics = overflowMetrics;
+        if (metrics == null) {
+            synchronized (this) {
+                if (overflowMetrics == null) {
+                    overflowMetrics = new PrefixMetrics(new byte[0], 0, OVERFLOW_PREFIX);
+                }
+                metrics = overflowMetrics;
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * 前缀长度：截取到第 depth 个冒号（含），没有冒号时返回 0
+     */
+    private static int prefixLength(final byte[] key, final int depth) {
+        int found = 0;
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] == ':' && ++found == depth) {
+                return i + 1;
+            }
+        }
+        if (found == 0) {
+            return 0;
+        }
+        // 冒号不足 depth 个时截取到最后一个冒号
+        for (int i = key.length - 1; i >= 0; i--) {
+            if (key[i] == ':') {
+                return i + 1;
+            }
+        }
+        return key.length;
+    }
+
+    private static int hash(final byte[] key, final int length) {
+        int hash = 1;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + key[i];
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static String prefixName(final byte[] key, final int prefixLength) {
+        final String prefix = new String(key, 0, prefixLength, StandardCharsets.UTF_8);
+        return prefixLength < key.length || prefix.endsWith(":") ? prefix + "*" : prefix;
+    }
+
+    /**
+     * 单个前缀的统计
+     */
+    private final class PrefixMetrics {
+        private final byte[] raw;
+        private final int hash;
+        private final String prefix;
+        private final Timer timer;
+        private final DistributionSummary requestBytes;
+        private final DistributionSummary responseBytes;
+        private final LongAdder errors = new LongAdder();
+        private final ConcurrentHashMap<String, LongAdder> commands = new ConcurrentHashMap<>(16);
+        private final ConcurrentHashMap<String, LongAdder> callSites = new ConcurrentHashMap<>(16);
+
+        private PrefixMetrics(final byte[] raw, final int hash, final String prefix) {
+            this.raw = raw;
+            this.hash = hash;
+            this.prefix = prefix;
+            this.timer = Timer.builder("redis.client.commands")
+                    .description("Redis 客户端命令耗时")
+                    .tag("prefix", prefix)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry);
+            this.requestBytes = DistributionSummary.builder("redis.client.request.bytes")
+                    .baseUnit("bytes")
+                    .tag("prefix", prefix)
+                    .register(meterRegistry);
+            this.responseBytes = DistributionSummary.builder("redis.client.response.bytes")
+                    .baseUnit("bytes")
+                    .tag("prefix", prefix)
+                    .register(meterRegistry);
+        }
+
+        private boolean matches(final byte[] key, final int length, final int keyHash) {
+            return hash == keyHash && Arrays.equals(raw, 0, raw.length, key, 0, length);
+        }
+
+        private LongAdder command(final String command) {
+            final LongAdder counter = commands.get(command);
+            return counter != null ? counter : commands.computeIfAbsent(command, c -> new LongAdder());
+        }
+
+        private void sampleCallSite() {
+            final String callSite = StackWalker.getInstance().walk(frames -> frames
+                    .filter(frame -> frame.getClassName().startsWith(APP_PACKAGE)
+                            && !frame.getClassName().startsWith(SELF_PACKAGE))
+                    .findFirst()
+                    .map(frame -> frame.getClassName() + "#" + frame.getMethodName() + ":" + frame.getLineNumber())
+                    .orElse("framework"));
+            final LongAdder counter = callSites.get(callSite);
+            if (counter != null) {
+                counter.increment();
+            } else if (callSites.size() < MAX_CALL_SITES) {
+                callSites.computeIfAbsent(callSite, c -> new LongAdder()).increment();
+            }
+        }
+
+        private RedisCommandStat toStat() {
+            final RedisCommandStat stat = new RedisCommandStat();
+            stat.setPrefix(prefix);
+            stat.setCalls(commands.values().stream().mapToLong(LongAdder::sum).sum());
+            stat.setErrors(errors.sum());
+            final HistogramSnapshot snapshot = timer.takeSnapshot();
+            stat.setTimedCalls(snapshot.count());
+            stat.setTotalTimeMs(snapshot.total(TimeUnit.MILLISECONDS));
+            stat.setMeanMs(snapshot.mean(TimeUnit.MILLISECONDS));
+            stat.setMaxMs(snapshot.max(TimeUnit.MILLISECONDS));
+            for (final ValueAtPercentile percentile : snapshot.percentileValues()) {
+                final double value = percentile.value(TimeUnit.MILLISECONDS);
+                if (percentile.percentile() == 0.5) {
+                    stat.setP50Ms(value);
+                } else if (percentile.percentile() == 0.95) {
+                    stat.setP95Ms(value);
+                } else if (percentile.percentile() == 0.99) {
+                    stat.setP99Ms(value);
+                }
+            }
+            stat.setRequestBytes((long) requestBytes.totalAmount());
+            stat.setResponseBytes((long) responseBytes.totalAmount());
+            stat.setCommands(toSortedMap(commands));
+            stat.setCallSites(toSortedMap(callSites));
+            return stat;
+        }
+    }
+
+    private static Map<String, Long> toSortedMap(final Map<String, LongAdder> counters) {
+        final Map<String, Long> result = new LinkedHashMap<>();
+        counters.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, LongAdder> e) -> e.getValue().sum()).reversed())
+                .forEach(e -> result.put(e.getKey(), e.getValue().sum()));
+        return result;
+    }
+}
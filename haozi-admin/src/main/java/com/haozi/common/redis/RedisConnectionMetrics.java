@@ -0,0 +1,81 @@
+package com.haozi.common.redis;
+
+import com.haozi.common.config.ProjectConfiguration;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Redis 连接数监控
+ * <p>
+ * 客户端侧上报 Redisson 连接池配置，服务端侧定时读取 INFO clients，
+ * 用于观察实例扩容后服务端连接数是否逼近 maxclients。命令耗时见 {@link RedisCommandMetrics}。
+ *
+ * @author liliangyu
+ */
+@Slf4j
+@Component
+public class RedisConnectionMetrics implements MeterBinder {
+
+    @Resource
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Resource
+    private ProjectConfiguration projectConfiguration;
+
+    private final AtomicLong connectedClients = new AtomicLong(-1);
+    private final AtomicLong maxClients = new AtomicLong(-1);
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        final ProjectConfiguration.RedisClientProperties properties = projectConfiguration.getRedisClientProperties();
+        Gauge.builder("redis.client.pool.max", properties, ProjectConfiguration.RedisClientProperties::getConnectionPoolSize)
+                .description("Redisson 单节点连接池最大连接数")
+                .register(registry);
+        Gauge.builder("redis.client.pool.min.idle", properties, ProjectConfiguration.RedisClientProperties::getConnectionMinimumIdleSize)
+                .description("Redisson 单节点最小空闲连接数")
+                .register(registry);
+        Gauge.builder("redis.server.clients.connected", connectedClients, AtomicLong::get)
+                .description("Redis 服务端当前连接数(全部实例)")
+                .register(registry);
+        Gauge.builder("redis.server.clients.max", maxClients, AtomicLong::get)
+                .description("Redis 服务端 maxclients")
+                .register(registry);
+    }
+
+    /**
+     * 定时刷新服务端连接数，避免每次抓取指标都访问 Redis
+     */
+    @Scheduled(initialDelay = 30000, fixedDelay = 30000)
+    public void refresh() {
+        try {
+            final Properties clients = redisTemplate.execute((RedisCallback<Properties>) connection -> connection.serverCommands().info("clients"));
+            if (clients != null) {
+                connectedClients.set(parseLong(clients.getProperty("connected_clients")));
+                maxClients.set(parseLong(clients.getProperty("maxclients")));
+            }
+        } catch (Exception e) {
+            log.debug("读取 Redis 连接数失败", e);
+        }
+    }
+
+    private static long parseLong(final String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.haozi.common.redis;
+
+import com.haozi.common.config.ProjectConfiguration;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * 为 RedisConnectionFactory 织入命令监控
+ * <p>
+ * RedisTemplate、Sa-Token 的 Redis DAO 都通过同一个连接工厂获取连接（当前为 Redisson 提供的 RedissonConnectionFactory），
+ * 在工厂上包装一层即可覆盖全部模板访问。工厂使用基于类的代理，按 RedissonConnectionFactory 等具体类型注入或强转仍然可用；
+ * 已是 Spring AOP 代理时直接追加拦截器。
+ * <p>
+ * 分布式锁、信号量、主题等直接使用 RedissonClient 的操作不经过连接工厂，不在此统计，锁的耗时见 lock.* 指标。
+ *
+ * @author liliangyu
+ */
+@Slf4j
+@Component
+public class RedisMetricsPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<RedisCommandMetrics> metricsProvider;
+    private final ObjectProvider<ProjectConfiguration> projectConfigurationProvider;
+
+    public RedisMetricsPostProcessor(final ObjectProvider<RedisCommandMetrics> metricsProvider,
+                                     final ObjectProvider<ProjectConfiguration> projectConfigurationProvider) {
+        this.metricsProvider = metricsProvider;
+        this.projectConfigurationProvider = projectConfigurationProvider;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+        if (!(bean instanceof RedisConnectionFactory)) {
+            return bean;
+        }
+        log.info("Redis 命令监控已织入连接工厂: {} ({})", beanName, bean.getClass().getSimpleName());
+        final MethodInterceptor interceptor = invocation -> wrapConnection(invocation.proceed());
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(interceptor);
+            return bean;
+        }
+        final ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy(bean.getClass().getClassLoader());
+    }
+
+    /**
+     * 集群/哨兵连接同样实现 RedisConnection，一并包装
+     */
+    private Object wrapConnection(final Object result) {
+        if (result instanceof RedisConnection connection && isEnabled()) {
+            return InstrumentedRedisConnectionHandler.wrap(connection, metricsProvider.getObject());
+        }
+        return result;
+    }
+
+    private boolean isEnabled() {
+        final ProjectConfiguration projectConfiguration = projectConfigurationProvider.getIfAvailable();
+        return projectConfiguration != null && projectConfiguration.getRedisMetricsProperties().isEnabled();
+    }
+}
@@ -0,0 +1,299 @@
+package com.haozi.common.redis;
+
+import cn.hutool.core.util.StrUtil;
+import com.haozi.common.config.ProjectConfiguration;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.protocol.ProtocolVersion;
+import io.lettuce.core.push.PushMessage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.stereotype.Component;
+
+import java.net.SocketAddress;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Redis 客户端缓存（近端缓存）
+ * <p>
+ * 基于 Redis 6 的 CLIENT TRACKING BCAST 模式：单独建立一条 RESP3 的 Lettuce 连接订阅配置前缀的失效推送，
+ * 服务端对这些前缀下 key 的任何写入都会推送 invalidate 消息，本地条目随之剔除，无需自定义 pub/sub 频道。
+ * 读取仍走原有 RedisTemplate，只在本地未命中时访问 Redis。
+ * <p>
+ * 为避免"读到旧值后才收到失效"的竞态，未命中时先放入占位符，加载完成后只在占位符仍在时替换为值。
+ * 连接断开期间无法收到失效消息，此时清空本地缓存并直接回源。
+ * <p>
+ * 本地条目被所有调用方共享，写入与读取时都通过 copier 复制，调用方修改返回值不会影响缓存。
+ *
+ * @author liliangyu
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RedisNearCache {
+
+    private static final String INVALIDATE = "invalidate";
+
+    private final ProjectConfiguration projectConfiguration;
+    private final RedisProperties redisProperties;
+
+    private final ConcurrentHashMap<String, Object> cache = new ConcurrentHashMap<>(256);
+    private RedisClient redisClient;
+    private StatefulRedisConnection<String, String> connection;
+    private List<String> prefixes = List.of();
+    /**
+     * 是否可用：开启且追踪连接在线
+     */
+    private volatile boolean available;
+
+    @PostConstruct
+    public void start() {
+        final ProjectConfiguration.RedisNearCacheProperties properties = projectConfiguration.getRedisNearCacheProperties();
+        if (!properties.isEnabled() || properties.getPrefixes().isEmpty()) {
+            return;
+        }
+        prefixes = List.copyOf(properties.getPrefixes());
+        try {
+            redisClient = RedisClient.create(buildRedisUri());
+            redisClient.setOptions(ClientOptions.builder().protocolVersion(ProtocolVersion.RESP3).build());
+            redisClient.addListener(new TrackingStateListener());
+            connection = redisClient.connect(StringCodec.UTF8);
+            connection.addListener(this::onPushMessage);
+            connection.sync().clientTracking(trackingArgs());
+            available = true;
+            log.info("Redis 客户端缓存已开启, 追踪前缀: {}", prefixes);
+        } catch (Exception e) {
+            // Redis 6 以下或禁用了 CLIENT 命令时退化为直接访问 Redis
+            log.warn("Redis 客户端缓存开启失败，将直接访问 Redis", e);
+            stop();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        available = false;
+        cache.clear();
+        if (connection != null) {
+            connection.close();
+            connection = null;
+        }
+        if (redisClient != null) {
+            redisClient.shutdown();
+            redisClient = null;
+        }
+    }
+
+    /**
+     * 读取单个 key，本地未命中时通过 loader 回源
+     *
+     * @param key    key
+     * @param loader 回源加载（通常为 RedisTemplate 读取）
+     * @param copier 复制值，本地条目不直接交给调用方
+     * @param <T>    值类型
+     * @return 值
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(final String key, final Supplier<T> loader, final UnaryOperator<T> copier) {
+        if (!isTracked(key)) {
+            return loader.get();
+        }
+        final Object cached = cache.get(key);
+        if (cached != null && !(cached instanceof Loading)) {
+            return copier.apply((T) cached);
+        }
+        final Loading loading = new Loading();
+        final boolean owner = cached == null && cache.size() < maxEntries() && cache.putIfAbsent(key, loading) == null;
+        final T value = loader.get();
+        if (owner) {
+            store(key, loading, value, copier);
+        }
+        return value;
+    }
+
+    /**
+     * 批量读取，本地未命中的 key 通过一次 loader 调用回源
+     *
+     * @param keys   key 列表
+     * @param loader 批量回源加载，返回 key -> 值
+     * @param copier 复制值，本地条目不直接交给调用方
+     * @param <T>    值类型
+     * @return key -> 值
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Map<String, T> getAll(final Collection<String> keys, final Function<Collection<String>, Map<String, T>> loader,
+                                     final UnaryOperator<T> copier) {
+        if (!available) {
+            return loader.apply(keys);
+        }
+        final Map<String, T> result = new LinkedHashMap<>(keys.size());
+        final List<String> misses = new ArrayList<>();
+        final Map<String, Loading> owned = new HashMap<>(4);
+        for (final String key : keys) {
+            final Object cached = isTracked(key) ? cache.get(key) : null;
+            if (cached != null && !(cached instanceof Loading)) {
+                result.put(key, copier.apply((T) cached));
+                continue;
+            }
+            misses.add(key);
+            if (cached == null && isTracked(key) && cache.size() < maxEntries()) {
+                final Loading loading = new Loading();
+                if (cache.putIfAbsent(key, loading) == null) {
+                    owned.put(key, loading);
+                }
+            }
+        }
+        if (misses.isEmpty()) {
+            return result;
+        }
+        final Map<String, T> loaded = loader.apply(misses);
+        for (final String key : misses) {
+            final T value = loaded.get(key);
+            result.put(key, value);
+            final Loading loading = owned.get(key);
+            if (loading != null) {
+                store(key, loading, value, copier);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 当前本地缓存条目数
+     *
+     * @return 条目数
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * 是否可用
+     *
+     * @return 是否可用
+     */
+    public boolean isAvailable() {
+        return available;
+    }
+
+    private <T> void store(final String key, final Loading loading, final T value, final UnaryOperator<T> copier) {
+        if (value == null || !available) {
+            // 不缓存空值，空值由下一次读取回源
+            cache.remove(key, loading);
+            return;
+        }
+        // 回源的值已交给本次调用方，缓存保存副本；加载期间若收到失效消息，占位符已被移除，不会写入旧值
+        cache.replace(key, loading, copier.apply(value));
+    }
+
+    private boolean isTracked(final String key) {
+        if (!available || key == null) {
+            return false;
+        }
+        for (final String prefix : prefixes) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int maxEntries() {
+        return projectConfiguration.getRedisNearCacheProperties().getMaxEntries();
+    }
+
+    /**
+     * 处理服务端推送的失效消息，keys 为 null 表示 FLUSHDB/FLUSHALL
+     */
+    @SuppressWarnings("unchecked")
+    private void onPushMessage(final PushMessage message) {
+        if (!INVALIDATE.equals(message.getType())) {
+            return;
+        }
+        final List<Object> content = message.getContent(StringCodec.UTF8::decodeKey);
+        final Object keys = content.size() > 1 ? content.get(1) : null;
+        if (keys instanceof List<?> keyList) {
+            ((List<String>) keyList).forEach(cache::remove);
+        } else {
+            cache.clear();
+        }
+    }
+
+    private TrackingArgs trackingArgs() {
+        return TrackingArgs.Builder.enabled().bcast().prefixes(prefixes.toArray(new String[0]));
+    }
+
+    private RedisURI buildRedisUri() {
+        final RedisURI.Builder builder = RedisURI.builder()
+                .withHost(redisProperties.getHost())
+                .withPort(redisProperties.getPort())
+                .withDatabase(redisProperties.getDatabase());
+        if (redisProperties.getTimeout() != null) {
+            builder.withTimeout(redisProperties.getTimeout());
+        }
+        if (StrUtil.isNotEmpty(redisProperties.getPassword())) {
+            if (StrUtil.isNotEmpty(redisProperties.getUsername())) {
+                builder.withAuthentication(redisProperties.getUsername(), redisProperties.getPassword());
+            } else {
+                builder.withPassword(redisProperties.getPassword().toCharArray());
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * 加载中占位符
+     */
+    private static final class Loading {
+    }
+
+    /**
+     * 追踪连接状态：断线期间收不到失效消息，清空本地缓存并回源；重连后重新开启追踪
+     */
+    private final class TrackingStateListener implements RedisConnectionStateListener {
+
+        @Override
+        public void onRedisConnected(final RedisChannelHandler<?, ?> handler, final SocketAddress socketAddress) {
+            final StatefulRedisConnection<String, String> current = connection;
+            if (current == null || handler != current) {
+                return;
+            }
+            cache.clear();
+            current.async().clientTracking(trackingArgs()).whenComplete((result, e) -> {
+                if (e != null) {
+                    log.warn("Redis 客户端缓存重新开启追踪失败", e);
+                    return;
+                }
+                available = true;
+                log.info("Redis 客户端缓存追踪已恢复");
+            });
+        }
+
+        @Override
+        public void onRedisDisconnected(final RedisChannelHandler<?, ?> handler) {
+            if (handler != connection) {
+                return;
+            }
+            available = false;
+            cache.clear();
+            log.warn("Redis 客户端缓存追踪连接断开，暂时直接访问 Redis");
+        }
+
+        @Override
+        public void onRedisExceptionCaught(final RedisChannelHandler<?, ?> handler, final Throwable cause) {
+            log.debug("Redis 客户端缓存追踪连接异常", cause);
+        }
+    }
+}
@@ -6,31 +6,52 @@
 import cn.hutool.core.date.DateTime;
 import cn.hutool.core.date.DateUtil;
 import cn.hutool.core.date.LocalDateTimeUtil;
+import cn.hutool.core.exceptions.ExceptionUtil;
 import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IoUtil;
 import cn.hutool.core.io.file.FileNameUtil;
 import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.ExcelWriter;
 import com.aliyun.oss.OSS;
-import com.aliyun.oss.OSSClientBuilder;
 import com.aliyun.oss.model.MatchMode;
 import com.aliyun.oss.model.PolicyConditions;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.haozi.common.bulkhead.Bulkhead;
+import com.haozi.common.bulkhead.BulkheadType;
 import com.haozi.common.config.ProjectConfiguration;
 import com.haozi.common.exception.BaseException;
+import com.haozi.common.exception.BulkheadFullException;
+import com.haozi.common.export.ExportProgress;
+import com.haozi.common.export.ExportProgressReporter;
+import com.haozi.common.handler.ExcelResultHandler;
+import com.haozi.common.oss.OssMultipartOutputStream;
+import com.haozi.common.oss.OssStreamUploader;
+import com.haozi.common.oss.OssUploadMetrics;
 import com.haozi.common.vo.OssPolicyVO;
 import com.haozi.modules.sys.entity.SysDownloadCenter;
+import com.haozi.modules.sys.enums.DownloadStatus;
+import com.haozi.modules.sys.enums.ExportPhase;
 import com.haozi.modules.sys.enums.SseNotifyType;
 import com.haozi.modules.sys.mapper.SysDownloadCenterMapper;
 import com.haozi.modules.sys.service.SseService;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.ResultHandler;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.UnsupportedEncodingException;
+import java.nio.channels.ClosedByInterruptException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 
 
 /**
@@ -46,6 +67,10 @@ public class AliyunOssUtil {
     private final ProjectConfiguration projectConfiguration;
     private final SysDownloadCenterMapper sysDownloadCenterMapper;
     private  final  SseService sseService;
+    private final OssStreamUploader ossStreamUploader;
+    private final OSS ossClient;
+    private final OssUploadMetrics ossUploadMetrics;
+    private final ExportProgressReporter exportProgressReporter;
 
     /**
      * 根据文件名，生成带时间戳的新文件名
@@ -97,7 +122,7 @@ private static String getPath(final String fileName) {
     public String upload(final MultipartFile multipartFile) {
         final InputStream inputStream = multipartFile.getInputStream();
         final String originalFilename = multipartFile.getOriginalFilename();
-        return upload(inputStream, originalFilename);
+        return upload(inputStream, originalFilename, multipartFile.getSize());
     }
 
     /**
@@ -111,7 +136,7 @@ public String upload(final File file) {
         final InputStream inputStream = FileUtil.getInputStream(file);
         final String originalFilename = FileUtil.getName(file);
 
-        return upload(inputStream, originalFilename);
+        return upload(inputStream, originalFilename, file.length());
     }
 
     /**
@@ -121,21 +146,142 @@ public String upload(final File file) {
      * @param list
      * @return
      */
+    @Bulkhead(BulkheadType.EXPORT)
     public <D> void uploadExcel(final Long sysDownloadCenterId, final List<D> list) {
+        exportExcel(sysDownloadCenterId, (long) list.size(), (excelWriter, rowsWritten) -> {
+            excelWriter.write(list, EasyExcel.writerSheet("Sheet1").head(list.get(0).getClass()).build());
+            rowsWritten.accept(list.size());
+        });
+    }
+
+    /**
+     * 流式导出excel，查询结果按批写出，内存占用与总行数无关
+     * <p>
+     * 查询方法示例：{@code @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+     * void selectForExport(@Param("query") XxxQuery query, ResultHandler<XxxExcelVO> handler);}
+     *
+     * @param sysDownloadCenterId 下载中心ID
+     * @param headClass           表头类
+     * @param query               执行查询，把结果交给传入的 ResultHandler
+     */
+    @Bulkhead(BulkheadType.EXPORT)
+    public <D> void uploadExcel(final Long sysDownloadCenterId, final Class<D> headClass, final Consumer<ResultHandler<D>> query) {
+        exportExcel(sysDownloadCenterId, null, (excelWriter, rowsWritten) -> {
+            final ExcelResultHandler<D> handler = newResultHandler(excelWriter, headClass, rowsWritten);
+            query.accept(handler);
+            handler.flush();
+        });
+    }
+
+    /**
+     * 流式导出excel，从 MyBatis 游标按批写出
+     * 游标需在事务内打开（调用方标注 @Transactional(readOnly = true)），由调用方关闭
+     *
+     * @param sysDownloadCenterId 下载中心ID
+     * @param headClass           表头类
+     * @param cursor              查询游标
+     */
+    @Bulkhead(BulkheadType.EXPORT)
+    public <D> void uploadExcel(final Long sysDownloadCenterId, final Class<D> headClass, final Cursor<D> cursor) {
+        exportExcel(sysDownloadCenterId, null, (excelWriter, rowsWritten) -> {
+            final ExcelResultHandler<D> handler = newResultHandler(excelWriter, headClass, rowsWritten);
+            handler.addAll(cursor);
+            handler.flush();
+        });
+    }
+
+    private <D> ExcelResultHandler<D> newResultHandler(final ExcelWriter excelWriter, final Class<D> headClass, final LongConsumer rowsWritten) {
+        final ProjectConfiguration.ExportProperties exportProperties = projectConfiguration.getExportProperties();
+        final ExcelResultHandler<D> handler = new ExcelResultHandler<>(excelWriter, headClass, exportProperties.getBatchSize(), exportProperties.getMaxRowsPerSheet());
+        handler.setFlushListener(rowsWritten);
+        return handler;
+    }
+
+    /**
+     * 生成excel并上传，更新下载中心记录并通知用户
+     * 写入过程中按间隔推送行数、字节数与预计剩余时间，阶段变化时立即推送
+     *
+     * @param sysDownloadCenterId 下载中心ID
+     * @param expectedRows        预计总行数，未知时为 null
+     * @param content             写入内容，每写出一批后以已写出的总行数回调第二个参数
+     */
+    private void exportExcel(final Long sysDownloadCenterId, final Long expectedRows, final BiConsumer<ExcelWriter, LongConsumer> content) {
         final SysDownloadCenter sysDownloadCenter = sysDownloadCenterMapper.selectById(sysDownloadCenterId);
         final String name = sysDownloadCenter.getName();
+        final ExportProgress progress = exportProgressReporter.start(sysDownloadCenterId, sysDownloadCenter.getCreator(), name, expectedRows);
+
+        // 工作簿直接写入 OSS 分片上传，不落本地文件
+        final String path = AliyunOssUtil.getPath(name);
+        final ProjectConfiguration.AliyunOssProperties aliyunOssProperties = projectConfiguration.getAliyunOssProperties();
+        final OssMultipartOutputStream outputStream = ossStreamUploader.open(aliyunOssProperties.getBucketName(), path);
+        try {
+            try (ExcelWriter excelWriter = EasyExcel.write(outputStream).autoCloseStream(false).build()) {
+                content.accept(excelWriter, rows -> progress.update(rows, outputStream.getSize()));
+                // 关闭写出器时生成剩余文件内容并上传
+                progress.phase(ExportPhase.UPLOADING, outputStream.getSize());
+            }
+            outputStream.close();
+        } catch (final Exception e) {
+            outputStream.abort();
+            if (e instanceof BulkheadFullException bulkheadFull) {
+                // 依赖的舱壁分区已满，原样抛出由调度器重新排队，不标记失败
+                throw bulkheadFull;
+            }
+            if (isInterrupted(e)) {
+                onInterrupted(sysDownloadCenterId, progress, outputStream.getSize());
+            } else {
+                progress.fail(ExportPhase.FAILED, outputStream.getSize(), e.getMessage());
+            }
+            throw new BaseException("导出文件失败：", e);
+        }
+        final String uploadExcelUrl = aliyunOssProperties.getCdnDomain() + "/" + path;
+        // 导出期间被取消的任务不再改为成功
+        final int updated = sysDownloadCenterMapper.update(null, Wrappers.<SysDownloadCenter>lambdaUpdate()
+                .set(SysDownloadCenter::getUrl, uploadExcelUrl)
+                .set(SysDownloadCenter::getCompletedDateTime, LocalDateTime.now())
+                .set(SysDownloadCenter::getStatus, DownloadStatus.SUCCESS.name())
+                .eq(SysDownloadCenter::getId, sysDownloadCenterId)
+                .and(wrapper -> wrapper.isNull(SysDownloadCenter::getStatus)
+                        .or().ne(SysDownloadCenter::getStatus, DownloadStatus.CANCELLED.name())));
+        if (updated == 0) {
+            log.info("导出任务已取消, 不再通知: {}", sysDownloadCenterId);
+            progress.fail(ExportPhase.CANCELLED, outputStream.getSize(), ExportPhase.CANCELLED.getDesc());
+            return;
+        }
 
-        final File file = FileUtil.newFile(name);
-        EasyExcel.write(file,list.get(0).getClass()).sheet("Sheet1").doWrite(list);
-        final String uploadExcelUrl = upload(file);
-        sysDownloadCenter.setUrl(uploadExcelUrl);
-        sysDownloadCenter.setCompletedDateTime(LocalDateTime.now());
-        sysDownloadCenter.setStatus("SUCCESS"); // 设置成功状态
-        sysDownloadCenterMapper.updateById(sysDownloadCenter);
-        // 删除文件
-        FileUtil.del(file);
+        progress.success(uploadExcelUrl, outputStream.getSize());
+        sseService.sendDownloadNotification(sysDownloadCenter.getCreator(), SseNotifyType.FILE_DOWNLOAD_SUCCESS, uploadExcelUrl, name);
+    }
 
-        sseService.sendDownloadNotification(sysDownloadCenter.getCreator(), SseNotifyType.FILE_DOWNLOAD_SUCCESS,"uploadExcelUrl",name);
+    /**
+     * 导出线程是否被中断（取消、续约失败或节点停止），中断标记可能已被 IO 操作清除，同时检查异常原因
+     */
+    private static boolean isInterrupted(final Exception e) {
+        return Thread.currentThread().isInterrupted()
+                || ExceptionUtil.isCausedBy(e, InterruptedException.class, InterruptedIOException.class, ClosedByInterruptException.class);
+    }
+
+    /**
+     * 导出被中断：用户取消时发布已取消；续约失败或节点停止时任务会重新排队，删除进度，由下次执行重新发布
+     */
+    private void onInterrupted(final Long sysDownloadCenterId, final ExportProgress progress, final long bytes) {
+        // 暂时清除中断标记，否则获取数据库连接与 Redis 命令会直接失败
+        final boolean interrupted = Thread.interrupted();
+        try {
+            final SysDownloadCenter current = sysDownloadCenterMapper.selectById(sysDownloadCenterId);
+            if (current != null && DownloadStatus.CANCELLED.name().equals(current.getStatus())) {
+                progress.fail(ExportPhase.CANCELLED, bytes, ExportPhase.CANCELLED.getDesc());
+            } else {
+                exportProgressReporter.clear(List.of(sysDownloadCenterId));
+            }
+        } catch (final Exception e) {
+            log.warn("查询导出任务状态失败: {}", sysDownloadCenterId, e);
+            exportProgressReporter.clear(List.of(sysDownloadCenterId));
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
     }
 
     /**
@@ -143,28 +289,28 @@ public <D> void uploadExcel(final Long sysDownloadCenterId, final List<D> list)
      *
      * @param inputStream
      * @param originalFilename
+     * @param size 文件大小，用于统计
      * @return
      */
-    private String upload(final InputStream inputStream, final String originalFilename) {
+    private String upload(final InputStream inputStream, final String originalFilename, final long size) {
         final String path = AliyunOssUtil.getPath(originalFilename);
         final ProjectConfiguration.AliyunOssProperties aliyunOssProperties = projectConfiguration.getAliyunOssProperties();
 
-        final String endPoint = aliyunOssProperties.getEndPoint();
-        final OSS client = new OSSClientBuilder().build(endPoint, aliyunOssProperties.getAccessKeyId(), aliyunOssProperties.getAccessKeySecret());
         final String bucketName = aliyunOssProperties.getBucketName();
+        final long start = System.nanoTime();
+        boolean success = false;
         try {
-            client.putObject(bucketName, path, inputStream);
+            ossClient.putObject(bucketName, path, inputStream);
+            success = true;
         } catch (final Exception e) {
             throw new BaseException("上传文件失败：", e);
         } finally {
-            if (client != null) {
-                client.shutdown();
-            }
+            ossUploadMetrics.record("put", size, System.nanoTime() - start, success);
+            IoUtil.close(inputStream);
         }
         return aliyunOssProperties.getCdnDomain() + "/" + path;
     }
 
-
     /**
      * 获取上传策略
      *
@@ -180,7 +326,6 @@ public OssPolicyVO getPolicy(String fileName) {
         final String dir = DateUtil.format(now, DatePattern.PURE_DATE_PATTERN) + "/";
         final String endPoint = aliyunOssProperties.getEndPoint();
         final String accessKeyId = aliyunOssProperties.getAccessKeyId();
-        final OSS client = new OSSClientBuilder().build(endPoint, accessKeyId, aliyunOssProperties.getAccessKeySecret());
         final PolicyConditions policyConditions = new PolicyConditions();
         policyConditions.addConditionItem(PolicyConditions.COND_CONTENT_LENGTH_RANGE, 0, 1048576000);
         final String contentDisposition = getContentDisposition(fileName);
@@ -189,9 +334,9 @@ public OssPolicyVO getPolicy(String fileName) {
         policyConditions.addConditionItem(PolicyConditions.COND_CONTENT_TYPE, xOssContentType);
         policyConditions.addConditionItem(PolicyConditions.COND_SUCCESS_ACTION_STATUS, "200");
         policyConditions.addConditionItem(MatchMode.StartWith, PolicyConditions.COND_KEY, dir);
-        final String postPolicy = client.generatePostPolicy(DateUtil.offsetMinute(now, 10), policyConditions);
+        final String postPolicy = ossClient.generatePostPolicy(DateUtil.offsetMinute(now, 10), policyConditions);
         final String encodedPolicy = Base64.encode(postPolicy);
-        final String signature = client.calculatePostSignature(postPolicy);
+        final String signature = ossClient.calculatePostSignature(postPolicy);
 
         return new OssPolicyVO(accessKeyId, encodedPolicy, signature, dir, "https://" + aliyunOssProperties.getBucketName() + "." + endPoint, xOssContentType, contentDisposition, aliyunOssProperties.getCdnDomain() + "/" + dir + fileName, fileName);
 
@@ -3,6 +3,8 @@
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.http.HttpUtil;
 import cn.hutool.json.JSONUtil;
+import com.haozi.common.bulkhead.Bulkhead;
+import com.haozi.common.bulkhead.BulkheadType;
 import com.haozi.common.config.ProjectConfiguration;
 import com.haozi.common.vo.GeoResponseJsonVO;
 import com.haozi.modules.sys.entity.SysArea;
@@ -59,6 +61,7 @@ public class AreaUtil {
      * @param location 定位
      * @return
      */
+    @Bulkhead(BulkheadType.EXTERNAL_HTTP)
     public SysAreaVO getByLocation(String location) {
         SysAreaVO sysAreaVO = new SysAreaVO();
 
@@ -7,12 +7,17 @@
 import com.alibaba.excel.metadata.data.WriteCellData;
 import com.haozi.common.config.ImageCompressionConfig;
 import com.haozi.common.dto.FileDTO;
+import com.haozi.common.image.ImageDiskCache;
+import com.haozi.common.image.ImageIoScheduler;
 import lombok.experimental.UtilityClass;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
 import javax.imageio.ImageWriteParam;
 import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
 import javax.imageio.stream.ImageOutputStream;
 import java.awt.*;
 import java.awt.image.BufferedImage;
@@ -24,11 +29,10 @@
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * Excel 图片处理工具 - 支持压缩和并行下载
+ * 下载与压缩由 ImageIoScheduler 调度，压缩结果由 ImageDiskCache 缓存
  *
  * @author liliangyu
  */
@@ -37,12 +41,13 @@
 public class ExcelImageUtil {
 
 
-    // 线程池用于并行下载
-    private static final ExecutorService DOWNLOAD_EXECUTOR =
-            Executors.newFixedThreadPool(10);
     // 默认配置（如果Spring配置不可用）
     private static final ImageCompressionConfig DEFAULT_CONFIG = new ImageCompressionConfig();
 
+    // 查找 JPEG 质量时的下限与精度
+    private static final float JPEG_MIN_QUALITY = 0.1f;
+    private static final float JPEG_QUALITY_PRECISION = 0.05f;
+
     /**
      * 设置图片列表并自动压缩图片
      * 支持并行下载和智能压缩
@@ -101,17 +106,46 @@ public WriteCellData<Void> buildWriteCellData(List<FileDTO> imageList) {
 
     /**
      * 并行下载和压缩图片
+     * 先查磁盘缓存，未命中的由 Spring 管理的 ImageIoScheduler 调度，容器外使用时在当前线程依次处理
      */
     private List<ImageData> downloadAndCompressImagesParallel(List<FileDTO> imageList, ImageCompressionConfig config) {
-        List<CompletableFuture<ImageData>> futures = new ArrayList<>();
+        final ImageIoScheduler scheduler = ImageIoScheduler.getInstance();
+        final ImageDiskCache cache = ImageDiskCache.getInstance();
+        final int totalImages = imageList.size();
+        if (scheduler == null) {
+            List<ImageData> result = new ArrayList<>(totalImages);
+            for (int i = 0; i < totalImages; i++) {
+                String url = imageList.get(i).getUrl();
+                ImageCompressionResult compressionResult = getCached(cache, url, config);
+                if (compressionResult == null) {
+                    byte[] bytes = downloadImageWithRetry(url, config);
+                    compressionResult = bytes != null ? compress(cache, url, bytes, config) : null;
+                }
+                ImageData imageData = toImageData(compressionResult, i, totalImages);
+                if (imageData != null) {
+                    result.add(imageData);
+                }
+            }
+            return result;
+        }
+
+        List<CompletableFuture<ImageData>> futures = new ArrayList<>(totalImages);
 
         // 创建异步任务
-        for (int i = 0; i < imageList.size(); i++) {
+        for (int i = 0; i < totalImages; i++) {
             final int index = i;
             final FileDTO fileDTO = imageList.get(i);
 
-            CompletableFuture<ImageData> future = CompletableFuture
-                    .supplyAsync(() -> downloadAndCompressImage(fileDTO.getUrl(), index, imageList.size(), config), DOWNLOAD_EXECUTOR)
+            // 缓存命中时不下载也不压缩
+            ImageCompressionResult cached = getCached(cache, fileDTO.getUrl(), config);
+            if (cached != null) {
+                futures.add(CompletableFuture.completedFuture(toImageData(cached, index, totalImages)));
+                continue;
+            }
+
+            CompletableFuture<ImageData> future = scheduler
+                    .submit(fileDTO.getUrl(), config,
+                            bytes -> toImageData(compress(cache, fileDTO.getUrl(), bytes, config), index, totalImages))
                     .exceptionally(throwable -> {
                         log.warn("处理图片失败: {}", fileDTO.getUrl(), throwable);
                         return null;
@@ -128,16 +162,32 @@ private List<ImageData> downloadAndCompressImagesParallel(List<FileDTO> imageLis
     }
 
     /**
-     * 下载并压缩单个图片
+     * 读取磁盘缓存中的压缩结果
      */
-    private ImageData downloadAndCompressImage(String url, int index, int totalImages, ImageCompressionConfig config) {
-        byte[] compressedBytes = downloadImageWithRetry(url, config);
-        if (compressedBytes == null) {
+    private ImageCompressionResult getCached(ImageDiskCache cache, String url, ImageCompressionConfig config) {
+        if (cache == null) {
             return null;
         }
+        ImageDiskCache.CachedImage cached = cache.get(url, config);
+        return cached != null ? new ImageCompressionResult(cached.bytes(), cached.width(), cached.height()) : null;
+    }
+
+    /**
+     * 压缩图片，结果写入磁盘缓存
+     */
+    private ImageCompressionResult compress(ImageDiskCache cache, String url, byte[] originalBytes, ImageCompressionConfig config) {
+        ImageCompressionResult compressionResult = compressImageBytesWithSize(originalBytes, config);
+        if (cache != null && compressionResult != null && compressionResult.imageBytes != null) {
+            cache.put(url, config, new ImageDiskCache.CachedImage(compressionResult.imageBytes,
+                    compressionResult.actualWidth, compressionResult.actualHeight));
+        }
+        return compressionResult;
+    }
 
-        // 压缩图片并获取实际尺寸
-        ImageCompressionResult compressionResult = compressImageBytesWithSize(compressedBytes, config);
+    /**
+     * 根据压缩结果创建 ImageData 并计算位置
+     */
+    private ImageData toImageData(ImageCompressionResult compressionResult, int index, int totalImages) {
         if (compressionResult == null || compressionResult.imageBytes == null) {
             return null;
         }
@@ -154,7 +204,7 @@ private ImageData downloadAndCompressImage(String url, int index, int totalImage
     }
 
     /**
-     * 带重试的图片下载
+     * 带重试的图片下载，仅在容器外使用
      */
     private byte[] downloadImageWithRetry(String url, ImageCompressionConfig config) {
         Exception lastException = null;
@@ -205,71 +255,151 @@ private static class ImageCompressionResult {
 
     /**
      * 压缩图片字节数组（带尺寸信息）
+     * <p>
+     * 先只读取图片头获取尺寸，尺寸与大小都满足要求的原图直接返回，不解码；
+     * 需要缩小时按整数倍降采样解码，直接得到接近目标尺寸的图片，不在堆中生成原尺寸的 BufferedImage。
      */
     private ImageCompressionResult compressImageBytesWithSize(byte[] originalBytes, ImageCompressionConfig config) {
-        try {
-            // 读取原图
-            BufferedImage originalImage = ImageIO.read(new ByteArrayInputStream(originalBytes));
-            if (originalImage == null) {
+        int originalWidth = -1;
+        int originalHeight = -1;
+        try (ImageInputStream iis = ImageIO.createImageInputStream(new ByteArrayInputStream(originalBytes))) {
+            Iterator<ImageReader> readers = iis != null ? ImageIO.getImageReaders(iis) : null;
+            if (readers == null || !readers.hasNext()) {
                 log.warn("无法解析图片格式");
                 return null;
             }
+            ImageReader reader = readers.next();
+            int[] newSize;
+            BufferedImage decodedImage;
+            try {
+                reader.setInput(iis, true, true);
+                originalWidth = reader.getWidth(0);
+                originalHeight = reader.getHeight(0);
+
+                // 计算压缩后的尺寸
+                newSize = calculateCompressedSize(originalWidth, originalHeight, config.getMaxWidth(), config.getMaxHeight());
+
+                // 如果尺寸没有变化且原图已经很小，直接返回
+                if (newSize[0] == originalWidth &&
+                    newSize[1] == originalHeight &&
+                    originalBytes.length <= config.getMaxFileSizeKb() * 1024) {
+                    return new ImageCompressionResult(originalBytes, originalWidth, originalHeight);
+                }
 
-            // 计算压缩后的尺寸
-            int[] newSize = calculateCompressedSize(
-                    originalImage.getWidth(),
-                    originalImage.getHeight(),
-                    config.getMaxWidth(),
-                    config.getMaxHeight()
-            );
-
-            // 如果尺寸没有变化且原图已经很小，直接返回
-            if (newSize[0] == originalImage.getWidth() &&
-                newSize[1] == originalImage.getHeight() &&
-                originalBytes.length <= config.getMaxFileSizeKb() * 1024) {
-                return new ImageCompressionResult(originalBytes, originalImage.getWidth(), originalImage.getHeight());
+                // 降采样解码，解码结果不小于目标尺寸
+                ImageReadParam readParam = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, Math.min(originalWidth / Math.max(1, newSize[0]), originalHeight / Math.max(1, newSize[1])));
+                if (subsampling > 1) {
+                    readParam.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                }
+                decodedImage = reader.read(0, readParam);
+            } finally {
+                reader.dispose();
             }
 
             // 创建压缩后的图片
-            BufferedImage compressedImage = resizeImage(originalImage, newSize[0], newSize[1]);
+            BufferedImage compressedImage = resizeImage(decodedImage, newSize[0], newSize[1]);
 
-            // 压缩为JPEG格式
-            byte[] compressedBytes = compressToJpeg(compressedImage, config.getJpegQuality());
+            // 压缩为JPEG格式，超出大小时降低质量
+            ImageCompressionResult result = encodeJpeg(compressedImage, config.getJpegQuality(), config.getMaxFileSizeKb() * 1024);
 
-            // 如果压缩后仍然太大，进一步降低质量
-            if (compressedBytes.length > config.getMaxFileSizeKb() * 1024) {
-                compressedBytes = compressToTargetSize(compressedImage, config.getMaxFileSizeKb() * 1024);
-            }
-
-            log.debug("图片压缩完成: {}KB -> {}KB, 尺寸: {}x{} -> {}x{}",
+            log.debug("图片压缩完成: {}KB -> {}KB, 尺寸: {}x{} -> {}x{}, 降采样: {}x{}",
                     originalBytes.length / 1024,
-                    compressedBytes.length / 1024,
-                    originalImage.getWidth(),
-                    originalImage.getHeight(),
-                    newSize[0],
-                    newSize[1]);
+                    result.imageBytes.length / 1024,
+                    originalWidth,
+                    originalHeight,
+                    result.actualWidth,
+                    result.actualHeight,
+                    decodedImage.getWidth(),
+                    decodedImage.getHeight());
 
-            return new ImageCompressionResult(compressedBytes, newSize[0], newSize[1]);
+            return result;
 
         } catch (Exception e) {
             log.error("图片压缩失败", e);
             // 压缩失败返回原图尺寸
-            try {
-                BufferedImage originalImage = ImageIO.read(new ByteArrayInputStream(originalBytes));
-                if (originalImage != null) {
-                    return new ImageCompressionResult(originalBytes, originalImage.getWidth(), originalImage.getHeight());
-                }
-            } catch (Exception ex) {
-                log.error("读取原图尺寸失败", ex);
+            if (originalWidth > 0 && originalHeight > 0) {
+                return new ImageCompressionResult(originalBytes, originalWidth, originalHeight);
             }
             return null;
         }
     }
 
     /**
-     * 压缩图片字节数组（兼容方法）
+     * 编码为 JPEG，使用同一个编码器和输出缓冲区
+     * <p>
+     * 按配置质量编码一次，满足大小要求时直接返回；否则在 [0.1, 配置质量) 区间二分查找满足大小的最高质量。
+     * 最低质量仍然过大时缩小到 80% 再编码。
+     */
+    private ImageCompressionResult encodeJpeg(BufferedImage image, float quality, int targetSizeBytes) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        if (!writers.hasNext()) {
+            throw new IOException("没有找到JPEG编码器");
+        }
+        ImageWriter writer = writers.next();
+        ByteArrayOutputStream baos = new ByteArrayOutputStream(targetSizeBytes);
+        try {
+            byte[] best = encodeJpeg(writer, baos, image, quality);
+            if (best.length <= targetSizeBytes) {
+                return new ImageCompressionResult(best, image.getWidth(), image.getHeight());
+            }
+
+            // 二分查找质量，精度 0.05
+            float low = JPEG_MIN_QUALITY;
+            float high = quality;
+            best = null;
+            while (high - low > JPEG_QUALITY_PRECISION) {
+                float mid = (low + high) / 2;
+                byte[] compressed = encodeJpeg(writer, baos, image, mid);
+                if (compressed.length <= targetSizeBytes) {
+                    best = compressed;
+                    low = mid;
+                } else {
+                    high = mid;
+                }
+            }
+            if (best == null) {
+                byte[] compressed = encodeJpeg(writer, baos, image, JPEG_MIN_QUALITY);
+                if (compressed.length <= targetSizeBytes) {
+                    best = compressed;
+                }
+            }
+            if (best != null) {
+                return new ImageCompressionResult(best, image.getWidth(), image.getHeight());
+            }
+
+            // 如果还是太大，最后尝试进一步缩小尺寸
+            int newWidth = Math.max(1, (int) (image.getWidth() * 0.8));
+            int newHeight = Math.max(1, (int) (image.getHeight() * 0.8));
+            BufferedImage smallerImage = resizeImage(image, newWidth, newHeight);
+            return new ImageCompressionResult(encodeJpeg(writer, baos, smallerImage, 0.7f), newWidth, newHeight);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * 按指定质量编码一次，复用编码器与输出缓冲区
      */
-    private byte[] compressImageBytes(byte[] originalBytes, ImageCompressionConfig config) {
+    private byte[] encodeJpeg(ImageWriter writer, ByteArrayOutputStream baos, BufferedImage image, float quality) throws IOException {
+        baos.reset();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(quality);
+
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(baos)) {
+            writer.setOutput(ios);
+            writer.write(null, new javax.imageio.IIOImage(image, null, null), param);
+        } finally {
+            writer.reset();
+        }
+        return baos.toByteArray();
+    }
+
+    /**
+     * 压缩图片字节数组（兼容方法），包内可见供基准测试使用
+     */
+    byte[] compressImageBytes(byte[] originalBytes, ImageCompressionConfig config) {
         ImageCompressionResult result = compressImageBytesWithSize(originalBytes, config);
         return result != null ? result.imageBytes : originalBytes;
     }
@@ -316,69 +446,6 @@ private BufferedImage resizeImage(BufferedImage originalImage, int targetWidth,
         return resizedImage;
     }
 
-    /**
-     * 压缩为JPEG格式
-     */
-    private byte[] compressToJpeg(BufferedImage image, float quality) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-
-        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
-        if (!writers.hasNext()) {
-            throw new IOException("没有找到JPEG编码器");
-        }
-
-        ImageWriter writer = writers.next();
-        ImageWriteParam param = writer.getDefaultWriteParam();
-        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
-        param.setCompressionQuality(quality);
-
-        try (ImageOutputStream ios = ImageIO.createImageOutputStream(baos)) {
-            writer.setOutput(ios);
-            writer.write(null, new javax.imageio.IIOImage(image, null, null), param);
-        } finally {
-            writer.dispose();
-        }
-
-        return baos.toByteArray();
-    }
-
-    /**
-     * 压缩到目标文件大小
-     */
-    private byte[] compressToTargetSize(BufferedImage image, int targetSizeBytes) {
-        float quality = 0.9f;
-        byte[] result = null;
-
-        // 逐步降低质量直到达到目标大小
-        while (quality > 0.1f) {
-            try {
-                byte[] compressed = compressToJpeg(image, quality);
-                if (compressed.length <= targetSizeBytes) {
-                    result = compressed;
-                    break;
-                }
-                quality -= 0.1f;
-            } catch (IOException e) {
-                log.warn("压缩失败，质量参数: {}", quality, e);
-                break;
-            }
-        }
-
-        // 如果还是太大，最后尝试进一步缩小尺寸
-        if (result == null || result.length > targetSizeBytes) {
-            try {
-                int newWidth = (int) (image.getWidth() * 0.8);
-                int newHeight = (int) (image.getHeight() * 0.8);
-                BufferedImage smallerImage = resizeImage(image, newWidth, newHeight);
-                result = compressToJpeg(smallerImage, 0.7f);
-            } catch (IOException e) {
-                log.warn("最终压缩失败", e);
-            }
-        }
-
-        return result;
-    }
-
     /**
      * 计算图片位置，避免堆叠（支持动态尺寸）
      */
@@ -475,13 +542,6 @@ private int getGridColumns(int totalImages) {
 
 
 
-    /**
-     * 关闭线程池（在应用关闭时调用）
-     */
-    public static void shutdown() {
-        DOWNLOAD_EXECUTOR.shutdown();
-    }
-
     /**
      * Excel图片布局配置类
      */
@@ -2,6 +2,8 @@
 
 import cn.dev33.satoken.annotation.SaIgnore;
 import cn.dev33.satoken.stp.StpUtil;
+import com.haozi.common.bulkhead.Bulkhead;
+import com.haozi.common.bulkhead.BulkheadType;
 import com.haozi.common.utils.Result;
 import com.haozi.modules.auth.vo.AuthorizationVO;
 import com.haozi.modules.auth.vo.CurrentUserVO;
@@ -20,6 +22,7 @@
  *
  * <p>登录态仍由 Sa-Token 维护，前端通过 /auth/me 恢复当前用户上下文。</p>
  */
+@Bulkhead(BulkheadType.AUTH)
 @RestController
 @RequestMapping("/auth")
 @RequiredArgsConstructor
@@ -3,7 +3,9 @@
 import cn.dev33.satoken.annotation.SaCheckPermission;
 import cn.hutool.core.util.StrUtil;
 import com.haozi.common.utils.Result;
+import com.haozi.modules.monitor.service.RedisKeyAnalyzeService;
 import com.haozi.modules.monitor.vo.Cache;
+import com.haozi.modules.monitor.vo.RedisKeyReport;
 import jakarta.annotation.Resource;
 import org.springframework.data.redis.connection.RedisServerCommands;
 import org.springframework.data.redis.core.RedisCallback;
@@ -22,6 +24,8 @@
 public class CacheController {
     @Resource
     private RedisTemplate<String, Object> redisTemplate;
+    @Resource
+    private RedisKeyAnalyzeService redisKeyAnalyzeService;
 
     /**
      * Redis详情
@@ -127,4 +131,26 @@ public Result<String> delCacheAll() {
         return Result.ok();
     }
 
+    /**
+     * 最近一次大 key / 热 key 分析报告
+     */
+    @GetMapping("keyAnalysis")
+    @SaCheckPermission("monitor:cache:all")
+    public Result<RedisKeyReport> getKeyAnalysis() {
+        return Result.ok(redisKeyAnalyzeService.getLatestReport());
+    }
+
+    /**
+     * 立即触发一次大 key / 热 key 分析（后台执行）
+     */
+    @PostMapping("keyAnalysis")
+    @SaCheckPermission("monitor:cache:all")
+    public Result<String> triggerKeyAnalysis() {
+        if (redisKeyAnalyzeService.isRunning()) {
+            return Result.error(200, "分析正在进行中，请稍后查看结果");
+        }
+        redisKeyAnalyzeService.analyzeAsync();
+        return Result.ok();
+    }
+
 }
@@ -0,0 +1,34 @@
+package com.haozi.modules.monitor.controller;
+
+import cn.dev33.satoken.annotation.SaCheckPermission;
+import com.haozi.common.executor.ExecutorRegistry;
+import com.haozi.common.utils.Result;
+import com.haozi.modules.monitor.vo.ExecutorStat;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 线程池监控
+ *
+ * @author liliangyu
+ */
+@RestController
+@RequestMapping("/monitor/executor")
+@RequiredArgsConstructor
+public class ExecutorController {
+
+    private final ExecutorRegistry executorRegistry;
+
+    /**
+     * 线程池运行状态：线程数、排队数、拒绝次数、排队与执行耗时
+     */
+    @GetMapping("list")
+    @SaCheckPermission("monitor:server:all")
+    public Result<List<ExecutorStat>> list() {
+        return Result.ok(executorRegistry.snapshot());
+    }
+}
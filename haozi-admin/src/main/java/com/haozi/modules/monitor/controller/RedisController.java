@@ -0,0 +1,57 @@
+package com.haozi.modules.monitor.controller;
+
+import cn.dev33.satoken.annotation.SaCheckPermission;
+import com.haozi.common.lock.LockMetrics;
+import com.haozi.common.redis.RedisCommandMetrics;
+import com.haozi.common.utils.Result;
+import com.haozi.modules.monitor.vo.LockHolder;
+import com.haozi.modules.monitor.vo.LockStat;
+import com.haozi.modules.monitor.vo.RedisCommandStat;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Redis 客户端监控
+ *
+ * @author liliangyu
+ */
+@RestController
+@RequestMapping("/monitor/redis")
+@RequiredArgsConstructor
+public class RedisController {
+
+    private final RedisCommandMetrics redisCommandMetrics;
+
+    private final LockMetrics lockMetrics;
+
+    /**
+     * 按 key 前缀统计的命令次数、延迟与字节数
+     */
+    @GetMapping("commands")
+    @SaCheckPermission("monitor:cache:all")
+    public Result<List<RedisCommandStat>> getCommandStats() {
+        return Result.ok(redisCommandMetrics.snapshot());
+    }
+
+    /**
+     * 按 key 模板统计的分布式锁等待、持有时间与失败次数
+     */
+    @GetMapping("locks")
+    @SaCheckPermission("monitor:cache:all")
+    public Result<List<LockStat>> getLockStats() {
+        return Result.ok(lockMetrics.snapshot());
+    }
+
+    /**
+     * 本节点当前持有的分布式锁
+     */
+    @GetMapping("lockHolders")
+    @SaCheckPermission("monitor:cache:all")
+    public Result<List<LockHolder>> getLockHolders() {
+        return Result.ok(lockMetrics.holders());
+    }
+}
@@ -0,0 +1,37 @@
+package com.haozi.modules.monitor.service;
+
+import com.haozi.modules.monitor.vo.RedisKeyReport;
+
+/**
+ * Redis 大 key / 热 key 分析服务
+ *
+ * @author liliangyu
+ */
+public interface RedisKeyAnalyzeService {
+
+    /**
+     * 执行一次分析（集群内同一时间只有一个节点在执行）
+     *
+     * @return 分析报告；其他节点正在分析时返回 null
+     */
+    RedisKeyReport analyze();
+
+    /**
+     * 异步触发一次分析
+     */
+    void analyzeAsync();
+
+    /**
+     * 获取最近一次分析报告
+     *
+     * @return 分析报告，从未执行过时返回 null
+     */
+    RedisKeyReport getLatestReport();
+
+    /**
+     * 是否正在分析
+     *
+     * @return 是否正在分析
+     */
+    boolean isRunning();
+}
@@ -0,0 +1,307 @@
+package com.haozi.modules.monitor.service.impl;
+
+import cn.hutool.core.util.StrUtil;
+import com.haozi.common.config.ProjectConfiguration;
+import com.haozi.common.lock.RedisLockService;
+import com.haozi.modules.monitor.service.RedisKeyAnalyzeService;
+import com.haozi.modules.monitor.vo.RedisKeyPrefixStat;
+import com.haozi.modules.monitor.vo.RedisKeyReport;
+import com.haozi.modules.monitor.vo.RedisKeyStat;
+import jakarta.annotation.Resource;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Redis 大 key / 热 key 分析服务实现
+ * <p>
+ * 通过增量 SCAN 遍历 key，每批 key 用一段 Lua 脚本在一次往返内批量采样 TYPE / MEMORY USAGE / OBJECT FREQ，
+ * 批次之间暂停以限制对 Redis 的压力；结果按前缀聚合后写回 Redis，任意节点都可以读取。
+ *
+ * @author liliangyu
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RedisKeyAnalyzeServiceImpl implements RedisKeyAnalyzeService {
+
+    /**
+     * 分析报告缓存 key
+     */
+    private static final String REPORT_KEY = "monitor:redis:analyze:report";
+    /**
+     * 分析任务锁，保证集群内同一时间只有一个节点在扫描
+     */
+    private static final String ANALYZE_LOCK_KEY = "monitor:redis:analyze";
+    /**
+     * 定时分析周期标记，一个周期内只有先写入标记的节点执行
+     */
+    private static final String ANALYZE_CYCLE_KEY = "monitor:redis:analyze:cycle";
+    /**
+     * 报告保留时间(天)
+     */
+    private static final long REPORT_TTL_DAYS = 7;
+
+    /**
+     * 批量采样脚本：返回 {type, bytes, freq} 列表，freq 在未开启 LFU 策略时为 -1
+     */
+    private static final RedisScript<List> SAMPLE_SCRIPT = new DefaultRedisScript<>(
+            "local result = {} "
+                    + "local sampleFreq = ARGV[1] == '1' "
+                    + "for i, key in ipairs(KEYS) do "
+                    + "  local t = redis.call('TYPE', key)['ok'] "
+                    + "  local m = redis.call('MEMORY', 'USAGE', key, 'SAMPLES', '5') or 0 "
+                    + "  local f = -1 "
+                    + "  if sampleFreq then "
+                    + "    local v = redis.pcall('OBJECT', 'FREQ', key) "
+                    + "    if type(v) == 'number' then f = v end "
+                    + "  end "
+                    + "  result[i] = {t, m, f} "
+                    + "end "
+                    + "return result",
+            List.class);
+
+    private final ProjectConfiguration projectConfiguration;
+    private final RedisLockService redisLockService;
+
+    @Resource
+    private RedisTemplate<String, Object> redisTemplate;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /**
+     * 定时分析，间隔可通过 project.redis-analyze-properties.fixed-delay 调整
+     * 各节点定时器触发时间不同，分析锁只能避免同时扫描；这里先写入带过期时间的周期标记，
+     * 同一周期内只有一个节点执行
+     */
+    @Scheduled(initialDelayString = "${project.redis-analyze-properties.initial-delay:PT5M}",
+            fixedDelayString = "${project.redis-analyze-properties.fixed-delay:PT1H}")
+    public void scheduledAnalyze() {
+        final ProjectConfiguration.RedisAnalyzeProperties properties = projectConfiguration.getRedisAnalyzeProperties();
+        if (!properties.isEnabled()) {
+            return;
+        }
+        final Boolean claimed = redisTemplate.opsForValue().setIfAbsent(ANALYZE_CYCLE_KEY, System.currentTimeMillis(), properties.getFixedDelay());
+        if (!Boolean.TRUE.equals(claimed)) {
+            log.debug("本周期的 Redis key 分析已由其他节点执行");
+            return;
+        }
+        analyze();
+    }
+
+    /**
+     * 执行一次分析
+     *
+     * @return 分析报告；其他节点正在分析时返回 null
+     */
+    @Override
+    public RedisKeyReport analyze() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Redis key 分析正在执行，忽略本次触发");
+            return null;
+        }
+        // leaseTime 为 -1 时使用 Redisson 看门狗续期，扫描耗时不确定
+        final boolean acquired = redisLockService.tryLock(ANALYZE_LOCK_KEY, 0, -1, TimeUnit.SECONDS, false);
+        if (!acquired) {
+            running.set(false);
+            log.info("其他节点正在执行 Redis key 分析，忽略本次触发");
+            return null;
+        }
+        try {
+            final RedisKeyReport report = doAnalyze();
+            redisTemplate.opsForValue().set(REPORT_KEY, report, REPORT_TTL_DAYS, TimeUnit.DAYS);
+            return report;
+        } catch (Exception e) {
+            log.error("Redis key 分析失败", e);
+            return null;
+        } finally {
+            redisLockService.unlock(ANALYZE_LOCK_KEY, false);
+            running.set(false);
+        }
+    }
+
+    /**
+     * 异步触发一次分析
+     */
+    @Override
+    @Async
+    public void analyzeAsync() {
+        analyze();
+    }
+
+    /**
+     * 获取最近一次分析报告
+     *
+     * @return 分析报告
+     */
+    @Override
+    public RedisKeyReport getLatestReport() {
+        final Object report = redisTemplate.opsForValue().get(REPORT_KEY);
+        return report instanceof RedisKeyReport redisKeyReport ? redisKeyReport : null;
+    }
+
+    /**
+     * 是否正在分析
+     *
+     * @return 是否正在分析
+     */
+    @Override
+    public boolean isRunning() {
+        return running.get() || redisLockService.isLocked(ANALYZE_LOCK_KEY);
+    }
+
+    /**
+     * 增量扫描并采样
+     *
+     * @return 分析报告
+     */
+    private RedisKeyReport doAnalyze() throws InterruptedException {
+        final ProjectConfiguration.RedisAnalyzeProperties properties = projectConfiguration.getRedisAnalyzeProperties();
+        final RedisKeyReport report = new RedisKeyReport();
+        report.setStartTime(LocalDateTime.now());
+        report.setFreqSupported(isFreqSupported());
+
+        final int topN = properties.getTopN();
+        final PriorityQueue<RedisKeyStat> bigKeys = new PriorityQueue<>(Comparator.comparingLong(RedisKeyStat::getBytes));
+        final PriorityQueue<RedisKeyStat> hotKeys = new PriorityQueue<>(Comparator.comparingLong(RedisKeyStat::getFreq));
+        final Map<String, RedisKeyPrefixStat> prefixMap = new HashMap<>(64);
+
+        final ScanOptions scanOptions = ScanOptions.scanOptions().count(properties.getScanCount()).build();
+        final List<String> batch = new ArrayList<>(properties.getBatchSize());
+        try (Cursor<String> cursor = redisTemplate.scan(scanOptions)) {
+            while (cursor.hasNext()) {
+                if (report.getScannedKeys() >= properties.getMaxKeys()) {
+                    report.setTruncated(true);
+                    break;
+                }
+                batch.add(cursor.next());
+                report.setScannedKeys(report.getScannedKeys() + 1);
+                if (batch.size() >= properties.getBatchSize()) {
+                    sampleBatch(batch, report, prefixMap, bigKeys, hotKeys, topN);
+                    batch.clear();
+                    // 批次间暂停，避免扫描占满 Redis
+                    Thread.sleep(properties.getBatchPauseMs());
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            sampleBatch(batch, report, prefixMap, bigKeys, hotKeys, topN);
+        }
+
+        final List<RedisKeyPrefixStat> prefixes = new ArrayList<>(prefixMap.values());
+        prefixes.sort(Comparator.comparingLong(RedisKeyPrefixStat::getTotalBytes).reversed());
+        report.setPrefixes(prefixes);
+        report.setBigKeys(sortDesc(bigKeys, Comparator.comparingLong(RedisKeyStat::getBytes)));
+        report.setHotKeys(sortDesc(hotKeys, Comparator.comparingLong(RedisKeyStat::getFreq)));
+        report.setEndTime(LocalDateTime.now());
+        log.info("Redis key 分析完成, 扫描 {} 个 key, 合计 {} 字节, 前缀 {} 个",
+                report.getScannedKeys(), report.getTotalBytes(), prefixes.size());
+        return report;
+    }
+
+    /**
+     * 一次往返采样一批 key，并更新聚合结果
+     */
+    @SuppressWarnings("unchecked")
+    private void sampleBatch(final List<String> keys, final RedisKeyReport report,
+                             final Map<String, RedisKeyPrefixStat> prefixMap,
+                             final PriorityQueue<RedisKeyStat> bigKeys,
+                             final PriorityQueue<RedisKeyStat> hotKeys,
+                             final int topN) {
+        final List<Object> rows = redisTemplate.execute(SAMPLE_SCRIPT, RedisSerializer.string(), RedisSerializer.string(),
+                keys, report.isFreqSupported() ? "1" : "0");
+        if (rows == null) {
+            return;
+        }
+        final int prefixDepth = projectConfiguration.getRedisAnalyzeProperties().getPrefixDepth();
+        for (int i = 0; i < rows.size() && i < keys.size(); i++) {
+            final List<Object> row = (List<Object>) rows.get(i);
+            final String type = String.valueOf(row.get(0));
+            if ("none".equals(type)) {
+                // 扫描与采样之间 key 已过期
+                continue;
+            }
+            final RedisKeyStat stat = new RedisKeyStat(keys.get(i), type, toLong(row.get(1)), toLong(row.get(2)));
+            report.setTotalBytes(report.getTotalBytes() + stat.getBytes());
+            prefixMap.computeIfAbsent(resolvePrefix(stat.getKey(), prefixDepth), RedisKeyPrefixStat::new).add(stat);
+            offer(bigKeys, stat, topN);
+            if (stat.getFreq() > 0) {
+                offer(hotKeys, stat, topN);
+            }
+        }
+    }
+
+    /**
+     * 判断服务端是否开启了 LFU 淘汰策略（OBJECT FREQ 依赖 LFU）
+     *
+     * @return 是否支持
+     */
+    private boolean isFreqSupported() {
+        try {
+            final Properties config = redisTemplate.execute(
+                    (RedisCallback<Properties>) connection ->
+                            connection.serverCommands().getConfig("maxmemory-policy"));
+            if (config == null) {
+                return false;
+            }
+            return config.values().stream().anyMatch(value -> StrUtil.containsIgnoreCase(String.valueOf(value), "lfu"));
+        } catch (Exception e) {
+            // 托管 Redis 可能禁用了 CONFIG 命令
+            log.debug("读取 maxmemory-policy 失败，跳过热 key 采样", e);
+            return false;
+        }
+    }
+
+    /**
+     * 解析 key 前缀，例如 depth=2 时 sys:config:SYSTEM_NAME -> sys:config:*
+     *
+     * @param key   key
+     * @param depth 层级
+     * @return 前缀
+     */
+    static String resolvePrefix(final String key, final int depth) {
+        int end = -1;
+        for (int i = 0; i < depth; i++) {
+            final int next = key.indexOf(':', end + 1);
+            if (next < 0) {
+                break;
+            }
+            end = next;
+        }
+        return end < 0 ? key : key.substring(0, end + 1) + "*";
+    }
+
+    private static void offer(final PriorityQueue<RedisKeyStat> queue, final RedisKeyStat stat, final int topN) {
+        queue.offer(stat);
+        if (queue.size() > topN) {
+            queue.poll();
+        }
+    }
+
+    private static List<RedisKeyStat> sortDesc(final PriorityQueue<RedisKeyStat> queue, final Comparator<RedisKeyStat> comparator) {
+        final List<RedisKeyStat> list = new ArrayList<>(queue);
+        list.sort(comparator.reversed());
+        return list;
+    }
+
+    private static long toLong(final Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        return value == null ? 0 : Long.parseLong(value.toString());
+    }
+}
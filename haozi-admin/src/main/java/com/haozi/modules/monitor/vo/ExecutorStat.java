@@ -0,0 +1,74 @@
+package com.haozi.modules.monitor.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 线程池运行状态
+ *
+ * @author liliangyu
+ */
+@Data
+public class ExecutorStat implements Serializable {
+    /**
+     * 线程池名称
+     */
+    private String name;
+    /**
+     * 类型：platform / virtual
+     */
+    private String type;
+    /**
+     * 核心线程数（虚拟线程为并发上限）
+     */
+    private int corePoolSize;
+    /**
+     * 最大线程数（虚拟线程为并发上限）
+     */
+    private int maxPoolSize;
+    /**
+     * 当前线程数
+     */
+    private int poolSize;
+    /**
+     * 正在执行的任务数
+     */
+    private int active;
+    /**
+     * 排队中的任务数（虚拟线程为等待许可的任务数）
+     */
+    private int queued;
+    /**
+     * 队列容量
+     */
+    private int queueCapacity;
+    /**
+     * 已完成任务数
+     */
+    private long completed;
+    /**
+     * 被拒绝次数
+     */
+    private long rejected;
+    /**
+     * 由调用线程执行的次数
+     */
+    private long callerRuns;
+    /**
+     * 平均排队时间(毫秒)
+     */
+    private double waitMeanMs;
+    /**
+     * 最大排队时间(毫秒)
+     */
+    private double waitMaxMs;
+    /**
+     * 平均执行时间(毫秒)
+     */
+    private double runMeanMs;
+    /**
+     * 最大执行时间(毫秒)
+     */
+    private double runMaxMs;
+}
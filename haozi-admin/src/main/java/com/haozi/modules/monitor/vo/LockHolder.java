@@ -0,0 +1,34 @@
+package com.haozi.modules.monitor.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 本节点当前持有的分布式锁
+ *
+ * @author liliangyu
+ */
+@Data
+public class LockHolder implements Serializable {
+    /**
+     * 完整锁 key
+     */
+    private String key;
+    /**
+     * key 模板
+     */
+    private String keyTemplate;
+    /**
+     * 持有线程
+     */
+    private String thread;
+    /**
+     * 加锁时的链路 traceId
+     */
+    private String traceId;
+    /**
+     * 已持有时间(毫秒)
+     */
+    private long heldMs;
+}
@@ -0,0 +1,54 @@
+package com.haozi.modules.monitor.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 分布式锁按 key 模板统计的指标
+ *
+ * @author liliangyu
+ */
+@Data
+public class LockStat implements Serializable {
+    /**
+     * key 模板（注解上未展开的 key）
+     */
+    private String keyTemplate;
+    /**
+     * 获取成功次数
+     */
+    private long acquired;
+    /**
+     * 获取失败次数（超时或异常）
+     */
+    private long failures;
+    /**
+     * 当前持有数（本节点）
+     */
+    private int holders;
+    /**
+     * 平均等待时间(毫秒)
+     */
+    private double waitMeanMs;
+    /**
+     * P99 等待时间(毫秒)
+     */
+    private double waitP99Ms;
+    /**
+     * 最大等待时间(毫秒)
+     */
+    private double waitMaxMs;
+    /**
+     * 平均持有时间(毫秒)
+     */
+    private double holdMeanMs;
+    /**
+     * P99 持有时间(毫秒)
+     */
+    private double holdP99Ms;
+    /**
+     * 最大持有时间(毫秒)
+     */
+    private double holdMaxMs;
+}
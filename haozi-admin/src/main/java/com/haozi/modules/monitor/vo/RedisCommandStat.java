@@ -0,0 +1,71 @@
+package com.haozi.modules.monitor.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * Redis 客户端按 key 前缀统计的命令指标
+ *
+ * @author liliangyu
+ */
+@Data
+public class RedisCommandStat implements Serializable {
+    /**
+     * key 前缀
+     */
+    private String prefix;
+    /**
+     * 命令次数
+     */
+    private long calls;
+    /**
+     * 计入延迟统计的命令次数（管道/事务内排队的命令不计延迟）
+     */
+    private long timedCalls;
+    /**
+     * 失败次数
+     */
+    private long errors;
+    /**
+     * 累计耗时(毫秒)
+     */
+    private double totalTimeMs;
+    /**
+     * 平均耗时(毫秒)
+     */
+    private double meanMs;
+    /**
+     * P50 耗时(毫秒)
+     */
+    private double p50Ms;
+    /**
+     * P95 耗时(毫秒)
+     */
+    private double p95Ms;
+    /**
+     * P99 耗时(毫秒)
+     */
+    private double p99Ms;
+    /**
+     * 最大耗时(毫秒)
+     */
+    private double maxMs;
+    /**
+     * 请求字节数合计
+     */
+    private long requestBytes;
+    /**
+     * 响应字节数合计
+     */
+    private long responseBytes;
+    /**
+     * 各命令次数
+     */
+    private Map<String, Long> commands;
+    /**
+     * 采样到的调用位置及次数
+     */
+    private Map<String, Long> callSites;
+}
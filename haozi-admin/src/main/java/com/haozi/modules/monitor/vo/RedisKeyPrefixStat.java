@@ -0,0 +1,54 @@
+package com.haozi.modules.monitor.vo;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Redis 按 key 前缀聚合的统计
+ *
+ * @author liliangyu
+ */
+@Data
+@NoArgsConstructor
+public class RedisKeyPrefixStat implements Serializable {
+    /**
+     * 前缀，例如 sys:config:*
+     */
+    private String prefix;
+    /**
+     * key 数量
+     */
+    private long keyCount;
+    /**
+     * 占用内存合计(字节)
+     */
+    private long totalBytes;
+    /**
+     * 单个 key 最大占用(字节)
+     */
+    private long maxBytes;
+    /**
+     * 访问频率合计
+     */
+    private long totalFreq;
+
+    public RedisKeyPrefixStat(final String prefix) {
+        this.prefix = prefix;
+    }
+
+    /**
+     * 累加一个 key 的采样结果
+     *
+     * @param stat 采样结果
+     */
+    public void add(final RedisKeyStat stat) {
+        keyCount++;
+        totalBytes += stat.getBytes();
+        maxBytes = Math.max(maxBytes, stat.getBytes());
+        if (stat.getFreq() > 0) {
+            totalFreq += stat.getFreq();
+        }
+    }
+}
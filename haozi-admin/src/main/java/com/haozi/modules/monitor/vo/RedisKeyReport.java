@@ -0,0 +1,53 @@
+package com.haozi.modules.monitor.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Redis 大 key / 热 key 分析报告
+ *
+ * @author liliangyu
+ */
+@Data
+public class RedisKeyReport implements Serializable {
+    /**
+     * 开始时间
+     */
+    private LocalDateTime startTime;
+    /**
+     * 结束时间
+     */
+    private LocalDateTime endTime;
+    /**
+     * 已扫描 key 数量
+     */
+    private long scannedKeys;
+    /**
+     * 是否因达到 maxKeys 上限而提前结束
+     */
+    private boolean truncated;
+    /**
+     * 已扫描 key 的内存合计(字节)
+     */
+    private long totalBytes;
+    /**
+     * 服务端是否支持 OBJECT FREQ（需要 LFU 淘汰策略）
+     */
+    private boolean freqSupported;
+    /**
+     * 前缀聚合，按内存占用降序
+     */
+    private List<RedisKeyPrefixStat> prefixes = new ArrayList<>();
+    /**
+     * 大 key 榜单
+     */
+    private List<RedisKeyStat> bigKeys = new ArrayList<>();
+    /**
+     * 热 key 榜单
+     */
+    private List<RedisKeyStat> hotKeys = new ArrayList<>();
+}
@@ -0,0 +1,34 @@
+package com.haozi.modules.monitor.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Redis 单个 key 的采样结果
+ *
+ * @author liliangyu
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RedisKeyStat implements Serializable {
+    /**
+     * key
+     */
+    private String key;
+    /**
+     * 数据类型(string/list/hash/set/zset/stream)
+     */
+    private String type;
+    /**
+     * 占用内存(字节)，来自 MEMORY USAGE
+     */
+    private long bytes;
+    /**
+     * LFU 访问频率，来自 OBJECT FREQ；未开启 LFU 淘汰策略时为 -1
+     */
+    private long freq;
+}
@@ -1,6 +1,8 @@
 package com.haozi.modules.sys.controller;
 
 import cn.dev33.satoken.annotation.SaIgnore;
+import com.haozi.common.bulkhead.Bulkhead;
+import com.haozi.common.bulkhead.BulkheadType;
 import com.haozi.common.utils.Result;
 import com.haozi.modules.sys.dto.SysAccountLoginDTO;
 import com.haozi.modules.sys.service.SysAuthService;
@@ -16,6 +18,7 @@
  *
  * @author lliyuu520 lliyuu520@gmail.com
  */
+@Bulkhead(BulkheadType.AUTH)
 @RestController
 @RequestMapping("/sys/auth")
 @AllArgsConstructor
@@ -41,5 +41,14 @@ public Result<String> addDownloadTimes(@PathVariable Long id) {
         return Result.ok();
     }
 
+    /**
+     * 取消排队中或执行中的导出任务
+     */
+    @PostMapping("/cancel/{id}")
+    public Result<String> cancel(@PathVariable Long id) {
+        sysDownloadCenterService.cancel(id);
+        return Result.ok();
+    }
+
 
 }
\ No newline at end of file
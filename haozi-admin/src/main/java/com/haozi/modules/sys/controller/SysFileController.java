@@ -1,6 +1,8 @@
 package com.haozi.modules.sys.controller;
 
 import cn.dev33.satoken.annotation.SaIgnore;
+import com.haozi.common.bulkhead.Bulkhead;
+import com.haozi.common.bulkhead.BulkheadType;
 import com.haozi.common.utils.AliyunOssUtil;
 import com.haozi.common.utils.Result;
 import com.haozi.common.vo.OssPolicyVO;
@@ -31,6 +33,7 @@ public class SysFileController {
      * @throws Exception
      */
     @PostMapping("/uploadOss")
+    @Bulkhead(BulkheadType.EXTERNAL_HTTP)
     public Result<SysFileVO> uploadOss(@RequestParam("file") final MultipartFile file) throws Exception {
         if (file.isEmpty()) {
             return Result.error("请选择需要上传的文件");
@@ -5,6 +5,7 @@
 import cn.hutool.core.util.StrUtil;
 import com.haozi.common.base.page.PageVO;
 import com.haozi.common.exception.BaseException;
+import com.haozi.common.idempotent.Idempotent;
 import com.haozi.common.satoken.user.UserDetail;
 import com.haozi.common.utils.Result;
 import com.haozi.common.utils.SysUserUtil;
@@ -113,6 +114,7 @@ public Result<String> resetPassword(@RequestBody final SysUserPasswordDTO sysUse
      */
     @PostMapping
     @SaCheckPermission("sys:user:save")
+    @Idempotent
     public Result<String> save(@RequestBody final SysUserDTO sysUserDTO) {
         // 保存
         this.sysUserService.saveOne(sysUserDTO);
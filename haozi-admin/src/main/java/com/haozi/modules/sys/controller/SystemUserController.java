@@ -4,6 +4,7 @@
 import cn.hutool.core.util.ObjUtil;
 import com.haozi.common.base.page.PageVO;
 import com.haozi.common.exception.BaseException;
+import com.haozi.common.idempotent.Idempotent;
 import com.haozi.common.model.PageResult;
 import com.haozi.common.utils.Result;
 import com.haozi.common.utils.SysUserUtil;
@@ -112,6 +113,7 @@ public Result<List<RoleOptionVO>> roleOptions() {
      */
     @PostMapping
     @SaCheckPermission("sys:user:save")
+    @Idempotent
     public Result<Void> create(@RequestBody final SysUserDTO dto) {
         sysUserService.saveOne(dto);
         return Result.ok();
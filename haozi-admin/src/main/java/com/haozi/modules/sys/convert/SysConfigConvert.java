@@ -1,5 +1,6 @@
 package com.haozi.modules.sys.convert;
 
+import com.haozi.common.dto.FileDTO;
 import com.haozi.modules.sys.dto.SysConfigDTO;
 import com.haozi.modules.sys.entity.SysConfig;
 import com.haozi.modules.sys.vo.SysConfigVO;
@@ -23,4 +24,13 @@ public interface SysConfigConvert {
 
     List<SysConfigVO> convertToVOList(List<SysConfig> entityList);
 
+    /**
+     * 深拷贝，文件列表逐项复制
+     */
+    SysConfig copy(SysConfig entity);
+
+    FileDTO copyFile(FileDTO file);
+
+    List<FileDTO> copyFiles(List<FileDTO> files);
+
 }
\ No newline at end of file
@@ -0,0 +1,64 @@
+package com.haozi.modules.sys.dto;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 导出进度
+ *
+ * @author liliangyu
+ */
+@Data
+public class ExportProgressDTO implements Serializable {
+    /**
+     * 下载中心ID
+     */
+    private Long downloadCenterId;
+    /**
+     * 提交用户ID
+     */
+    private Long userId;
+    /**
+     * 文件名
+     */
+    private String fileName;
+    /**
+     * 阶段
+     *
+     * @see com.haozi.modules.sys.enums.ExportPhase
+     */
+    private String phase;
+    /**
+     * 已写入行数
+     */
+    private Long rows;
+    /**
+     * 预计总行数，未知时为 null
+     */
+    private Long expectedRows;
+    /**
+     * 已生成字节数
+     */
+    private Long bytes;
+    /**
+     * 已用时间(毫秒)
+     */
+    private Long elapsedMs;
+    /**
+     * 预计剩余时间(秒)，总行数未知时为 null
+     */
+    private Long etaSeconds;
+    /**
+     * 下载地址，成功时有值
+     */
+    private String url;
+    /**
+     * 错误信息
+     */
+    private String message;
+    /**
+     * 更新时间戳(毫秒)
+     */
+    private Long updateTime;
+}
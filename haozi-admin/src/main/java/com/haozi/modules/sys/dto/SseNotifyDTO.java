@@ -1 +1 @@
-package com.haozi.modules.sys.dto;import com.haozi.modules.sys.enums.SseNotifyType;import lombok.Data;import java.io.Serializable;/** * * * @author liliangyu */@Datapublic class SseNotifyDTO  implements Serializable {    /**     * 类型     */    private String type;    /**     *  标题     */    private String title;    /**     * 消息     */    private String message;    /**     * 链接     */    private String url;    private String fileName;    public static SseNotifyDTO build(SseNotifyType sseNotifyType) {        final SseNotifyDTO sseNotifyDTO = new SseNotifyDTO();        sseNotifyDTO.setType( sseNotifyType.getType());        sseNotifyDTO.setTitle( sseNotifyType.getTitle());       return sseNotifyDTO;    }}
\ No newline at end of file
+package com.haozi.modules.sys.dto;import com.haozi.modules.sys.enums.SseNotifyType;import lombok.Data;import java.io.Serializable;/** * * * @author liliangyu */@Datapublic class SseNotifyDTO  implements Serializable {    /**     * 类型     */    private String type;    /**     *  标题     */    private String title;    /**     * 消息     */    private String message;    /**     * 链接     */    private String url;    private String fileName;    /**     * 导出进度，进度通知时有值     */    private ExportProgressDTO progress;    public static SseNotifyDTO build(SseNotifyType sseNotifyType) {        final SseNotifyDTO sseNotifyDTO = new SseNotifyDTO();        sseNotifyDTO.setType( sseNotifyType.getType());        sseNotifyDTO.setTitle( sseNotifyType.getTitle());       return sseNotifyDTO;    }}
\ No newline at end of file
@@ -31,13 +31,45 @@ public class SysDownloadCenter extends BaseEntity {
      */
     private LocalDateTime completedDateTime;
     /**
-     * 导出状态：SUCCESS/FAILED
+     * 导出状态：QUEUED/RUNNING/SUCCESS/FAILED/CANCELLED
+     *
+     * @see com.haozi.modules.sys.enums.DownloadStatus
      */
     private String status;
     /**
      * 错误信息
      */
     private String remark;
+    /**
+     * 任务类型，对应 ExportJobHandler 的类型
+     */
+    private String jobType;
+    /**
+     * 任务参数(JSON)
+     */
+    private String jobParams;
+    /**
+     * 优先级，编码越小越先执行
+     *
+     * @see com.haozi.modules.sys.enums.ExportJobPriority
+     */
+    private Integer priority;
+    /**
+     * 已执行次数
+     */
+    private Integer attempts;
+    /**
+     * 租约持有节点
+     */
+    private String leaseOwner;
+    /**
+     * 租约到期时间，持有节点定时续约
+     */
+    private LocalDateTime leaseExpireTime;
+    /**
+     * 开始执行时间
+     */
+    private LocalDateTime startedDateTime;
 
 
 
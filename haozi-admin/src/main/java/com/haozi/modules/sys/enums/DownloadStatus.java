@@ -0,0 +1,41 @@
+package com.haozi.modules.sys.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 下载中心任务状态，以枚举名保存
+ *
+ * @author liliangyu
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public enum DownloadStatus {
+    /**
+     * 排队中
+     */
+    QUEUED("排队中"),
+    /**
+     * 导出中
+     */
+    RUNNING("导出中"),
+    /**
+     * 导出成功
+     */
+    SUCCESS("导出成功"),
+    /**
+     * 导出失败
+     */
+    FAILED("导出失败"),
+    /**
+     * 已取消
+     */
+    CANCELLED("已取消"),
+    ;
+    /**
+     * 描述
+     */
+    private final String desc;
+}
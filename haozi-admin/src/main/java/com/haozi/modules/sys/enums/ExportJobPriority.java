@@ -0,0 +1,37 @@
+package com.haozi.modules.sys.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 导出任务优先级，编码越小越先执行
+ *
+ * @author liliangyu
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public enum ExportJobPriority {
+    /**
+     * 高优先级，可使用节点保留的线程
+     */
+    HIGH(0, "高"),
+    /**
+     * 普通
+     */
+    NORMAL(1, "普通"),
+    /**
+     * 低优先级，如定时生成的报表
+     */
+    LOW(2, "低"),
+    ;
+    /**
+     * 编码
+     */
+    private final Integer code;
+    /**
+     * 描述
+     */
+    private final String desc;
+}
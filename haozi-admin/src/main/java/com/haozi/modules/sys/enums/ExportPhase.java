@@ -0,0 +1,50 @@
+package com.haozi.modules.sys.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 导出进度阶段
+ *
+ * @author liliangyu
+ */
+@AllArgsConstructor
+@Getter
+@ToString
+public enum ExportPhase {
+    /**
+     * 查询并写入数据
+     */
+    WRITING("写入中"),
+    /**
+     * 数据已写完，生成文件并上传剩余分片
+     */
+    UPLOADING("上传中"),
+    /**
+     * 导出成功
+     */
+    SUCCESS("导出成功"),
+    /**
+     * 导出失败
+     */
+    FAILED("导出失败"),
+    /**
+     * 已取消
+     */
+    CANCELLED("已取消"),
+    ;
+    /**
+     * 描述
+     */
+    private final String desc;
+
+    /**
+     * 是否已结束
+     *
+     * @return 是否已结束
+     */
+    public boolean isFinished() {
+        return this == SUCCESS || this == FAILED || this == CANCELLED;
+    }
+}
@@ -1 +1 @@
-package com.haozi.modules.sys.enums;import lombok.AllArgsConstructor;import lombok.Getter;import lombok.ToString;/** * SseNotifyType * * @author liliangyu */@AllArgsConstructor@Getter@ToStringpublic enum SseNotifyType {    /**     * 文件下载成功     */    FILE_DOWNLOAD_SUCCESS("success", "下载成功"),    ;    /**     * 编码     */    private final String type;    /**     * 标题     */    private final String title;}
\ No newline at end of file
+package com.haozi.modules.sys.enums;import lombok.AllArgsConstructor;import lombok.Getter;import lombok.ToString;/** * SseNotifyType * * @author liliangyu */@AllArgsConstructor@Getter@ToStringpublic enum SseNotifyType {    /**     * 文件下载成功     */    FILE_DOWNLOAD_SUCCESS("success", "下载成功"),    /**     * 导出进度     */    FILE_EXPORT_PROGRESS("progress", "导出进度"),    ;    /**     * 编码     */    private final String type;    /**     * 标题     */    private final String title;}
\ No newline at end of file
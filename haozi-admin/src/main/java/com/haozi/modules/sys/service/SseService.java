@@ -1,5 +1,6 @@
 package com.haozi.modules.sys.service;
 
+import com.haozi.modules.sys.dto.ExportProgressDTO;
 import com.haozi.modules.sys.enums.SseNotifyType;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
@@ -18,6 +19,13 @@ public interface SseService {
      */
     void sendDownloadNotification(Long userId, SseNotifyType sseNotifyType,String uploadExcelUrl,String name);
 
+    /**
+     * 发送导出进度给指定用户
+     * @param userId 用户ID
+     * @param progress 导出进度
+     */
+    void sendExportProgress(Long userId, ExportProgressDTO progress);
+
     /**
      * 关闭用户SSE连接
      * @param userId 用户ID
@@ -3,6 +3,7 @@
 import com.haozi.common.base.page.PageVO;
 import com.haozi.common.base.service.BaseService;
 import com.haozi.modules.sys.entity.SysDownloadCenter;
+import com.haozi.modules.sys.enums.ExportJobPriority;
 import com.haozi.modules.sys.query.SysDownloadCenterQuery;
 import com.haozi.modules.sys.vo.SysDownloadCenterVO;
 
@@ -27,6 +28,24 @@ public interface SysDownloadCenterService extends BaseService<SysDownloadCenter>
      */
     void addDownloadTimes(Long id);
 
+    /**
+     * 提交导出任务，由 ExportJobScheduler 排队执行
+     *
+     * @param name     文件名
+     * @param jobType  任务类型，对应 ExportJobHandler 的类型
+     * @param params   任务参数，保存为 JSON
+     * @param priority 优先级
+     * @return 下载中心ID
+     */
+    Long submitExport(String name, String jobType, Object params, ExportJobPriority priority);
+
+    /**
+     * 取消当前用户排队中或执行中的导出任务
+     *
+     * @param id 下载中心ID
+     */
+    void cancel(Long id);
+
 
 
 
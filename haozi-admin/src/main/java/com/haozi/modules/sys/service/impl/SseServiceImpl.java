@@ -1,7 +1,9 @@
 package com.haozi.modules.sys.service.impl;
 
 import cn.hutool.json.JSONUtil;
+import com.haozi.modules.sys.dto.ExportProgressDTO;
 import com.haozi.modules.sys.dto.SseNotifyDTO;
+import com.haozi.modules.sys.enums.ExportPhase;
 import com.haozi.modules.sys.enums.SseNotifyType;
 import com.haozi.modules.sys.service.SseService;
 import lombok.RequiredArgsConstructor;
@@ -56,6 +58,32 @@ public void sendDownloadNotification(Long userId, SseNotifyType sseNotifyType,St
         }
     }
 
+    /**
+     *  发送导出进度
+     * @param userId 用户ID
+     * @param progress 导出进度
+     */
+    @Override
+    public void sendExportProgress(Long userId, ExportProgressDTO progress) {
+        SseEmitter emitter = emitters.get(userId);
+        if (emitter != null) {
+            try {
+                final SseNotifyDTO sseNotifyDTO = SseNotifyDTO.build(SseNotifyType.FILE_EXPORT_PROGRESS);
+                sseNotifyDTO.setMessage(ExportPhase.valueOf(progress.getPhase()).getDesc());
+                sseNotifyDTO.setUrl(progress.getUrl());
+                sseNotifyDTO.setFileName(progress.getFileName());
+                sseNotifyDTO.setProgress(progress);
+
+                emitter.send(SseEmitter.event()
+                        .data(JSONUtil.toJsonStr(sseNotifyDTO))
+                        .reconnectTime(3000));
+            } catch (IOException e) {
+                log.error("发送导出进度给用户{}失败", userId, e);
+                emitters.remove(userId);
+            }
+        }
+    }
+
     /**
      *是否有连接
      * @param userId 用户ID
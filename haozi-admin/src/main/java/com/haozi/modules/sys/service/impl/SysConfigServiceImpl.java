@@ -150,7 +150,7 @@ public SysConfig getByCode(String code) {
     public void init() {
         sysConfigCache.clearAll();
         final List<SysConfig> sysConfigs = list();
-        sysConfigs.forEach(sysConfigCache::set);
+        sysConfigCache.setAll(sysConfigs);
 
     }
 }
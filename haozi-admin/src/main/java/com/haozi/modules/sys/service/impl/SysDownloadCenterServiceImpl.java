@@ -3,11 +3,18 @@
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import cn.hutool.json.JSONUtil;
 import com.haozi.common.base.page.PageVO;
 import com.haozi.common.base.service.impl.BaseServiceImpl;
+import com.haozi.common.exception.BaseException;
+import com.haozi.common.export.ExportJobScheduler;
+import com.haozi.common.export.ExportProgressReporter;
 import com.haozi.common.utils.SysUserUtil;
 import com.haozi.modules.sys.convert.SysDownloadCenterConvert;
+import com.haozi.modules.sys.dto.ExportProgressDTO;
 import com.haozi.modules.sys.entity.SysDownloadCenter;
+import com.haozi.modules.sys.enums.DownloadStatus;
+import com.haozi.modules.sys.enums.ExportJobPriority;
 import com.haozi.modules.sys.mapper.SysDownloadCenterMapper;
 import com.haozi.modules.sys.query.SysDownloadCenterQuery;
 import com.haozi.modules.sys.service.SysDownloadCenterService;
@@ -17,6 +24,9 @@
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * 系统参数服务实现
  *
@@ -27,6 +37,9 @@
 @Slf4j
 public class SysDownloadCenterServiceImpl extends BaseServiceImpl<SysDownloadCenterMapper, SysDownloadCenter> implements SysDownloadCenterService {
 
+    private final ExportJobScheduler exportJobScheduler;
+    private final ExportProgressReporter exportProgressReporter;
+
 
     /**
      * 分页查询
@@ -37,9 +50,18 @@ public class SysDownloadCenterServiceImpl extends BaseServiceImpl<SysDownloadCen
     @Override
     public PageVO<SysDownloadCenterVO> pageVO(SysDownloadCenterQuery query) {
         final IPage<SysDownloadCenter> page = page(getPage(query), buildWrapper(query));
+        final List<SysDownloadCenterVO> list = SysDownloadCenterConvert.INSTANCE.convertToVOList(page.getRecords());
+
+        // 未结束的记录从 Redis 读取实时进度
+        final List<Long> unfinishedIds = list.stream()
+                .filter(vo -> DownloadStatus.QUEUED.name().equals(vo.getStatus()) || DownloadStatus.RUNNING.name().equals(vo.getStatus()))
+                .map(SysDownloadCenterVO::getId)
+                .toList();
+        final Map<Long, ExportProgressDTO> progressMap = exportProgressReporter.get(unfinishedIds);
+        list.forEach(vo -> vo.setProgress(progressMap.get(vo.getId())));
 
         // 转换为VO并返回
-        return PageVO.of(SysDownloadCenterConvert.INSTANCE.convertToVOList(page.getRecords()), page.getTotal());
+        return PageVO.of(list, page.getTotal());
     }
 
     /**
@@ -56,6 +78,45 @@ public void addDownloadTimes(Long id) {
 
     }
 
+    /**
+     * 提交导出任务
+     *
+     * @param name     文件名
+     * @param jobType  任务类型
+     * @param params   任务参数
+     * @param priority 优先级
+     * @return 下载中心ID
+     */
+    @Override
+    public Long submitExport(String name, String jobType, Object params, ExportJobPriority priority) {
+        final SysDownloadCenter sysDownloadCenter = new SysDownloadCenter();
+        sysDownloadCenter.setName(name);
+        sysDownloadCenter.setJobType(jobType);
+        sysDownloadCenter.setJobParams(params != null ? JSONUtil.toJsonStr(params) : null);
+        sysDownloadCenter.setPriority(priority.getCode());
+        sysDownloadCenter.setStatus(DownloadStatus.QUEUED.name());
+        sysDownloadCenter.setDownloadTimes(0);
+        sysDownloadCenter.setAttempts(0);
+        save(sysDownloadCenter);
+        return sysDownloadCenter.getId();
+    }
+
+    /**
+     * 取消导出任务
+     *
+     * @param id 下载中心ID
+     */
+    @Override
+    public void cancel(Long id) {
+        final SysDownloadCenter sysDownloadCenter = getById(id);
+        if (sysDownloadCenter == null || !SysUserUtil.getUserInfo().getId().equals(sysDownloadCenter.getCreator())) {
+            throw new BaseException("导出任务不存在");
+        }
+        if (!exportJobScheduler.cancel(id)) {
+            throw new BaseException("导出任务已结束，无法取消");
+        }
+    }
+
     /**
      * 构建查询条件
      *
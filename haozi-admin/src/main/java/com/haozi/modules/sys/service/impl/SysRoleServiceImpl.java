@@ -26,8 +26,10 @@
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 系统角色服务实现类
@@ -197,16 +199,18 @@ public List<String> getPermission() {
             return List.of();
         }
         List<String> permissionList = CollUtil.newArrayList();
-        roleIdList.forEach(roleId -> {
-            // 先从缓存中获取
-            List<String> permission = rollPermissionCache.getPermission(roleId);
+        // 一次往返读取所有角色的缓存
+        final Map<Long, List<String>> cached = rollPermissionCache.getPermissions(roleIdList);
+        final Map<Long, List<String>> missing = new HashMap<>(4);
+        cached.forEach((roleId, permission) -> {
             if (CollUtil.isEmpty(permission)) {
                 // 缓存中没有，从数据库中获取
                 permission = getRollPermission(roleId);
-                rollPermissionCache.setPermission(roleId, permission);
+                missing.put(roleId, permission);
             }
             permissionList.addAll(permission);
         });
+        rollPermissionCache.setPermissions(missing);
         return new HashSet<>(permissionList).stream().toList();
     }
 
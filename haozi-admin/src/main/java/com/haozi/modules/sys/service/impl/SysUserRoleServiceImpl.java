@@ -4,6 +4,7 @@
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import com.haozi.common.base.service.impl.BaseServiceImpl;
+import com.haozi.common.lock.RedisLock;
 import com.haozi.modules.sys.entity.SysRole;
 import com.haozi.modules.sys.entity.SysUserRole;
 import com.haozi.modules.sys.mapper.SysRoleMapper;
@@ -25,16 +26,24 @@
 @Service
 @RequiredArgsConstructor
 public class SysUserRoleServiceImpl extends BaseServiceImpl<SysUserRoleMapper, SysUserRole> implements SysUserRoleService {
+    /**
+     * 用户角色关系锁前缀，按用户粒度互斥
+     */
+    private static final String USER_ROLE_LOCK_PREFIX = "sys:user:role:";
+
     private final SysRoleMapper sysRoleMapper;
 
     /**
      * 保存或更新
+     * <p>
+     * 由保存、编辑用户在其事务中调用，锁在外层事务完成后才释放
      *
      * @param userId     用户ID
      * @param roleIdList 角色ID列表
      */
     @Override
     @Transactional(rollbackFor = Exception.class)
+    @RedisLock(key = USER_ROLE_LOCK_PREFIX + "#{#userId}")
     public void saveOrUpdate(final Long userId, final List<Long> roleIdList) {
         // 数据库角色ID列表
         final List<Long> dbRoleIdList = this.getRoleIdList(userId);
@@ -1,5 +1,6 @@
 package com.haozi.modules.sys.vo;
 
+import com.haozi.modules.sys.dto.ExportProgressDTO;
 import com.haozi.modules.sys.entity.SysDownloadCenter;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -13,4 +14,9 @@
 @EqualsAndHashCode(callSuper = true)
 public class SysDownloadCenterVO extends SysDownloadCenter {
 
+    /**
+     * 实时进度，排队中或导出中的记录从 Redis 读取
+     */
+    private ExportProgressDTO progress;
+
 }
\ No newline at end of file
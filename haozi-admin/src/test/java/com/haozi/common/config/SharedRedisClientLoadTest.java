@@ -0,0 +1,160 @@
+package com.haozi.common.config;
+
+import com.haozi.support.BenchmarkSupport;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulRedisConnection;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.redisson.Redisson;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import org.redisson.config.SingleServerConfig;
+import org.redisson.spring.data.connection.RedissonConnectionFactory;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 共用 Redisson 客户端前后的连接数与延迟对比
+ * <p>
+ * 之前：RedisTemplate/Sa-Token 使用 Lettuce 连接池（max-active 8），分布式锁使用默认配置的 Redisson 客户端；
+ * 之后：模板与锁共用一个按 project.redis-client-properties 默认值收紧的 Redisson 客户端。
+ * 两种模式执行相同的负载（90% GET/SET、10% 加解锁），负载结束时读取服务端 connected_clients 减去基线，
+ * 并输出 p50/p99。
+ *
+ * @author liliangyu
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@EnabledIf("com.haozi.support.BenchmarkSupport#redisAvailable")
+class SharedRedisClientLoadTest {
+
+    private static final Pattern CONNECTED_CLIENTS = Pattern.compile("connected_clients:(\\d+)");
+    private static final int THREADS = 32;
+    private static final int OPS_PER_THREAD = 2000;
+    private static final String KEY_PREFIX = "bench:shared-client:";
+
+    private RedisClient probeClient;
+    private StatefulRedisConnection<String, String> probe;
+
+    @BeforeEach
+    void setUp() {
+        probeClient = RedisClient.create("redis://" + BenchmarkSupport.REDIS_HOST + ":" + BenchmarkSupport.REDIS_PORT);
+        probe = probeClient.connect();
+    }
+
+    @AfterEach
+    void tearDown() {
+        probe.close();
+        probeClient.shutdown();
+    }
+
+    @Test
+    void sharedClientOpensFewerConnections() throws Exception {
+        long baseline = connectedClients();
+
+        LettuceConnectionFactory lettuce = pooledLettuce();
+        RedissonClient lockClient = Redisson.create(redissonConfig(null));
+        long beforeConnections;
+        BenchmarkSupport.Result before;
+        try {
+            before = runWorkload(template(lettuce), lockClient);
+            beforeConnections = connectedClients() - baseline;
+        } finally {
+            lettuce.destroy();
+            lockClient.shutdown();
+        }
+
+        RedissonClient shared = Redisson.create(redissonConfig(new ProjectConfiguration().getRedisClientProperties()));
+        long afterConnections;
+        BenchmarkSupport.Result after;
+        try {
+            after = runWorkload(template(new RedissonConnectionFactory(shared)), shared);
+            afterConnections = connectedClients() - baseline;
+        } finally {
+            shared.shutdown();
+        }
+
+        BenchmarkSupport.print("lettuce pool + default redisson", before);
+        System.out.printf("[benchmark] connections before=%d%n", beforeConnections);
+        BenchmarkSupport.print("shared tuned redisson", after);
+        System.out.printf("[benchmark] connections after=%d%n", afterConnections);
+        assertTrue(afterConnections < beforeConnections,
+                "共用客户端后连接数应减少: before=" + beforeConnections + ", after=" + afterConnections);
+    }
+
+    private BenchmarkSupport.Result runWorkload(StringRedisTemplate template, RedissonClient redisson) throws Exception {
+        // 预热：建立连接、加载脚本
+        BenchmarkSupport.run(THREADS, 100, i -> operation(template, redisson, i));
+        return BenchmarkSupport.run(THREADS, OPS_PER_THREAD, i -> operation(template, redisson, i));
+    }
+
+    private static void operation(StringRedisTemplate template, RedissonClient redisson, int index) throws InterruptedException {
+        String key = KEY_PREFIX + (index % 100);
+        if (index % 10 == 0) {
+            RLock lock = redisson.getLock(key + ":lock:" + Thread.currentThread().getId());
+            if (lock.tryLock(0, 1000, TimeUnit.MILLISECONDS)) {
+                lock.unlock();
+            }
+        } else if (index % 2 == 0) {
+            template.opsForValue().set(key, "v" + index, 60, TimeUnit.SECONDS);
+        } else {
+            template.opsForValue().get(key);
+        }
+    }
+
+    private static StringRedisTemplate template(org.springframework.data.redis.connection.RedisConnectionFactory factory) {
+        StringRedisTemplate template = new StringRedisTemplate(factory);
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    private static LettuceConnectionFactory pooledLettuce() {
+        GenericObjectPoolConfig<Object> poolConfig = new GenericObjectPoolConfig<>();
+        poolConfig.setMaxTotal(8);
+        poolConfig.setMaxIdle(8);
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(BenchmarkSupport.REDIS_HOST, BenchmarkSupport.REDIS_PORT),
+                LettucePoolingClientConfiguration.builder().poolConfig(poolConfig).build());
+        // 原配置使用连接池而不是共享连接
+        factory.setShareNativeConnection(false);
+        factory.afterPropertiesSet();
+        factory.start();
+        return factory;
+    }
+
+    /**
+     * properties 为 null 时使用 Redisson 默认值（移除前的配置）
+     */
+    private static Config redissonConfig(ProjectConfiguration.RedisClientProperties properties) {
+        Config config = new Config();
+        SingleServerConfig server = config.useSingleServer()
+                .setAddress("redis://" + BenchmarkSupport.REDIS_HOST + ":" + BenchmarkSupport.REDIS_PORT);
+        if (properties != null) {
+            config.setNettyThreads(properties.getNettyThreads());
+            server.setConnectionPoolSize(properties.getConnectionPoolSize());
+            server.setConnectionMinimumIdleSize(properties.getConnectionMinimumIdleSize());
+            server.setSubscriptionConnectionPoolSize(properties.getSubscriptionConnectionPoolSize());
+            server.setIdleConnectionTimeout((int) properties.getIdleConnectionTimeout().toMillis());
+        }
+        return config;
+    }
+
+    private long connectedClients() {
+        Matcher matcher = CONNECTED_CLIENTS.matcher(probe.sync().info("clients"));
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : 0;
+    }
+}
@@ -0,0 +1,82 @@
+package com.haozi.common.executor;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * IO 型任务在平台线程池与虚拟线程执行器上的吞吐量对比
+ * <p>
+ * 平台线程池与默认 @Async 执行器配置一致（CPU 核数/2 倍核数线程、队列 500、CallerRunsPolicy），
+ * 虚拟线程执行器使用 asyncConcurrency/asyncMaxWaiting 默认值；任务模拟 OSS 上传等阻塞 IO。
+ *
+ * @author liliangyu
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@EnabledForJreRange(min = JRE.JAVA_21)
+class VirtualThreadExecutorBenchmarkTest {
+
+    private static final int TASKS = 5000;
+    private static final long IO_MILLIS = 20;
+
+    @Test
+    void virtualThreadsOutperformPlatformPoolOnBlockingIo() throws Exception {
+        int cpuNum = Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor platform = new ThreadPoolTaskExecutor();
+        platform.setCorePoolSize(cpuNum);
+        platform.setMaxPoolSize(cpuNum * 2);
+        platform.setQueueCapacity(500);
+        platform.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        platform.initialize();
+        double platformThroughput;
+        try {
+            platformThroughput = throughput(platform);
+        } finally {
+            platform.shutdown();
+        }
+
+        double virtualThroughput;
+        try (VirtualThreadExecutor virtual = new VirtualThreadExecutor("bench-virtual-", 200, 500)) {
+            virtualThroughput = throughput(virtual);
+        }
+
+        System.out.printf("[benchmark] %-40s tasks=%d throughput=%.0f/s%n", "platform pool (" + cpuNum * 2 + " threads)",
+                TASKS, platformThroughput);
+        System.out.printf("[benchmark] %-40s tasks=%d throughput=%.0f/s%n", "virtual threads (200 permits)",
+                TASKS, virtualThroughput);
+        assertTrue(virtualThroughput > platformThroughput,
+                "虚拟线程吞吐量应高于平台线程池: platform=" + platformThroughput + ", virtual=" + virtualThroughput);
+    }
+
+    /**
+     * 从单个线程提交全部任务，返回每秒完成的任务数
+     */
+    private static double throughput(Executor executor) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(TASKS);
+        long start = System.nanoTime();
+        for (int i = 0; i < TASKS; i++) {
+            executor.execute(() -> {
+                try {
+                    Thread.sleep(IO_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.MINUTES));
+        return TASKS * 1_000_000_000.0 / (System.nanoTime() - start);
+    }
+}
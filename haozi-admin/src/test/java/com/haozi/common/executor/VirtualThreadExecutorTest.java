@@ -0,0 +1,84 @@
+package com.haozi.common.executor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 虚拟线程执行器测试，需要 JDK 21
+ *
+ * @author liliangyu
+ */
+@EnabledForJreRange(min = JRE.JAVA_21)
+class VirtualThreadExecutorTest {
+
+    private final VirtualThreadExecutor executor = new VirtualThreadExecutor("test-virtual-", 1, 1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.close();
+    }
+
+    @Test
+    void runsOnCallerWhenWaitingLimitReached() throws Exception {
+        AtomicInteger callerRuns = new AtomicInteger();
+        executor.setCallerRunsListener(callerRuns::incrementAndGet);
+        CountDownLatch running = new CountDownLatch(1);
+
+        executor.execute(() -> {
+            running.countDown();
+            await(release);
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        assertEquals(1, executor.getActiveCount());
+
+        CountDownLatch waitingDone = new CountDownLatch(1);
+        executor.execute(waitingDone::countDown);
+        assertEquals(1, executor.getWaitingCount());
+
+        // 并发数与等待名额都已占满，第三个任务在提交线程执行
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+        executor.execute(() -> ranOn.set(Thread.currentThread()));
+        assertSame(Thread.currentThread(), ranOn.get());
+        assertEquals(1, callerRuns.get());
+
+        release.countDown();
+        assertTrue(waitingDone.await(5, TimeUnit.SECONDS));
+        assertEquals(0, executor.getWaitingCount());
+    }
+
+    @Test
+    void returnsPermitsAfterTasksComplete() throws Exception {
+        CountDownLatch done = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            executor.execute(done::countDown);
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        long deadline = System.currentTimeMillis() + 2000;
+        while (executor.getActiveCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, executor.getActiveCount());
+        assertEquals(0, executor.getWaitingCount());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.haozi.common.handler;
+
+import com.alibaba.excel.ExcelWriter;
+import com.alibaba.excel.write.metadata.WriteSheet;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 按批写入 Excel 的结果处理器测试
+ *
+ * @author liliangyu
+ */
+class ExcelResultHandlerTest {
+
+    private final ExcelWriter excelWriter = mock(ExcelWriter.class);
+    /** 每次写出：sheet 名称 + 行数，缓冲区写出后会被清空，只能在写出时记录 */
+    private final List<Write> writes = new ArrayList<>();
+
+    ExcelResultHandlerTest() {
+        doAnswer(invocation -> {
+            Collection<?> rows = invocation.getArgument(0);
+            WriteSheet sheet = invocation.getArgument(1);
+            writes.add(new Write(sheet.getSheetNo(), sheet.getSheetName(), rows.size()));
+            return excelWriter;
+        }).when(excelWriter).write(any(Collection.class), any(WriteSheet.class));
+    }
+
+    @Test
+    void rollsOverToNewSheetAtMaxRows() {
+        ExcelResultHandler<Row> handler = new ExcelResultHandler<>(excelWriter, Row.class, 3, 5);
+        List<Long> flushed = new ArrayList<>();
+        handler.setFlushListener(flushed::add);
+
+        for (int i = 0; i < 12; i++) {
+            handler.add(new Row(i));
+        }
+        handler.flush();
+
+        Map<String, Integer> rowsPerSheet = new LinkedHashMap<>();
+        for (Write write : writes) {
+            assertTrue(write.rows() <= 3, "每批不超过批大小");
+            rowsPerSheet.merge(write.sheetName(), write.rows(), Integer::sum);
+        }
+        assertEquals(Map.of("Sheet1", 5, "Sheet2", 5, "Sheet3", 2), rowsPerSheet);
+        assertEquals(List.of("Sheet1", "Sheet2", "Sheet3"), new ArrayList<>(rowsPerSheet.keySet()));
+        assertEquals(0, writes.get(0).sheetNo());
+        assertEquals(2, writes.get(writes.size() - 1).sheetNo());
+        assertEquals(12, handler.getTotalRows());
+        assertEquals(writes.size(), flushed.size());
+        assertEquals(12L, flushed.get(flushed.size() - 1));
+    }
+
+    @Test
+    void exactMultipleOfMaxRowsDoesNotCreateEmptySheet() {
+        ExcelResultHandler<Row> handler = new ExcelResultHandler<>(excelWriter, Row.class, 10, 4);
+        for (int i = 0; i < 8; i++) {
+            handler.add(new Row(i));
+        }
+        handler.flush();
+
+        assertEquals(List.of(new Write(0, "Sheet1", 4), new Write(1, "Sheet2", 4)), writes);
+        assertEquals(8, handler.getTotalRows());
+    }
+
+    @Test
+    void emptyResultWritesHeaderOnce() {
+        ExcelResultHandler<Row> handler = new ExcelResultHandler<>(excelWriter, Row.class, 3, 5);
+        handler.flush();
+        handler.flush();
+
+        assertEquals(List.of(new Write(0, "Sheet1", 0)), writes);
+        assertEquals(0, handler.getTotalRows());
+    }
+
+    private record Write(Integer sheetNo, String sheetName, int rows) {
+    }
+
+    public static class Row {
+        private final int id;
+
+        Row(int id) {
+            this.id = id;
+        }
+
+        public int getId() {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.haozi.common.handler;
+
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.annotation.ExcelProperty;
+import com.alibaba.excel.enums.CellDataTypeEnum;
+import com.alibaba.excel.metadata.data.ImageData;
+import com.alibaba.excel.metadata.data.WriteCellData;
+import com.alibaba.excel.write.builder.ExcelWriterSheetBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 工作簿图片去重前后的文件大小与写入时间对比
+ * <p>
+ * 500 行、每行 3 张图片，图片取自 20 张不同图片（同一商品图在多行重复出现的典型导出）。
+ * 去重前以 EasyExcel 默认处理为准：与修改前的处理器一样，每次出现都调用 addPicture 嵌入一份。
+ *
+ * @author liliangyu
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ImageCellWriteHandlerBenchmarkTest {
+
+    private static final int ROWS = 500;
+    private static final int IMAGES_PER_ROW = 3;
+    private static final int DISTINCT_IMAGES = 20;
+    private static final int RUNS = 3;
+
+    private static final List<byte[]> IMAGES = new ArrayList<>();
+
+    @TempDir
+    Path dir;
+
+    @BeforeAll
+    static void createImages() throws IOException {
+        Random random = new Random(42);
+        for (int i = 0; i < DISTINCT_IMAGES; i++) {
+            BufferedImage image = new BufferedImage(200, 150, BufferedImage.TYPE_INT_RGB);
+            for (int x = 0; x < image.getWidth(); x++) {
+                for (int y = 0; y < image.getHeight(); y++) {
+                    image.setRGB(x, y, random.nextInt(0xFFFFFF));
+                }
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(image, "jpg", out);
+            IMAGES.add(out.toByteArray());
+        }
+    }
+
+    @Test
+    void deduplicationShrinksWorkbook() {
+        Measurement before = measure("before", false);
+        Measurement after = measure("after", true);
+
+        System.out.printf("[benchmark] %-40s size=%dKB write=%dms%n", "addPicture per occurrence",
+                before.bytes() / 1024, before.millis());
+        System.out.printf("[benchmark] %-40s size=%dKB write=%dms%n", "deduplicated pictures",
+                after.bytes() / 1024, after.millis());
+        assertTrue(after.bytes() < before.bytes(), "去重后文件应更小: before=" + before.bytes() + ", after=" + after.bytes());
+    }
+
+    /**
+     * 写入 RUNS 次，取最短写入时间
+     */
+    private Measurement measure(String name, boolean deduplicate) {
+        long bestMillis = Long.MAX_VALUE;
+        long bytes = 0;
+        for (int run = 0; run < RUNS; run++) {
+            File file = dir.resolve(name + "-" + run + ".xlsx").toFile();
+            List<Row> rows = rows();
+            long start = System.nanoTime();
+            ExcelWriterSheetBuilder builder = EasyExcel.write(file, Row.class).sheet("图片");
+            if (deduplicate) {
+                builder.registerWriteHandler(new ImageCellWriteHandler());
+            }
+            builder.doWrite(rows);
+            bestMillis = Math.min(bestMillis, (System.nanoTime() - start) / 1_000_000);
+            bytes = file.length();
+        }
+        return new Measurement(bytes, bestMillis);
+    }
+
+    /**
+     * 每次写入重新生成，处理器会修改单元格数据
+     */
+    private static List<Row> rows() {
+        List<Row> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            List<ImageData> images = new ArrayList<>(IMAGES_PER_ROW);
+            for (int j = 0; j < IMAGES_PER_ROW; j++) {
+                ImageData imageData = new ImageData();
+                imageData.setImage(IMAGES.get((i * IMAGES_PER_ROW + j) % DISTINCT_IMAGES));
+                imageData.setImageType(ImageData.ImageType.PICTURE_TYPE_JPEG);
+                images.add(imageData);
+            }
+            WriteCellData<Void> cellData = new WriteCellData<>();
+            cellData.setType(CellDataTypeEnum.EMPTY);
+            cellData.setImageDataList(images);
+            rows.add(new Row(cellData));
+        }
+        return rows;
+    }
+
+    private record Measurement(long bytes, long millis) {
+    }
+
+    public static class Row {
+        @ExcelProperty("图片")
+        private final WriteCellData<Void> images;
+
+        Row(WriteCellData<Void> images) {
+            this.images = images;
+        }
+
+        public WriteCellData<Void> getImages() {
+            return images;
+        }
+    }
+}
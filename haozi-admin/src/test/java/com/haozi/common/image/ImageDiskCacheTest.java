@@ -0,0 +1,88 @@
+package com.haozi.common.image;
+
+import com.haozi.common.config.ImageCompressionConfig;
+import com.haozi.common.config.ProjectConfiguration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 导出图片磁盘缓存测试
+ *
+ * @author liliangyu
+ */
+class ImageDiskCacheTest {
+
+    private static final int MAX_BYTES = 10;
+
+    @TempDir
+    Path dir;
+
+    private final ImageCompressionConfig config = new ImageCompressionConfig();
+
+    @Test
+    void reputtingSameContentKeepsBlob() throws IOException {
+        ImageDiskCache cache = newCache();
+        byte[] bytes = {1, 2, 3};
+        cache.put("a", config, new ImageDiskCache.CachedImage(bytes, 1, 1));
+        cache.put("a", config, new ImageDiskCache.CachedImage(bytes, 1, 1));
+
+        ImageDiskCache.CachedImage cached = cache.get("a", config);
+        assertNotNull(cached);
+        assertArrayEquals(bytes, cached.bytes());
+        assertEquals(1, count(dir.resolve("blobs")));
+    }
+
+    @Test
+    void sharedContentSurvivesUntilLastReferenceEvicted() throws IOException {
+        ImageDiskCache cache = newCache();
+        byte[] shared = {1, 2, 3, 4};
+        cache.put("a", config, new ImageDiskCache.CachedImage(shared, 1, 1));
+        cache.put("b", config, new ImageDiskCache.CachedImage(shared, 1, 1));
+        // 共享内容只计一次大小；写入 8 字节后超过上限，淘汰 a 时内容仍被 b 引用、大小不变，继续淘汰 b 后才删除内容文件
+        cache.put("c", config, new ImageDiskCache.CachedImage(new byte[8], 1, 1));
+
+        assertNull(cache.get("a", config));
+        assertNull(cache.get("b", config));
+        assertNotNull(cache.get("c", config));
+        assertEquals(1, count(dir.resolve("blobs")));
+        assertEquals(1, count(dir.resolve("index")));
+    }
+
+    @Test
+    void rebuildsIndexAfterRestart() {
+        byte[] bytes = {5, 6};
+        newCache().put("a", config, new ImageDiskCache.CachedImage(bytes, 3, 4));
+
+        ImageDiskCache.CachedImage cached = newCache().get("a", config);
+        assertNotNull(cached);
+        assertArrayEquals(bytes, cached.bytes());
+        assertEquals(3, cached.width());
+        assertEquals(4, cached.height());
+    }
+
+    private ImageDiskCache newCache() {
+        ProjectConfiguration projectConfiguration = new ProjectConfiguration();
+        ProjectConfiguration.ImageIoProperties properties = projectConfiguration.getImageIoProperties();
+        properties.setCacheDir(dir.toString());
+        properties.setCacheMaxBytes(MAX_BYTES);
+        ImageDiskCache cache = new ImageDiskCache(projectConfiguration);
+        cache.init();
+        return cache;
+    }
+
+    private static long count(Path path) throws IOException {
+        try (Stream<Path> files = Files.list(path)) {
+            return files.count();
+        }
+    }
+}
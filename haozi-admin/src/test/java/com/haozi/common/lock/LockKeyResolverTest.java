@@ -0,0 +1,107 @@
+package com.haozi.common.lock;
+
+import com.haozi.common.exception.LockAcquisitionException;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 锁key表达式解析器测试
+ *
+ * @author liliangyu
+ */
+class LockKeyResolverTest {
+
+    private final LockKeyResolver resolver = new LockKeyResolver();
+
+    @Test
+    void resolveKeepsLiteralKeyWithoutTemplate() throws Exception {
+        Method method = method("single", Long.class, String.class);
+        String key = "qrcode:generate";
+        assertSame(key, resolver.resolve(key, method, new Object[]{1L, "a"}));
+        assertTrue(cache().isEmpty());
+    }
+
+    @Test
+    void resolveTemplateKeepsTextOutsideExpression() throws Exception {
+        Method method = method("single", Long.class, String.class);
+        assertEquals("qrcode:generate:7:a",
+                resolver.resolve("qrcode:generate:#{#level}:#{#name}", method, new Object[]{7L, "a"}));
+    }
+
+    @Test
+    void resolveCachesParsedExpressionPerMethodAndExpression() throws Exception {
+        Method method = method("single", Long.class, String.class);
+        String expression = "lock:#{#level}";
+        for (long i = 0; i < 100; i++) {
+            assertEquals("lock:" + i, resolver.resolve(expression, method, new Object[]{i, "a"}));
+        }
+        assertEquals(1, cache().size());
+
+        resolver.resolve("lock:#{#name}", method, new Object[]{1L, "a"});
+        resolver.resolveAll("#level", method, new Object[]{1L, "a"});
+        assertEquals(3, cache().size());
+    }
+
+    @Test
+    void resolveAllAcceptsDifferentCollectionTypesAfterCompilation() throws Exception {
+        Method method = method("list", List.class);
+        // 多次调用触发编译，编译后的字节码按 ArrayList 做强制转换
+        for (int i = 0; i < 10; i++) {
+            assertEquals(List.of(1L, 2L), resolver.resolveAll("#userIdList", method,
+                    new Object[]{new ArrayList<>(List.of(1L, 2L))}));
+        }
+        assertEquals(List.of(3L), resolver.resolveAll("#userIdList", method, new Object[]{List.of(3L)}));
+        assertEquals(List.of(4L, 5L), resolver.resolveAll("#userIdList", method, new Object[]{Arrays.asList(4L, 5L)}));
+    }
+
+    @Test
+    void resolveAllFlattensArrayAndWrapsSingleValue() throws Exception {
+        Method arrayMethod = method("array", long[].class);
+        assertEquals(List.of(1L, 2L), resolver.resolveAll("#ids", arrayMethod, new Object[]{new long[]{1L, 2L}}));
+
+        Method singleMethod = method("single", Long.class, String.class);
+        assertEquals(List.of(9L), resolver.resolveAll("#level", singleMethod, new Object[]{9L, "a"}));
+        assertEquals(List.of(), resolver.resolveAll("#level", singleMethod, new Object[]{null, "a"}));
+    }
+
+    @Test
+    void resolveRejectsBlankAndInvalidExpression() throws Exception {
+        Method method = method("single", Long.class, String.class);
+        assertThrows(IllegalArgumentException.class, () -> resolver.resolve(" ", method, new Object[]{1L, "a"}));
+        assertThrows(LockAcquisitionException.class, () -> resolver.resolve("lock:#{#level.}", method, new Object[]{1L, "a"}));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Object, Object> cache() throws Exception {
+        java.lang.reflect.Field field = LockKeyResolver.class.getDeclaredField("cache");
+        field.setAccessible(true);
+        return (Map<Object, Object>) field.get(resolver);
+    }
+
+    private static Method method(String name, Class<?>... parameterTypes) throws NoSuchMethodException {
+        return Target.class.getDeclaredMethod(name, parameterTypes);
+    }
+
+    @SuppressWarnings("unused")
+    private static class Target {
+
+        void single(Long level, String name) {
+        }
+
+        void list(List<Long> userIdList) {
+        }
+
+        void array(long[] ids) {
+        }
+    }
+}
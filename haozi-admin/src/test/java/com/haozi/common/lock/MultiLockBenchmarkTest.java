@@ -0,0 +1,101 @@
+package com.haozi.common.lock;
+
+import com.haozi.common.config.ProjectConfiguration;
+import com.haozi.support.BenchmarkSupport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 批量锁与粗粒度锁的对比
+ * <p>
+ * 模拟按角色批量分配用户：每次操作涉及 USERS 个用户中随机的 KEYS_PER_OP 个，持锁期间耗时 WORK_MILLIS。
+ * 粗粒度锁所有批量操作串行；按用户加批量锁时只有涉及同一用户的操作互斥。输出吞吐量与 p50/p99。
+ *
+ * @author liliangyu
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@EnabledIf("com.haozi.support.BenchmarkSupport#redisAvailable")
+class MultiLockBenchmarkTest {
+
+    private static final int THREADS = 16;
+    private static final int OPS_PER_THREAD = 100;
+    private static final int USERS = 1000;
+    private static final int KEYS_PER_OP = 5;
+    private static final long WORK_MILLIS = 2;
+    private static final long WAIT_SECONDS = 60;
+    private static final String PREFIX = "bench:user:role:";
+
+    private RedissonClient redissonClient;
+    private RedisLockService redisLockService;
+
+    @BeforeEach
+    void setUp() {
+        Config config = new Config();
+        config.useSingleServer().setAddress("redis://" + BenchmarkSupport.REDIS_HOST + ":" + BenchmarkSupport.REDIS_PORT);
+        redissonClient = Redisson.create(config);
+        ProjectConfiguration projectConfiguration = new ProjectConfiguration();
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("redissonClient", redissonClient));
+        redisLockService = new RedisLockService(redissonClient, projectConfiguration,
+                beanFactory.getBeanProvider(RedissonClient.class),
+                new LockMetrics(new SimpleMeterRegistry(), projectConfiguration),
+                beanFactory.getBeanProvider(AsyncConfigurer.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        redissonClient.shutdown();
+    }
+
+    @Test
+    void multiLockOutperformsCoarseLock() throws Exception {
+        BenchmarkSupport.Result coarse = BenchmarkSupport.run(THREADS, OPS_PER_THREAD, i -> {
+            String key = PREFIX + "all";
+            assertTrue(redisLockService.tryLock(key, "coarse", WAIT_SECONDS, -1, TimeUnit.SECONDS, LockType.REENTRANT));
+            try {
+                Thread.sleep(WORK_MILLIS);
+            } finally {
+                redisLockService.unlock(key, LockType.REENTRANT);
+            }
+        });
+
+        BenchmarkSupport.Result multi = BenchmarkSupport.run(THREADS, OPS_PER_THREAD, i -> {
+            List<String> keys = randomUsers();
+            assertTrue(redisLockService.tryMultiLock(keys, "multi", WAIT_SECONDS, -1, TimeUnit.SECONDS));
+            try {
+                Thread.sleep(WORK_MILLIS);
+            } finally {
+                redisLockService.unlockMulti(keys);
+            }
+        });
+
+        BenchmarkSupport.print("coarse lock", coarse);
+        BenchmarkSupport.print("multi lock (" + KEYS_PER_OP + " keys)", multi);
+        assertTrue(multi.throughput() > coarse.throughput(),
+                "批量锁吞吐量应高于粗粒度锁: coarse=" + coarse.throughput() + ", multi=" + multi.throughput());
+    }
+
+    private static List<String> randomUsers() {
+        return Stream.generate(() -> PREFIX + ThreadLocalRandom.current().nextInt(USERS))
+                .limit(KEYS_PER_OP)
+                .toList();
+    }
+}
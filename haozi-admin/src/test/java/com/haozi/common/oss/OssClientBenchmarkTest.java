@@ -0,0 +1,108 @@
+package com.haozi.common.oss;
+
+import com.aliyun.oss.OSS;
+import com.aliyun.oss.OSSClientBuilder;
+import com.haozi.common.config.OssConfiguration;
+import com.haozi.common.config.ProjectConfiguration;
+import com.haozi.support.BenchmarkSupport;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 共用 OSS 客户端与每次上传新建客户端的单次上传开销对比
+ * <p>
+ * 以本地 HttpServer 模拟 OSS：读完请求体后返回 200 与 ETag，不做签名校验，
+ * 测得的差异即客户端创建、连接池与线程初始化、建立连接和关闭的开销。
+ *
+ * @author liliangyu
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class OssClientBenchmarkTest {
+
+    private static final int THREADS = 8;
+    private static final int UPLOADS_PER_THREAD = 200;
+    private static final int OBJECT_SIZE = 64 * 1024;
+    private static final String BUCKET = "bench";
+    private static final String ACCESS_KEY_ID = "test-id";
+    private static final String ACCESS_KEY_SECRET = "test-secret";
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String endpoint;
+    private final byte[] payload = new byte[OBJECT_SIZE];
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ThreadLocalRandom.current().nextBytes(payload);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 128);
+        server.createContext("/", exchange -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            exchange.getResponseHeaders().add("ETag", "\"bench\"");
+            exchange.getResponseHeaders().add("x-oss-request-id", "bench");
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        serverExecutor = Executors.newFixedThreadPool(THREADS * 2);
+        server.setExecutor(serverExecutor);
+        server.start();
+        endpoint = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void sharedClientHasLowerPerUploadOverhead() throws Exception {
+        BenchmarkSupport.Result perUpload = BenchmarkSupport.run(THREADS, UPLOADS_PER_THREAD, i -> {
+            // 修改前的做法：每次上传新建客户端，上传后关闭
+            OSS client = new OSSClientBuilder().build(endpoint, ACCESS_KEY_ID, ACCESS_KEY_SECRET);
+            try {
+                upload(client, i);
+            } finally {
+                client.shutdown();
+            }
+        });
+
+        ProjectConfiguration projectConfiguration = new ProjectConfiguration();
+        ProjectConfiguration.AliyunOssProperties properties = projectConfiguration.getAliyunOssProperties();
+        properties.setEndPoint(endpoint);
+        properties.setAccessKeyId(ACCESS_KEY_ID);
+        properties.setAccessKeySecret(ACCESS_KEY_SECRET);
+        OSS shared = new OssConfiguration().ossClient(projectConfiguration);
+        BenchmarkSupport.Result sharedResult;
+        try {
+            sharedResult = BenchmarkSupport.run(THREADS, UPLOADS_PER_THREAD, i -> upload(shared, i));
+        } finally {
+            shared.shutdown();
+        }
+
+        BenchmarkSupport.print("new client per upload", perUpload);
+        BenchmarkSupport.print("shared client", sharedResult);
+        assertTrue(sharedResult.throughput() > perUpload.throughput(),
+                "共用客户端吞吐量应高于每次新建: perUpload=" + perUpload.throughput() + ", shared=" + sharedResult.throughput());
+    }
+
+    private void upload(OSS client, int index) {
+        client.putObject(BUCKET, "bench/" + Thread.currentThread().getId() + "-" + index, new ByteArrayInputStream(payload));
+    }
+}
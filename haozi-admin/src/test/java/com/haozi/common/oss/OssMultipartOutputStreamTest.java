@@ -0,0 +1,206 @@
+package com.haozi.common.oss;
+
+import com.aliyun.oss.OSS;
+import com.aliyun.oss.model.AbortMultipartUploadRequest;
+import com.aliyun.oss.model.CompleteMultipartUploadRequest;
+import com.aliyun.oss.model.CompleteMultipartUploadResult;
+import com.aliyun.oss.model.InitiateMultipartUploadRequest;
+import com.aliyun.oss.model.InitiateMultipartUploadResult;
+import com.aliyun.oss.model.PartETag;
+import com.aliyun.oss.model.PutObjectResult;
+import com.aliyun.oss.model.UploadPartRequest;
+import com.aliyun.oss.model.UploadPartResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 直接写入 OSS 的输出流测试，OSS 客户端使用 mock
+ *
+ * @author liliangyu
+ */
+class OssMultipartOutputStreamTest {
+
+    private static final String BUCKET = "bucket";
+    private static final String KEY = "export/test.xlsx";
+    private static final String UPLOAD_ID = "upload-1";
+    private static final int PART_SIZE = 4;
+    private static final int BUFFERS = 4;
+
+    private final OSS client = mock(OSS.class);
+    private final OssBufferPool bufferPool = new OssBufferPool(PART_SIZE, BUFFERS);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OssUploadMetrics metrics = new OssUploadMetrics(meterRegistry);
+    /** 分片号 -> 分片内容，需在 uploadPart 中读取，返回后缓冲区即归还 */
+    private final Map<Integer, byte[]> uploadedParts = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newFixedThreadPool(BUFFERS);
+
+    OssMultipartOutputStreamTest() {
+        InitiateMultipartUploadResult initiated = new InitiateMultipartUploadResult();
+        initiated.setUploadId(UPLOAD_ID);
+        when(client.initiateMultipartUpload(any(InitiateMultipartUploadRequest.class))).thenReturn(initiated);
+        when(client.completeMultipartUpload(any(CompleteMultipartUploadRequest.class)))
+                .thenReturn(new CompleteMultipartUploadResult());
+    }
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void uploadsPartsAndCompletesInPartNumberOrder() throws Exception {
+        // 第 1 个分片等第 3 个分片开始后才完成，完成顺序与分片号相反
+        CountDownLatch lastPartStarted = new CountDownLatch(1);
+        when(client.uploadPart(any(UploadPartRequest.class))).thenAnswer(invocation -> {
+            UploadPartRequest request = invocation.getArgument(0);
+            if (request.getPartNumber() == 3) {
+                lastPartStarted.countDown();
+            } else if (request.getPartNumber() == 1) {
+                assertTrue(lastPartStarted.await(5, TimeUnit.SECONDS));
+            }
+            return uploadPart(request);
+        });
+
+        byte[] data = "0123456789".getBytes(StandardCharsets.UTF_8);
+        OssMultipartOutputStream out = newStream();
+        out.write(data);
+        out.close();
+
+        ArgumentCaptor<CompleteMultipartUploadRequest> captor = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        verify(client).completeMultipartUpload(captor.capture());
+        List<PartETag> partETags = captor.getValue().getPartETags();
+        assertEquals(List.of(1, 2, 3), partETags.stream().map(PartETag::getPartNumber).toList());
+        assertEquals(UPLOAD_ID, captor.getValue().getUploadId());
+        assertArrayEquals(data, concatParts(3));
+        assertEquals(10, out.getSize());
+        verify(client, never()).putObject(anyString(), anyString(), any(InputStream.class));
+        assertEquals(3, meterRegistry.get("oss.upload").tag("type", "part").tag("result", "success").timer().count());
+        assertEquals(BUFFERS, bufferPool.getAvailable());
+    }
+
+    @Test
+    void abortsUploadWhenPartFails() throws Exception {
+        when(client.uploadPart(any(UploadPartRequest.class))).thenAnswer(invocation -> {
+            UploadPartRequest request = invocation.getArgument(0);
+            if (request.getPartNumber() == 2) {
+                throw new IllegalStateException("upload failed");
+            }
+            return uploadPart(request);
+        });
+
+        OssMultipartOutputStream out = newStream();
+        out.write("0123456789".getBytes(StandardCharsets.UTF_8));
+        IOException e = assertThrows(IOException.class, out::close);
+        assertTrue(e.getCause() instanceof IllegalStateException);
+
+        ArgumentCaptor<AbortMultipartUploadRequest> captor = ArgumentCaptor.forClass(AbortMultipartUploadRequest.class);
+        verify(client).abortMultipartUpload(captor.capture());
+        assertEquals(UPLOAD_ID, captor.getValue().getUploadId());
+        verify(client, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+        assertEquals(1, meterRegistry.get("oss.upload").tag("type", "part").tag("result", "failed").timer().count());
+        assertEquals(BUFFERS, bufferPool.getAvailable());
+    }
+
+    @Test
+    void abortCancelsStartedUploadAndReturnsBuffers() throws Exception {
+        when(client.uploadPart(any(UploadPartRequest.class))).thenAnswer(invocation -> uploadPart(invocation.getArgument(0)));
+
+        OssMultipartOutputStream out = newStream();
+        out.write("012345".getBytes(StandardCharsets.UTF_8));
+        out.abort();
+        // abort 后再关闭不会提交
+        out.close();
+
+        verify(client).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+        verify(client, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+        assertEquals(BUFFERS, bufferPool.getAvailable());
+        assertThrows(IOException.class, () -> out.write(1));
+    }
+
+    @Test
+    void putsObjectDirectlyBelowOnePart() throws Exception {
+        ByteArrayOutputStream put = new ByteArrayOutputStream();
+        when(client.putObject(eq(BUCKET), eq(KEY), any(InputStream.class))).thenAnswer(invocation -> {
+            InputStream in = invocation.getArgument(2);
+            in.transferTo(put);
+            return new PutObjectResult();
+        });
+
+        // 恰好一个分片大小时缓冲区已满但尚未提交，仍走 putObject
+        byte[] data = "0123".getBytes(StandardCharsets.UTF_8);
+        OssMultipartOutputStream out = newStream();
+        out.write(data);
+        out.close();
+
+        assertArrayEquals(data, put.toByteArray());
+        verify(client, never()).initiateMultipartUpload(any(InitiateMultipartUploadRequest.class));
+        verify(client, never()).uploadPart(any(UploadPartRequest.class));
+        assertEquals(1, meterRegistry.get("oss.upload").tag("type", "put").timer().count());
+        assertEquals(BUFFERS, bufferPool.getAvailable());
+    }
+
+    @Test
+    void putsEmptyObjectWhenNothingWritten() throws Exception {
+        ByteArrayOutputStream put = new ByteArrayOutputStream();
+        when(client.putObject(eq(BUCKET), eq(KEY), any(InputStream.class))).thenAnswer(invocation -> {
+            InputStream in = invocation.getArgument(2);
+            in.transferTo(put);
+            return new PutObjectResult();
+        });
+
+        OssMultipartOutputStream out = newStream();
+        out.close();
+
+        assertEquals(0, put.size());
+        assertEquals(BUFFERS, bufferPool.getAvailable());
+    }
+
+    private OssMultipartOutputStream newStream() {
+        return new OssMultipartOutputStream(client, BUCKET, KEY, bufferPool, executor, metrics);
+    }
+
+    private UploadPartResult uploadPart(UploadPartRequest request) throws IOException {
+        assertEquals(UPLOAD_ID, request.getUploadId());
+        byte[] bytes = request.getInputStream().readAllBytes();
+        assertEquals(request.getPartSize(), bytes.length);
+        uploadedParts.put(request.getPartNumber(), bytes);
+        UploadPartResult result = new UploadPartResult();
+        result.setPartNumber(request.getPartNumber());
+        result.setETag("etag-" + request.getPartNumber());
+        return result;
+    }
+
+    private byte[] concatParts(int count) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 1; i <= count; i++) {
+            out.writeBytes(uploadedParts.get(i));
+        }
+        return out.toByteArray();
+    }
+}
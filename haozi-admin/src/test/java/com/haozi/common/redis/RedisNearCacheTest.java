@@ -0,0 +1,194 @@
+package com.haozi.common.redis;
+
+import com.haozi.common.config.ProjectConfiguration;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.sync.RedisCommands;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Redis 客户端缓存测试
+ * <p>
+ * 需要本地 Redis 6+（默认 localhost:6379，可通过环境变量 REDIS_HOST、REDIS_PORT 指定），不可用时跳过。
+ * 使用 15 号库，测试前后清理本测试的 key。
+ *
+ * @author liliangyu
+ */
+@EnabledIf("redisAvailable")
+class RedisNearCacheTest {
+
+    private static final String HOST = System.getenv().getOrDefault("REDIS_HOST", "localhost");
+    private static final int PORT = Integer.parseInt(System.getenv().getOrDefault("REDIS_PORT", "6379"));
+    private static final int DATABASE = 15;
+    private static final String PREFIX = "near-cache-test:";
+    private static final long INVALIDATION_TIMEOUT_MS = 2000;
+
+    private RedisNearCache nearCache;
+    private RedisClient client;
+    private StatefulRedisConnection<String, String> connection;
+    private RedisCommands<String, String> redis;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    static boolean redisAvailable() {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(HOST, PORT), 200);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        client = RedisClient.create(RedisURI.builder().withHost(HOST).withPort(PORT).withDatabase(DATABASE).build());
+        connection = client.connect();
+        redis = connection.sync();
+        cleanUp();
+
+        ProjectConfiguration projectConfiguration = new ProjectConfiguration();
+        ProjectConfiguration.RedisNearCacheProperties properties = projectConfiguration.getRedisNearCacheProperties();
+        properties.setEnabled(true);
+        properties.setPrefixes(new ArrayList<>(List.of(PREFIX)));
+        properties.setMaxEntries(100);
+        RedisProperties redisProperties = new RedisProperties();
+        redisProperties.setHost(HOST);
+        redisProperties.setPort(PORT);
+        redisProperties.setDatabase(DATABASE);
+        nearCache = new RedisNearCache(projectConfiguration, redisProperties);
+        nearCache.start();
+        assertTrue(nearCache.isAvailable(), "Redis 需支持 RESP3 与 CLIENT TRACKING");
+    }
+
+    @AfterEach
+    void tearDown() {
+        nearCache.stop();
+        cleanUp();
+        connection.close();
+        client.shutdown();
+    }
+
+    @Test
+    void servesRepeatedReadsLocally() {
+        String key = PREFIX + "a";
+        redis.set(key, "v1");
+
+        assertEquals("v1", get(key));
+        assertEquals("v1", get(key));
+        assertEquals(1, loads.get());
+        assertEquals(1, nearCache.size());
+    }
+
+    @Test
+    void writeFromAnotherClientInvalidatesEntry() throws InterruptedException {
+        String key = PREFIX + "b";
+        redis.set(key, "v1");
+        assertEquals("v1", get(key));
+
+        redis.set(key, "v2");
+        assertEquals("v2", awaitValue(key, "v2"));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void deleteEvictsEntryAndNullIsNotCached() throws InterruptedException {
+        String key = PREFIX + "c";
+        redis.set(key, "v1");
+        assertEquals("v1", get(key));
+
+        redis.del(key);
+        long deadline = System.currentTimeMillis() + INVALIDATION_TIMEOUT_MS;
+        while (nearCache.size() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, nearCache.size());
+        assertNull(get(key));
+        assertNull(get(key));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void untrackedPrefixAlwaysLoads() {
+        String key = "near-cache-untracked:" + System.nanoTime();
+        get(key);
+        get(key);
+        assertEquals(2, loads.get());
+        assertEquals(0, nearCache.size());
+    }
+
+    @Test
+    void getAllLoadsOnlyMisses() {
+        redis.set(PREFIX + "d1", "1");
+        redis.set(PREFIX + "d2", "2");
+        assertEquals("1", get(PREFIX + "d1"));
+
+        List<Collection<String>> batches = new ArrayList<>();
+        Map<String, String> values = nearCache.getAll(List.of(PREFIX + "d1", PREFIX + "d2"), keys -> {
+            batches.add(List.copyOf(keys));
+            Map<String, String> loaded = new LinkedHashMap<>();
+            keys.forEach(key -> loaded.put(key, redis.get(key)));
+            return loaded;
+        }, UnaryOperator.identity());
+
+        assertEquals(Map.of(PREFIX + "d1", "1", PREFIX + "d2", "2"), values);
+        assertEquals(List.of(List.of(PREFIX + "d2")), batches);
+    }
+
+    @Test
+    void returnsCopiesSoCallersCannotMutateEntry() {
+        String key = PREFIX + "e";
+        redis.rpush(key, "x", "y");
+        Supplier<List<String>> loader = () -> {
+            loads.incrementAndGet();
+            return redis.lrange(key, 0, -1);
+        };
+
+        nearCache.get(key, loader, ArrayList::new).add("mutated");
+        assertEquals(List.of("x", "y"), nearCache.get(key, loader, ArrayList::new));
+        assertEquals(1, loads.get());
+    }
+
+    private String get(String key) {
+        return nearCache.get(key, () -> {
+            loads.incrementAndGet();
+            return redis.get(key);
+        }, UnaryOperator.identity());
+    }
+
+    private String awaitValue(String key, String expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + INVALIDATION_TIMEOUT_MS;
+        String value = get(key);
+        while (!expected.equals(value) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            value = get(key);
+        }
+        return value;
+    }
+
+    private void cleanUp() {
+        List<String> keys = redis.keys(PREFIX + "*");
+        if (!keys.isEmpty()) {
+            redis.del(keys.toArray(new String[0]));
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.haozi.common.utils;
+
+import com.haozi.common.config.ImageCompressionConfig;
+import com.haozi.support.BenchmarkSupport;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 导出图片压缩的吞吐量与峰值堆内存对比
+ * <p>
+ * 修改前：完整解码原图、缩放后从 0.9 起按 0.1 逐级降低 JPEG 质量，每次新建编码器；
+ * 修改后：{@link ExcelImageUtil} 降采样解码、二分查找质量并复用编码器。
+ * 输入为 4000x3000 的 JPEG（约 1200 万像素的手机照片），目标为默认的 200x150、50KB。
+ *
+ * @author liliangyu
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ExcelImageCompressionBenchmarkTest {
+
+    private static final int THREADS = 4;
+    private static final int IMAGES_PER_THREAD = 10;
+    private static final int WIDTH = 4000;
+    private static final int HEIGHT = 3000;
+
+    private static byte[] photo;
+    private final ImageCompressionConfig config = new ImageCompressionConfig();
+
+    @BeforeAll
+    static void createPhoto() throws IOException {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        Random random = new Random(42);
+        // 色块加噪点，避免 JPEG 压缩得过小
+        for (int i = 0; i < 2000; i++) {
+            g.setColor(new Color(random.nextInt(0xFFFFFF)));
+            g.fillRect(random.nextInt(WIDTH), random.nextInt(HEIGHT), 20 + random.nextInt(400), 20 + random.nextInt(300));
+        }
+        g.dispose();
+        for (int i = 0; i < WIDTH * HEIGHT / 20; i++) {
+            image.setRGB(random.nextInt(WIDTH), random.nextInt(HEIGHT), random.nextInt(0xFFFFFF));
+        }
+        photo = encode(image, 0.9f);
+    }
+
+    @Test
+    void subsampledDecodeUsesLessHeapAndRunsFaster() throws Exception {
+        // 预热
+        BenchmarkSupport.run(THREADS, 2, i -> compressBefore(photo));
+        BenchmarkSupport.run(THREADS, 2, i -> ExcelImageUtil.compressImageBytes(photo, config));
+
+        BenchmarkSupport.resetPeakHeap();
+        BenchmarkSupport.Result before = BenchmarkSupport.run(THREADS, IMAGES_PER_THREAD, i -> compressBefore(photo));
+        long beforePeak = BenchmarkSupport.peakHeapBytes();
+
+        BenchmarkSupport.resetPeakHeap();
+        BenchmarkSupport.Result after = BenchmarkSupport.run(THREADS, IMAGES_PER_THREAD,
+                i -> ExcelImageUtil.compressImageBytes(photo, config));
+        long afterPeak = BenchmarkSupport.peakHeapBytes();
+
+        System.out.printf("[benchmark] input %dx%d, %dKB%n", WIDTH, HEIGHT, photo.length / 1024);
+        BenchmarkSupport.print("full decode + linear quality", before);
+        System.out.printf("[benchmark] peak heap before=%dMB%n", beforePeak / 1024 / 1024);
+        BenchmarkSupport.print("subsampled decode + binary search", after);
+        System.out.printf("[benchmark] peak heap after=%dMB%n", afterPeak / 1024 / 1024);
+        assertTrue(after.throughput() > before.throughput(),
+                "吞吐量应提升: before=" + before.throughput() + ", after=" + after.throughput());
+        assertTrue(afterPeak < beforePeak, "峰值堆内存应下降: before=" + beforePeak + ", after=" + afterPeak);
+    }
+
+    /**
+     * 修改前的压缩流程
+     */
+    private byte[] compressBefore(byte[] originalBytes) throws IOException {
+        BufferedImage original = ImageIO.read(new ByteArrayInputStream(originalBytes));
+        double ratio = Math.min((double) config.getMaxWidth() / original.getWidth(), (double) config.getMaxHeight() / original.getHeight());
+        BufferedImage resized = resize(original, (int) (original.getWidth() * ratio), (int) (original.getHeight() * ratio));
+        int targetBytes = config.getMaxFileSizeKb() * 1024;
+        byte[] compressed = encode(resized, config.getJpegQuality());
+        float quality = 0.9f;
+        while (compressed.length > targetBytes && quality > 0.1f) {
+            compressed = encode(resized, quality);
+            quality -= 0.1f;
+        }
+        return compressed;
+    }
+
+    private static BufferedImage resize(BufferedImage image, int width, int height) {
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = resized.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.drawImage(image, 0, 0, width, height, null);
+        g.dispose();
+        return resized;
+    }
+
+    private static byte[] encode(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
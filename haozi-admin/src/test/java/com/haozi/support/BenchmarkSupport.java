@@ -0,0 +1,158 @@
+package com.haozi.support;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 基准与压测公共方法
+ * <p>
+ * 基准测试标注 {@code @Tag("benchmark")} 并以系统属性 benchmark=true 开启，默认构建不运行：
+ * {@code mvn -pl haozi-admin test -DskipTests=false -Dbenchmark=true -Dtest=XxxBenchmarkTest}。
+ * 需要 Redis 的测试通过环境变量 REDIS_HOST、REDIS_PORT 指定地址（默认 localhost:6379），不可用时跳过。
+ *
+ * @author liliangyu
+ */
+public final class BenchmarkSupport {
+
+    public static final String REDIS_HOST = System.getenv().getOrDefault("REDIS_HOST", "localhost");
+    public static final int REDIS_PORT = Integer.parseInt(System.getenv().getOrDefault("REDIS_PORT", "6379"));
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * 本地 Redis 是否可连接，供 {@code @EnabledIf} 使用
+     *
+     * @return 是否可连接
+     */
+    public static boolean redisAvailable() {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(REDIS_HOST, REDIS_PORT), 200);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 多线程执行操作并记录每次耗时
+     *
+     * @param threads      线程数
+     * @param opsPerThread 每个线程的操作次数
+     * @param operation    操作，参数为线程内序号
+     * @return 结果
+     */
+    public static Result run(int threads, int opsPerThread, Operation operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        try {
+            List<Future<long[]>> futures = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    long[] latencies = new long[opsPerThread];
+                    ready.countDown();
+                    go.await();
+                    for (int i = 0; i < opsPerThread; i++) {
+                        long start = System.nanoTime();
+                        operation.run(i);
+                        latencies[i] = System.nanoTime() - start;
+                    }
+                    return latencies;
+                }));
+            }
+            ready.await();
+            long start = System.nanoTime();
+            go.countDown();
+            long[] all = new long[threads * opsPerThread];
+            int offset = 0;
+            for (Future<long[]> future : futures) {
+                long[] latencies = future.get();
+                System.arraycopy(latencies, 0, all, offset, latencies.length);
+                offset += latencies.length;
+            }
+            return new Result(all, System.nanoTime() - start);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * GC 后重置各堆内存池的峰值，之后用 {@link #peakHeapBytes()} 读取这段时间的峰值
+     */
+    public static void resetPeakHeap() {
+        System.gc();
+        heapPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    /**
+     * 自上次 {@link #resetPeakHeap()} 以来各堆内存池峰值之和，各池峰值不一定同时出现，用于粗略比较
+     *
+     * @return 字节数
+     */
+    public static long peakHeapBytes() {
+        return heapPools().stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP && pool.isValid())
+                .toList();
+    }
+
+    /**
+     * 打印一行结果，格式固定便于比较
+     *
+     * @param name   场景名称
+     * @param result 结果
+     */
+    public static void print(String name, Result result) {
+        System.out.printf("[benchmark] %-40s ops=%d throughput=%.0f/s p50=%.3fms p99=%.3fms%n",
+                name, result.latencies().length, result.throughput(), result.percentileMs(50), result.percentileMs(99));
+    }
+
+    /**
+     * 单次操作
+     */
+    @FunctionalInterface
+    public interface Operation {
+        void run(int index) throws Exception;
+    }
+
+    /**
+     * 执行结果
+     *
+     * @param latencies    每次操作耗时(纳秒)
+     * @param elapsedNanos 总耗时(纳秒)
+     */
+    public record Result(long[] latencies, long elapsedNanos) {
+
+        /**
+         * 每秒操作数
+         */
+        public double throughput() {
+            return latencies.length * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        /**
+         * 百分位耗时(毫秒)
+         */
+        public double percentileMs(double percentile) {
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000_000.0;
+        }
+    }
+}